@@ -20,9 +20,9 @@ import android.util.Pair;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 
 /*
@@ -34,8 +34,6 @@ public class SeslKoreanGeneralizer {
     private static final int KOREAN_SYLLABLE_BASE = 44032;
     private static final int KOREAN_SYLLABLE_COUNT = 11172;
     private static final int RO_EUL_RO_JONG_SUNG_EXCEPTIONS = 2;
-    private static final String HAS_JOSA_REGEX = "(?s)(.*)\\((.+)\\)(.*)";
-    private static final Pattern HAS_JOSA_PATTERN = Pattern.compile(HAS_JOSA_REGEX);
 
     private static final Map<String, Pair<String, String>> JOSA_KOREAN_MAP = new HashMap<>() {
         {
@@ -89,73 +87,124 @@ public class SeslKoreanGeneralizer {
         }
     };
 
+    private static final JosaNode JOSA_TRIE = buildJosaTrie();
+
     @NonNull
     public String naturalizeText(@NonNull String koreanStr) {
         return naturalize(koreanStr);
     }
 
-    private String naturalize(String str) {
-        if (str.isEmpty()) {
-            return "";
-        }
-
-        if (!hasJosaInString(str)) {
-            return str;
+    /**
+     * Naturalizes each of {@code koreanStrs}, reusing a single buffer for the whole batch.
+     *
+     * @return a new array holding the naturalized strings in the same order
+     */
+    @NonNull
+    public String[] naturalizeTexts(@NonNull String[] koreanStrs) {
+        final String[] result = new String[koreanStrs.length];
+        StringBuilder sb = null;
+        for (int i = 0; i < koreanStrs.length; i++) {
+            final String str = koreanStrs[i];
+            if (!hasJosaInString(str)) {
+                result[i] = str;
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(str.length());
+            } else {
+                sb.setLength(0);
+            }
+            naturalizeInto(str, sb);
+            result[i] = sb.toString();
         }
+        return result;
+    }
 
-        StringBuilder sb = new StringBuilder(str.length());
+    /**
+     * Appends the naturalized form of {@code koreanStr} to {@code out} without allocating.
+     */
+    public void naturalizeInto(@NonNull CharSequence koreanStr, @NonNull StringBuilder out) {
+        final int length = koreanStr.length();
         int i = 0;
         char previousChar = 0;
 
-        while (i < str.length()) {
-            String substring = str.substring(i);
-            String josaPattern = null;
-
-            for (String key : JOSA_KOREAN_MAP.keySet()) {
-                if (substring.startsWith(key)) {
-                    josaPattern = key;
-                    break;
-                }
-            }
-
-            if (josaPattern == null) {
-                sb.append(str.charAt(i));
-                previousChar = str.charAt(i);
-                i++;
-                continue;
-            }
+        while (i < length) {
+            final char c = koreanStr.charAt(i);
+            final JosaNode josa = matchJosa(koreanStr, i);
 
             // Check if the previous character is non-pronounceable
-            if (NON_PRONOUNCEABLE_CHARACTERS.indexOf(previousChar) >= 0) {
-                sb.append(str.charAt(i));
-                previousChar = str.charAt(i);
+            if (josa == null || NON_PRONOUNCEABLE_CHARACTERS.indexOf(previousChar) >= 0) {
+                out.append(c);
+                previousChar = c;
                 i++;
                 continue;
             }
 
-            boolean isEulRo = josaPattern.equals("(으)로");
-            Boolean endsWithJongSung = checkIfEndsWithKoreanJongSung(previousChar, isEulRo);
+            Boolean endsWithJongSung = checkIfEndsWithKoreanJongSung(previousChar, josa.mIsEulRo);
             if (endsWithJongSung == null) {
-                endsWithJongSung = checkIfEndsWithPronounceableSymbols(previousChar, isEulRo);
+                endsWithJongSung = checkIfEndsWithPronounceableSymbols(previousChar, josa.mIsEulRo);
             }
 
             if (endsWithJongSung == null) {
                 throw new IllegalArgumentException("Invalid character: " + previousChar);
             }
 
-            String josaFirst = JOSA_KOREAN_MAP.get(josaPattern).first;
-            String josaSecond = JOSA_KOREAN_MAP.get(josaPattern).second;
-
-            String josaToAppend = endsWithJongSung ? josaFirst : josaSecond;
-            sb.append(josaToAppend);
+            final String josaToAppend = endsWithJongSung ? josa.mJosaFirst : josa.mJosaSecond;
+            out.append(josaToAppend);
 
             previousChar = josaToAppend.charAt(josaToAppend.length() - 1);
-            i += josaPattern.length();
+            i += josa.mPatternLength;
         }
+    }
 
+    private String naturalize(String str) {
+        if (str.isEmpty()) {
+            return "";
+        }
+
+        if (!hasJosaInString(str)) {
+            return str;
+        }
+
+        StringBuilder sb = new StringBuilder(str.length());
+        naturalizeInto(str, sb);
         return sb.toString();
     }
 
+    /**
+     * Returns the josa pattern starting at {@code start}, or {@code null} if there is none. No
+     * pattern is a prefix of another, so the first terminal node reached is the match.
+     */
+    @Nullable
+    private static JosaNode matchJosa(CharSequence str, int start) {
+        JosaNode node = JOSA_TRIE;
+        for (int i = start; i < str.length(); i++) {
+            node = node.child(str.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            if (node.mJosaFirst != null) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static JosaNode buildJosaTrie() {
+        final JosaNode root = new JosaNode();
+        for (Map.Entry<String, Pair<String, String>> entry : JOSA_KOREAN_MAP.entrySet()) {
+            final String pattern = entry.getKey();
+            JosaNode node = root;
+            for (int i = 0; i < pattern.length(); i++) {
+                node = node.getOrAddChild(pattern.charAt(i));
+            }
+            node.mJosaFirst = entry.getValue().first;
+            node.mJosaSecond = entry.getValue().second;
+            node.mPatternLength = pattern.length();
+            node.mIsEulRo = pattern.equals("(으)로");
+        }
+        return root;
+    }
 
     @Nullable
     private static Boolean checkIfEndsWithKoreanJongSung(int index, boolean isEulRo) {
@@ -169,8 +218,13 @@ public class SeslKoreanGeneralizer {
         return jongSungIndex > 0;
     }
 
+    /**
+     * Equivalent to matching {@code (?s)(.*)\((.+)\)(.*)}: some '(' is followed, at least one
+     * character later, by a ')'.
+     */
     private static boolean hasJosaInString(String str) {
-        return HAS_JOSA_PATTERN.matcher(str).matches();
+        final int open = str.indexOf('(');
+        return open >= 0 && str.lastIndexOf(')') > open + 1;
     }
 
     @Nullable
@@ -185,4 +239,37 @@ public class SeslKoreanGeneralizer {
         }
         return null;
     }
+
+    private static final class JosaNode {
+        private char[] mKeys = new char[0];
+        private JosaNode[] mChildren = new JosaNode[0];
+        String mJosaFirst;
+        String mJosaSecond;
+        int mPatternLength;
+        boolean mIsEulRo;
+
+        @Nullable
+        JosaNode child(char c) {
+            final char[] keys = mKeys;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return mChildren[i];
+                }
+            }
+            return null;
+        }
+
+        JosaNode getOrAddChild(char c) {
+            JosaNode child = child(c);
+            if (child == null) {
+                final int size = mKeys.length;
+                mKeys = Arrays.copyOf(mKeys, size + 1);
+                mChildren = Arrays.copyOf(mChildren, size + 1);
+                child = new JosaNode();
+                mKeys[size] = c;
+                mChildren[size] = child;
+            }
+            return child;
+        }
+    }
 }
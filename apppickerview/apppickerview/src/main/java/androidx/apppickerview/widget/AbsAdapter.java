@@ -37,16 +37,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.reflect.text.SeslTextUtilsReflector;
 
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 /*
@@ -59,6 +64,7 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
     private static final String TAG = "AppPickerViewAdapter";
 
     private static final int MAX_OFFSET = 200;
+    private static final Object PAYLOAD_SEARCH_HIGHLIGHT = new Object();
 
     private final AppPickerIconLoader mAppPickerIconLoader;
     @NonNull
@@ -77,6 +83,12 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
     private int mOrder;
     private int[] mPositionToSectionIndex;
     protected int mType;
+    private DataManager.LabelRequest mLabelRequest;
+    private volatile AppLabelSearchIndex mSearchIndex;
+    private Filter mFilter;
+    private AlphabeticIndex.ImmutableIndex<Integer> mImmutableIndex;
+    private LocaleList mImmutableIndexLocales;
+    private final HashMap<String, String> mBucketLabels = new HashMap<>();
 
     public AbsAdapter(@NonNull Context context, int type, int order, @Nullable AppPickerIconLoader iconLoader, boolean showDivider) {
         mContext = context;
@@ -114,15 +126,41 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
             List<AppPickerView.AppLabelInfo> labelInfoList,
             List<ComponentName> activityNamesList) {
         Log.i(TAG, "Start resetpackage dataSetchanged : " + dataSetchanged);
+        cancelLabelRequest();
+        setDataSet(DataManager.resetPackages(mContext, packageNamesList, labelInfoList,
+                activityNamesList), dataSetchanged);
+        Log.i(TAG, "End resetpackage");
+    }
 
-        mDataSet.clear();
-        mDataSet.addAll(DataManager.resetPackages(mContext, packageNamesList, labelInfoList, activityNamesList));
+    /**
+     * Resolves the labels off the main thread. The labels already known are shown right away
+     * and the list fills in as the remaining ones are resolved.
+     */
+    void resetPackagesAsync(List<String> packageNamesList,
+            List<AppPickerView.AppLabelInfo> labelInfoList,
+            List<ComponentName> activityNamesList) {
+        cancelLabelRequest();
+        mLabelRequest = DataManager.resetPackagesAsync(mContext, packageNamesList, labelInfoList,
+                activityNamesList, (resolvedLabelInfoList, complete) -> {
+                    if (complete) {
+                        mLabelRequest = null;
+                    }
+                    setDataSet(resolvedLabelInfoList, true);
+                });
+    }
 
-        if (Build.VERSION.SDK_INT >= 24) {
-            if (getAppLabelComparator(mOrder) != null) {
-                mDataSet.sort(getAppLabelComparator(mOrder));
-            }
+    void cancelLabelRequest() {
+        if (mLabelRequest != null) {
+            mLabelRequest.cancel();
+            mLabelRequest = null;
         }
+    }
+
+    private void setDataSet(List<AppPickerView.AppLabelInfo> labelInfoList,
+            boolean dataSetchanged) {
+        mDataSet.clear();
+        mDataSet.addAll(labelInfoList);
+        sortByLabel(mDataSet, mOrder);
 
         if (hasAllAppsInList()) {
             if (!mDataSet.isEmpty()) {
@@ -133,14 +171,13 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
         }
         mDataSetFiltered.clear();
         mDataSetFiltered.addAll(mDataSet);
+        mSearchIndex = null;
 
         refreshSectionMap();
 
         if (dataSetchanged) {
             notifyDataSetChanged();
         }
-
-        Log.i(TAG, "End resetpackage");
     }
 
     void addPackage(int position, String label) {
@@ -148,6 +185,7 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
                 new AppPickerView.AppLabelInfo("", label, ""));
         mDataSetFiltered.clear();
         mDataSetFiltered.addAll(mDataSet);
+        mSearchIndex = null;
 
         refreshSectionMap();
         notifyItemInserted(position);
@@ -159,6 +197,7 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
                         "", "").setSeparator(true));
         mDataSetFiltered.clear();
         mDataSetFiltered.addAll(mDataSet);
+        mSearchIndex = null;
 
         refreshSectionMap();
         notifyItemInserted(position);
@@ -166,28 +205,74 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
 
     public void setOrder(int order) {
         mOrder = order;
-        if (Build.VERSION.SDK_INT >= 24) {
-            if (getAppLabelComparator(order) != null) {
-                mDataSet.sort(getAppLabelComparator(order));
-                mDataSetFiltered.sort(getAppLabelComparator(order));
+        if (sortByLabel(mDataSet, order)) {
+            // The filtered list is a subset of the data set, so it is put in the new order by
+            // walking the sorted data set instead of sorting it again.
+            final Set<AppPickerView.AppLabelInfo> filtered =
+                    Collections.newSetFromMap(new IdentityHashMap<>());
+            filtered.addAll(mDataSetFiltered);
+            mDataSetFiltered.clear();
+            for (AppPickerView.AppLabelInfo labelInfo : mDataSet) {
+                if (filtered.contains(labelInfo)) {
+                    mDataSetFiltered.add(labelInfo);
+                }
             }
+            mSearchIndex = null;
         }
         refreshSectionMap();
         notifyDataSetChanged();
     }
 
-    private Comparator<AppPickerView.AppLabelInfo> getAppLabelComparator(int order) {
+    /**
+     * Sorts {@code labelInfoList} by label in the given order. Every label is converted to a
+     * {@link CollationKey} once, so the sort itself only compares keys. Returns {@code false}
+     * if the order does not sort.
+     */
+    private static boolean sortByLabel(List<AppPickerView.AppLabelInfo> labelInfoList,
+            int order) {
+        final int strength;
+        final boolean descending;
         switch (order) {
             case AppPickerView.ORDER_ASCENDING:
-                return APP_LABEL_ASCENDING;
+                strength = Collator.TERTIARY;
+                descending = false;
+                break;
             case AppPickerView.ORDER_ASCENDING_IGNORE_CASE:
-                return APP_LABEL_ASCENDING_IGNORE_CASE;
+                strength = Collator.PRIMARY;
+                descending = false;
+                break;
             case AppPickerView.ORDER_DESCENDING:
-                return APP_LABEL_DESCENDING;
+                strength = Collator.TERTIARY;
+                descending = true;
+                break;
             case AppPickerView.ORDER_DESCENDING_IGNORE_CASE:
-                return APP_LABEL_DESCENDING_IGNORE_CASE;
+                strength = Collator.PRIMARY;
+                descending = true;
+                break;
+            default:
+                return false;
+        }
+
+        final Collator collator = Collator.getInstance(Locale.getDefault());
+        collator.setStrength(strength);
+
+        final int size = labelInfoList.size();
+        final SortEntry[] entries = new SortEntry[size];
+        for (int i = 0; i < size; i++) {
+            final AppPickerView.AppLabelInfo labelInfo = labelInfoList.get(i);
+            final String label = labelInfo.getLabel();
+            entries[i] = new SortEntry(labelInfo,
+                    collator.getCollationKey(label != null ? label : ""));
+        }
+
+        Arrays.sort(entries, descending
+                ? (a, b) -> b.mKey.compareTo(a.mKey)
+                : (a, b) -> a.mKey.compareTo(b.mKey));
+
+        for (int i = 0; i < size; i++) {
+            labelInfoList.set(i, entries[i].mLabelInfo);
         }
-        return null;
+        return true;
     }
 
     @Override
@@ -258,6 +343,19 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
         }
     }
 
+    void prefetchIcon(int position) {
+        if (mAppPickerIconLoader == null || position < 0 || position >= mDataSetFiltered.size()) {
+            return;
+        }
+
+        final AppPickerView.AppLabelInfo labelInfo = mDataSetFiltered.get(position);
+        if (!labelInfo.isSeparator()
+                && !AppPickerView.ALL_APPS_STRING.equals(labelInfo.getPackageName())) {
+            mAppPickerIconLoader.prefetchIcon(labelInfo.getPackageName(),
+                    labelInfo.getActivityName());
+        }
+    }
+
     abstract void onBindViewHolderAction(AppPickerView.ViewHolder holder, int position,
             String packageName);
 
@@ -291,64 +389,97 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
 
     @Override
     public Filter getFilter() {
-        return new Filter() {
-            @Override
-            protected FilterResults performFiltering(CharSequence constraint) {
-                final String searchText = constraint.toString();
-                Filter.FilterResults results = new Filter.FilterResults();
-
-                if (searchText.isEmpty()) {
-                    mSearchText = "";
-                    results.values = mDataSet;
-                } else {
-                    mSearchText = searchText;
-
-                    ArrayList<AppPickerView.AppLabelInfo> dataSetFiltered = new ArrayList<>();
-                    for (AppPickerView.AppLabelInfo labelInfo : mDataSet) {
-                        if (!AppPickerView.ALL_APPS_STRING.equals(labelInfo.getPackageName())) {
-                            final String label = labelInfo.getLabel();
-                            if (!TextUtils.isEmpty(label)) {
-                                StringTokenizer tokenizer = new StringTokenizer(searchText.toLowerCase());
-                                boolean showItem = true;
-                                String lowerCase = label.toLowerCase();
-
-                                while (tokenizer.hasMoreTokens()) {
-                                    if (!lowerCase.contains(tokenizer.nextToken())) {
-                                        showItem = false;
-                                        break;
-                                    }
-                                }
-
-                                if (showItem) {
-                                    dataSetFiltered.add(labelInfo);
-                                }
-                            }
-                        }
-                    }
+        if (mSearchIndex == null) {
+            mSearchIndex = new AppLabelSearchIndex(
+                    mDataSet.toArray(new AppPickerView.AppLabelInfo[0]));
+        }
+        if (mFilter == null) {
+            mFilter = new AppLabelFilter();
+        }
+        return mFilter;
+    }
 
-                    results.values = dataSetFiltered;
+    /**
+     * Filters the data set with the {@link AppLabelSearchIndex} snapshot taken by
+     * {@link #getFilter()} and publishes the result with {@link DiffUtil}, so only the rows
+     * that appear, disappear or change highlight are rebound.
+     */
+    private class AppLabelFilter extends Filter {
+        private String mPublishedSearchText = "";
+
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            final String searchText = constraint != null ? constraint.toString() : "";
+            Filter.FilterResults results = new Filter.FilterResults();
+
+            if (searchText.isEmpty()) {
+                mSearchText = "";
+                results.values = null;
+            } else {
+                mSearchText = searchText;
+
+                AppLabelSearchIndex searchIndex = mSearchIndex;
+                if (searchIndex == null) {
+                    searchIndex = new AppLabelSearchIndex(
+                            mDataSet.toArray(new AppPickerView.AppLabelInfo[0]));
                 }
-                return results;
+                results.values = searchIndex.search(searchText);
+            }
+            return results;
+        }
+
+        @Override
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            if ("".equals(mSearchText)) {
+                mHideAllApps = false;
+            } else {
+                mHideAllApps = true;
             }
 
-            @Override
-            protected void publishResults(CharSequence constraint, FilterResults results) {
-                if ("".equals(mSearchText)) {
-                    mHideAllApps = false;
-                } else {
-                    mHideAllApps = true;
+            final List<AppPickerView.AppLabelInfo> oldList = new ArrayList<>(mDataSetFiltered);
+            final List<AppPickerView.AppLabelInfo> newList = results.values != null
+                    ? (ArrayList<AppPickerView.AppLabelInfo>) results.values
+                    : new ArrayList<>(mDataSet);
+            final boolean highlightChanged = !mPublishedSearchText.equals(mSearchText);
+            mPublishedSearchText = mSearchText;
+
+            final DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                @Override
+                public int getOldListSize() {
+                    return oldList.size();
+                }
+
+                @Override
+                public int getNewListSize() {
+                    return newList.size();
+                }
+
+                @Override
+                public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                    return oldList.get(oldItemPosition) == newList.get(newItemPosition);
                 }
-                mDataSetFiltered.clear();
-                mDataSetFiltered.addAll((ArrayList<AppPickerView.AppLabelInfo>) results.values);
 
-                refreshSectionMap();
-                notifyDataSetChanged();
+                @Override
+                public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                    return !highlightChanged;
+                }
 
-                if (mOnSearchFilterListener != null) {
-                    mOnSearchFilterListener.onSearchFilterCompleted(getItemCount());
+                @Override
+                public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+                    return PAYLOAD_SEARCH_HIGHLIGHT;
                 }
+            }, false);
+
+            mDataSetFiltered.clear();
+            mDataSetFiltered.addAll(newList);
+
+            refreshSectionMap();
+            diffResult.dispatchUpdatesTo(AbsAdapter.this);
+
+            if (mOnSearchFilterListener != null) {
+                mOnSearchFilterListener.onSearchFilterCompleted(getItemCount());
             }
-        };
+        }
     }
 
     @Override
@@ -381,14 +512,20 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
                 locales = new LocaleList(Locale.ENGLISH);
             }
 
-            AlphabeticIndex<Integer> alphabeticIndex = new AlphabeticIndex<>(locales.get(0));
-            for (int i = 1; i < locales.size(); i++) {
-                alphabeticIndex.addLabels(locales.get(i));
-            }
-            alphabeticIndex.addLabels(Locale.ENGLISH);
+            // Building the index is expensive, so it and the bucket of every label are kept
+            // until the locales change.
+            if (mImmutableIndex == null || !locales.equals(mImmutableIndexLocales)) {
+                AlphabeticIndex<Integer> alphabeticIndex = new AlphabeticIndex<>(locales.get(0));
+                for (int i = 1; i < locales.size(); i++) {
+                    alphabeticIndex.addLabels(locales.get(i));
+                }
+                alphabeticIndex.addLabels(Locale.ENGLISH);
 
-            AlphabeticIndex.ImmutableIndex<Integer> immutableIndex =
-                    alphabeticIndex.buildImmutableIndex();
+                mImmutableIndex = alphabeticIndex.buildImmutableIndex();
+                mImmutableIndexLocales = locales;
+                mBucketLabels.clear();
+            }
+            final AlphabeticIndex.ImmutableIndex<Integer> immutableIndex = mImmutableIndex;
 
             mPositionToSectionIndex = new int[mDataSetFiltered.size()];
 
@@ -397,7 +534,13 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
                 if (TextUtils.isEmpty(label)) {
                     label = "";
                 }
-                label = immutableIndex.getBucket(immutableIndex.getBucketIndex(label)).getLabel();
+                String bucketLabel = mBucketLabels.get(label);
+                if (bucketLabel == null) {
+                    bucketLabel = immutableIndex.getBucket(
+                            immutableIndex.getBucketIndex(label)).getLabel();
+                    mBucketLabels.put(label, bucketLabel);
+                }
+                label = bucketLabel;
                 if (!mSectionMap.containsKey(label)) {
                     sections.add(label);
                     mSectionMap.put(label, i);
@@ -432,39 +575,13 @@ public abstract class AbsAdapter extends RecyclerView.Adapter<RecyclerView.ViewH
         }
     }
 
-    private static final Comparator<AppPickerView.AppLabelInfo> APP_LABEL_ASCENDING
-            = new Comparator<>() {
-        public int compare(AppPickerView.AppLabelInfo a, AppPickerView.AppLabelInfo b) {
-            Collator collator = Collator.getInstance(Locale.getDefault());
-            collator.setStrength(Collator.TERTIARY);
-            return collator.compare(a.getLabel(), b.getLabel());
-        }
-    };
-
-    private static final Comparator<AppPickerView.AppLabelInfo> APP_LABEL_ASCENDING_IGNORE_CASE
-            = new Comparator<>() {
-        public int compare(AppPickerView.AppLabelInfo a, AppPickerView.AppLabelInfo b) {
-            Collator collator = Collator.getInstance(Locale.getDefault());
-            collator.setStrength(Collator.PRIMARY);
-            return collator.compare(a.getLabel(), b.getLabel());
-        }
-    };
-
-    private static final Comparator<AppPickerView.AppLabelInfo> APP_LABEL_DESCENDING
-            = new Comparator<AppPickerView.AppLabelInfo>() {
-        public int compare(AppPickerView.AppLabelInfo a, AppPickerView.AppLabelInfo b) {
-            Collator collator = Collator.getInstance(Locale.getDefault());
-            collator.setStrength(Collator.TERTIARY);
-            return collator.compare(b.getLabel(), a.getLabel());
-        }
-    };
-
-    private static final Comparator<AppPickerView.AppLabelInfo> APP_LABEL_DESCENDING_IGNORE_CASE
-            = new Comparator<>() {
-        public int compare(AppPickerView.AppLabelInfo a, AppPickerView.AppLabelInfo b) {
-            Collator collator = Collator.getInstance(Locale.getDefault());
-            collator.setStrength(Collator.PRIMARY);
-            return collator.compare(b.getLabel(), a.getLabel());
+    private static final class SortEntry {
+        final AppPickerView.AppLabelInfo mLabelInfo;
+        final CollationKey mKey;
+
+        SortEntry(AppPickerView.AppLabelInfo labelInfo, CollationKey key) {
+            mLabelInfo = labelInfo;
+            mKey = key;
         }
-    };
+    }
 }
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.apppickerview.widget;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+/**
+ * Search index over the labels of an {@link AbsAdapter} data set snapshot.
+ *
+ * <p>An item matches when its lower case label contains every whitespace separated token of the
+ * lower case query. Candidates for a token are taken from a character bigram posting list (or
+ * a single character one for one-character tokens) and then verified, so a keystroke does not
+ * scan every label. When a query extends the previous one, every token of the previous query is
+ * contained in a token of the new one, and only the previous matches are searched again.
+ *
+ * <p>The index is built lazily and then only used from the filter thread.
+ */
+final class AppLabelSearchIndex {
+    private static final int[] EMPTY_POSITIONS = new int[0];
+
+    private final AppPickerView.AppLabelInfo[] mItems;
+    private String[] mLowerCaseLabels;
+    private HashMap<Character, int[]> mUnigrams;
+    private HashMap<Integer, int[]> mBigrams;
+
+    private String mLastQuery;
+    private int[] mLastMatches;
+
+    AppLabelSearchIndex(@NonNull AppPickerView.AppLabelInfo[] items) {
+        mItems = items;
+    }
+
+    /**
+     * Returns the items whose label contains every token of {@code query}, in data set order.
+     * The "all apps" item and items without label never match.
+     */
+    @NonNull
+    ArrayList<AppPickerView.AppLabelInfo> search(@NonNull String query) {
+        ensureBuilt();
+
+        final String lowerCaseQuery = query.toLowerCase();
+        final ArrayList<String> tokens = new ArrayList<>();
+        final StringTokenizer tokenizer = new StringTokenizer(lowerCaseQuery);
+        while (tokenizer.hasMoreTokens()) {
+            tokens.add(tokenizer.nextToken());
+        }
+
+        int[] candidates = null;
+        if (mLastQuery != null && !mLastQuery.isEmpty() && lowerCaseQuery.startsWith(mLastQuery)) {
+            candidates = mLastMatches;
+        }
+
+        int[] matches = candidates;
+        for (int i = 0; i < tokens.size(); i++) {
+            matches = match(tokens.get(i), matches);
+            if (matches.length == 0) {
+                break;
+            }
+        }
+        if (matches == null) {
+            matches = allSearchablePositions();
+        }
+
+        mLastQuery = lowerCaseQuery;
+        mLastMatches = matches;
+
+        final ArrayList<AppPickerView.AppLabelInfo> result = new ArrayList<>(matches.length);
+        for (int position : matches) {
+            result.add(mItems[position]);
+        }
+        return result;
+    }
+
+    private int[] match(@NonNull String token, int[] candidates) {
+        final int[] posting = getShortestPosting(token);
+        if (posting.length == 0) {
+            return EMPTY_POSITIONS;
+        }
+
+        int[] matches = new int[candidates != null
+                ? Math.min(candidates.length, posting.length) : posting.length];
+        int count = 0;
+        int c = 0;
+        for (int position : posting) {
+            if (candidates != null) {
+                while (c < candidates.length && candidates[c] < position) {
+                    c++;
+                }
+                if (c == candidates.length) {
+                    break;
+                }
+                if (candidates[c] != position) {
+                    continue;
+                }
+            }
+            if (mLowerCaseLabels[position].contains(token)) {
+                matches[count++] = position;
+            }
+        }
+
+        if (count != matches.length) {
+            final int[] trimmed = new int[count];
+            System.arraycopy(matches, 0, trimmed, 0, count);
+            matches = trimmed;
+        }
+        return matches;
+    }
+
+    @NonNull
+    private int[] getShortestPosting(@NonNull String token) {
+        if (token.length() == 1) {
+            final int[] posting = mUnigrams.get(token.charAt(0));
+            return posting != null ? posting : EMPTY_POSITIONS;
+        }
+
+        int[] shortest = null;
+        for (int i = 0; i < token.length() - 1; i++) {
+            final int[] posting = mBigrams.get(bigramKey(token.charAt(i), token.charAt(i + 1)));
+            if (posting == null) {
+                return EMPTY_POSITIONS;
+            }
+            if (shortest == null || posting.length < shortest.length) {
+                shortest = posting;
+            }
+        }
+        return shortest;
+    }
+
+    @NonNull
+    private int[] allSearchablePositions() {
+        int count = 0;
+        final int[] positions = new int[mItems.length];
+        for (int i = 0; i < mItems.length; i++) {
+            if (mLowerCaseLabels[i] != null) {
+                positions[count++] = i;
+            }
+        }
+        final int[] result = new int[count];
+        System.arraycopy(positions, 0, result, 0, count);
+        return result;
+    }
+
+    private void ensureBuilt() {
+        if (mUnigrams != null) {
+            return;
+        }
+
+        final HashMap<Character, PostingBuilder> unigrams = new HashMap<>();
+        final HashMap<Integer, PostingBuilder> bigrams = new HashMap<>();
+        mLowerCaseLabels = new String[mItems.length];
+        for (int i = 0; i < mItems.length; i++) {
+            final AppPickerView.AppLabelInfo item = mItems[i];
+            final String label = item.getLabel();
+            if (AppPickerView.ALL_APPS_STRING.equals(item.getPackageName())
+                    || TextUtils.isEmpty(label)) {
+                continue;
+            }
+
+            final String lowerCaseLabel = label.toLowerCase();
+            mLowerCaseLabels[i] = lowerCaseLabel;
+            for (int j = 0; j < lowerCaseLabel.length(); j++) {
+                final char c = lowerCaseLabel.charAt(j);
+                addPosition(unigrams, c, i);
+                if (j + 1 < lowerCaseLabel.length()) {
+                    addPosition(bigrams, bigramKey(c, lowerCaseLabel.charAt(j + 1)), i);
+                }
+            }
+        }
+
+        mUnigrams = toPostings(unigrams);
+        mBigrams = toPostings(bigrams);
+    }
+
+    private static <K> HashMap<K, int[]> toPostings(HashMap<K, PostingBuilder> builders) {
+        final HashMap<K, int[]> postings = new HashMap<>(builders.size() * 2);
+        for (Map.Entry<K, PostingBuilder> entry : builders.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return postings;
+    }
+
+    private static <K> void addPosition(HashMap<K, PostingBuilder> builders, K key,
+            int position) {
+        PostingBuilder builder = builders.get(key);
+        if (builder == null) {
+            builder = new PostingBuilder();
+            builders.put(key, builder);
+        }
+        builder.add(position);
+    }
+
+    private static int bigramKey(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    private static final class PostingBuilder {
+        private int[] mPositions = new int[4];
+        private int mSize;
+
+        void add(int position) {
+            // Positions are added in increasing order; skip repeats within the same label.
+            if (mSize > 0 && mPositions[mSize - 1] == position) {
+                return;
+            }
+            if (mSize == mPositions.length) {
+                final int[] grown = new int[mSize * 2];
+                System.arraycopy(mPositions, 0, grown, 0, mSize);
+                mPositions = grown;
+            }
+            mPositions[mSize++] = position;
+        }
+
+        int[] toArray() {
+            final int[] positions = new int[mSize];
+            System.arraycopy(mPositions, 0, positions, 0, mSize);
+            return positions;
+        }
+    }
+}
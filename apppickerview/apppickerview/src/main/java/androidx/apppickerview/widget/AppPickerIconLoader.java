@@ -19,22 +19,90 @@ package androidx.apppickerview.widget;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
 import android.text.TextUtils;
+import android.util.LruCache;
 import android.widget.ImageView;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.reflect.app.SeslApplicationPackageManagerReflector;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /*
  * Original code by Samsung, all rights reserved to the original author.
  */
 
+/**
+ * Loads app icons for {@link AppPickerView} rows off the main thread.
+ *
+ * <p>Loaded icons are kept in a process-wide LRU sized by bitmap bytes, so every
+ * {@link AppPickerView} in the process shares them. Concurrent requests for the same icon are
+ * coalesced into a single load, a request whose {@link ImageView} is rebound before it completes
+ * is dropped, and loads run on a small dedicated pool instead of the shared
+ * {@code AsyncTask} executor.
+ *
+ * <p>All bookkeeping happens on the main thread; only {@link #getAppIcon} runs on the pool.
+ */
 public class AppPickerIconLoader {
     private static final String THREAD_NAME = "AppPickerIconLoader";
+
+    private static final int MAX_LOADER_THREADS = 2;
+    private static final long LOADER_KEEP_ALIVE_SECONDS = 5;
+    private static final int MIN_CACHE_SIZE_BYTES = 1024 * 1024;
+    private static final int MAX_CACHE_SIZE_BYTES = 16 * 1024 * 1024;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static final LruCache<String, Drawable> sIconCache =
+            new LruCache<String, Drawable>(getCacheSizeBytes()) {
+                @Override
+                protected int sizeOf(String key, Drawable value) {
+                    return getDrawableBytes(value);
+                }
+            };
+
+    private static final Map<String, IconRequest> sInFlightRequests = new HashMap<>();
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private static final ThreadPoolExecutor sExecutor;
+
+    static {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, THREAD_NAME + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        sExecutor = new ThreadPoolExecutor(MAX_LOADER_THREADS, MAX_LOADER_THREADS,
+                LOADER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                threadFactory);
+        sExecutor.allowCoreThreadTimeOut(true);
+    }
+
     private Context mContext;
     private PackageManager mPackageManager;
-    private LoadIconTask mLoadIconTask;
+    private final HashMap<ImageView, IconRequest> mPendingViews = new HashMap<>();
+    private final ArrayList<IconRequest> mRequests = new ArrayList<>();
+    private boolean mStopped;
 
     public AppPickerIconLoader(Context context) {
         mContext = context;
@@ -45,10 +113,33 @@ public class AppPickerIconLoader {
                          ImageView imageView) {
         if (!TextUtils.isEmpty(packageName) && imageView != null) {
             imageView.setTag(packageName);
+            unbind(imageView);
+
+            final String key = getCacheKey(packageName, activityName);
+            final Drawable cached = sIconCache.get(key);
+            if (cached != null) {
+                imageView.setImageDrawable(newDrawable(cached));
+                return;
+            }
 
-            IconInfo iconInfo = new IconInfo(packageName, activityName, imageView);
-            new LoadIconTask(iconInfo)
-                    .executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            final IconRequest request = obtainRequest(key, packageName, activityName);
+            request.mTargets.add(new Target(this, imageView));
+            mPendingViews.put(imageView, request);
+        }
+    }
+
+    /**
+     * Starts loading the icon into the shared cache ahead of its bind, unless it is already
+     * cached or being loaded.
+     */
+    public void prefetchIcon(@Nullable String packageName, @Nullable String activityName) {
+        if (TextUtils.isEmpty(packageName) || mStopped) {
+            return;
+        }
+
+        final String key = getCacheKey(packageName, activityName);
+        if (sIconCache.get(key) == null) {
+            obtainRequest(key, packageName, activityName).mPrefetch = true;
         }
     }
 
@@ -86,42 +177,188 @@ public class AppPickerIconLoader {
     }
 
     public void startIconLoaderThread() {
+        mStopped = false;
     }
 
+    /**
+     * Drops every pending bind and prefetch of this loader. Loads shared with other loaders keep
+     * running for them.
+     */
     public void stopIconLoaderThread() {
+        mStopped = true;
+        for (int i = mRequests.size() - 1; i >= 0; i--) {
+            final IconRequest request = mRequests.get(i);
+            final Iterator<Target> targets = request.mTargets.iterator();
+            while (targets.hasNext()) {
+                if (targets.next().mLoader == this) {
+                    targets.remove();
+                }
+            }
+            request.mOwners.remove(this);
+            if (request.mOwners.isEmpty()) {
+                request.cancel();
+            }
+        }
+        mRequests.clear();
+        mPendingViews.clear();
+    }
+
+    /**
+     * Evicts every cached icon shared by the {@link AppPickerView}s of this process.
+     */
+    public static void clearIconCache() {
+        sIconCache.evictAll();
+    }
+
+    private void unbind(@NonNull ImageView imageView) {
+        final IconRequest request = mPendingViews.remove(imageView);
+        if (request == null) {
+            return;
+        }
+
+        final ArrayList<Target> targets = request.mTargets;
+        for (int i = targets.size() - 1; i >= 0; i--) {
+            if (targets.get(i).mImageView == imageView) {
+                targets.remove(i);
+            }
+        }
+        if (targets.isEmpty() && !request.mPrefetch) {
+            request.cancel();
+            for (int i = request.mOwners.size() - 1; i >= 0; i--) {
+                request.mOwners.get(i).mRequests.remove(request);
+            }
+        }
+    }
+
+    @NonNull
+    private IconRequest obtainRequest(@NonNull String key, @NonNull String packageName,
+            @Nullable String activityName) {
+        IconRequest request = sInFlightRequests.get(key);
+        if (request == null) {
+            request = new IconRequest(key, packageName, activityName);
+            sInFlightRequests.put(key, request);
+            request.start(this);
+        }
+        if (!request.mOwners.contains(this)) {
+            request.mOwners.add(this);
+            mRequests.add(request);
+        }
+        return request;
+    }
+
+    @NonNull
+    private Drawable newDrawable(@NonNull Drawable drawable) {
+        final Drawable.ConstantState state = drawable.getConstantState();
+        return state != null ? state.newDrawable(mContext.getResources()) : drawable;
+    }
+
+    @NonNull
+    private static String getCacheKey(@NonNull String packageName, @Nullable String activityName) {
+        return TextUtils.isEmpty(activityName) ? packageName : packageName + "/" + activityName;
+    }
+
+    private static int getCacheSizeBytes() {
+        final long maxMemory = Runtime.getRuntime().maxMemory() / 32;
+        return (int) Math.max(MIN_CACHE_SIZE_BYTES, Math.min(MAX_CACHE_SIZE_BYTES, maxMemory));
+    }
+
+    private static int getDrawableBytes(@NonNull Drawable drawable) {
+        if (drawable instanceof BitmapDrawable) {
+            final Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+            if (bitmap != null) {
+                return bitmap.getAllocationByteCount();
+            }
+        }
+        final int width = Math.max(1, drawable.getIntrinsicWidth());
+        final int height = Math.max(1, drawable.getIntrinsicHeight());
+        return width * height * BYTES_PER_PIXEL;
     }
 
-    private static class IconInfo {
-        String activityName;
-        Drawable drawable = null;
-        ImageView imageView;
-        String packageName;
+    private static final class Target {
+        final AppPickerIconLoader mLoader;
+        final ImageView mImageView;
 
-        public IconInfo(String packageName, String activityName,
-                        ImageView imageView) {
-            this.packageName = packageName;
-            this.imageView = imageView;
-            this.activityName = activityName;
+        Target(AppPickerIconLoader loader, ImageView imageView) {
+            mLoader = loader;
+            mImageView = imageView;
         }
     }
 
-    class LoadIconTask extends AsyncTask<Void, Void, Drawable> {
-        private final IconInfo mIconInfo;
+    /**
+     * A single icon load shared by every view and loader waiting for the same icon.
+     */
+    private static final class IconRequest {
+        final String mKey;
+        final String mPackageName;
+        final String mActivityName;
+        final ArrayList<Target> mTargets = new ArrayList<>();
+        final ArrayList<AppPickerIconLoader> mOwners = new ArrayList<>();
+        boolean mPrefetch;
+        private FutureTask<Drawable> mTask;
+        private boolean mCancelled;
+
+        IconRequest(String key, String packageName, String activityName) {
+            mKey = key;
+            mPackageName = packageName;
+            mActivityName = activityName;
+        }
 
-        LoadIconTask(IconInfo iconInfo) {
-            mIconInfo = iconInfo;
+        void start(@NonNull AppPickerIconLoader loader) {
+            mTask = new FutureTask<Drawable>(() -> {
+                final Drawable drawable = loader.getAppIcon(mPackageName, mActivityName);
+                if (drawable != null) {
+                    sIconCache.put(mKey, drawable);
+                }
+                return drawable;
+            }) {
+                @Override
+                protected void done() {
+                    if (!isCancelled()) {
+                        sMainHandler.post(() -> deliver(this));
+                    }
+                }
+            };
+            sExecutor.execute(mTask);
         }
 
-        protected Drawable doInBackground(Void... params) {
-            return getAppIcon(mIconInfo.packageName, mIconInfo.activityName);
+        void cancel() {
+            if (mCancelled) {
+                return;
+            }
+            mCancelled = true;
+            sInFlightRequests.remove(mKey);
+            mTask.cancel(false);
+            sExecutor.remove(mTask);
         }
 
-        protected void onPostExecute(Drawable result) {
-            if (mIconInfo != null) {
-                if (mIconInfo.imageView != null && result != null) {
-                    mIconInfo.imageView.setImageDrawable(result);
+        private void deliver(@NonNull FutureTask<Drawable> task) {
+            if (!mCancelled) {
+                sInFlightRequests.remove(mKey);
+            }
+
+            Drawable drawable = null;
+            try {
+                drawable = task.get();
+            } catch (Exception e) {
+                // Nothing to show; the views keep their current image.
+            }
+
+            for (int i = mOwners.size() - 1; i >= 0; i--) {
+                mOwners.get(i).mRequests.remove(this);
+            }
+
+            boolean first = true;
+            for (int i = 0; i < mTargets.size(); i++) {
+                final Target target = mTargets.get(i);
+                target.mLoader.mPendingViews.remove(target.mImageView);
+                if (drawable != null) {
+                    target.mImageView.setImageDrawable(
+                            first ? drawable : target.mLoader.newDrawable(drawable));
+                    first = false;
                 }
             }
+            mTargets.clear();
+            mOwners.clear();
         }
     }
 }
@@ -120,6 +120,7 @@ public class AppPickerView extends RecyclerView
     private final AppPickerIconLoader mAppPickerIconLoader;
     private final Context mContext;
     private RecyclerView.ItemDecoration mGridSpacingDecoration;
+    private final IconPrefetchRegistry mIconPrefetchRegistry = new IconPrefetchRegistry();
     SeslSubheaderRoundedCorner mRoundedCorner;
     private ArrayList<Integer> mSeparators;
     private boolean mIsAppPickerInitialized;
@@ -353,6 +354,33 @@ public class AppPickerView extends RecyclerView
         mAdapter.resetPackages(null, true, labelInfoList, activityNamesList);
     }
 
+    /**
+     * Like {@link #resetPackages(List)}, but resolves the app labels off the main thread. Apps
+     * whose labels are already known are shown right away and the rest are added as their labels
+     * are resolved.
+     */
+    public void resetPackagesAsync(List<String> packageNamesList) {
+        mAdapter.resetPackagesAsync(packageNamesList, null, null);
+    }
+
+    public void resetPackagesAsync(List<String> packageNamesList,
+                                   List<AppLabelInfo> labelInfoList) {
+        mAdapter.resetPackagesAsync(packageNamesList, labelInfoList, null);
+    }
+
+    /**
+     * Like {@link #resetComponentName(List)}, but resolves the activity labels off the main
+     * thread.
+     */
+    public void resetComponentNameAsync(List<ComponentName> activityNamesList) {
+        mAdapter.resetPackagesAsync(null, null, activityNamesList);
+    }
+
+    public void resetComponentNameAsync(List<ComponentName> activityNamesList,
+                                        List<AppLabelInfo> labelInfoList) {
+        mAdapter.resetPackagesAsync(null, labelInfoList, activityNamesList);
+    }
+
     public void setSearchFilter(String constraint) {
         setSearchFilter(constraint, null);
     }
@@ -410,9 +438,44 @@ public class AppPickerView extends RecyclerView
         switch (type) {
             case TYPE_GRID:
             case TYPE_GRID_CHECKBOX:
-                return new GridLayoutManager(mContext, mSpanCount);
+                return new GridLayoutManager(mContext, mSpanCount) {
+                    @Override
+                    public void collectAdjacentPrefetchPositions(int dx, int dy, State state,
+                            LayoutPrefetchRegistry layoutPrefetchRegistry) {
+                        super.collectAdjacentPrefetchPositions(dx, dy, state,
+                                mIconPrefetchRegistry.wrap(layoutPrefetchRegistry));
+                    }
+                };
             default:
-                return new LinearLayoutManager(mContext);
+                return new LinearLayoutManager(mContext) {
+                    @Override
+                    public void collectAdjacentPrefetchPositions(int dx, int dy, State state,
+                            LayoutPrefetchRegistry layoutPrefetchRegistry) {
+                        super.collectAdjacentPrefetchPositions(dx, dy, state,
+                                mIconPrefetchRegistry.wrap(layoutPrefetchRegistry));
+                    }
+                };
+        }
+    }
+
+    /**
+     * Forwards the positions the prefetcher is about to bind and starts loading their icons, so
+     * they are usually cached by the time the rows are bound.
+     */
+    private class IconPrefetchRegistry implements LayoutManager.LayoutPrefetchRegistry {
+        private LayoutManager.LayoutPrefetchRegistry mDelegate;
+
+        LayoutManager.LayoutPrefetchRegistry wrap(LayoutManager.LayoutPrefetchRegistry delegate) {
+            mDelegate = delegate;
+            return this;
+        }
+
+        @Override
+        public void addPosition(int layoutPosition, int pixelDistance) {
+            mDelegate.addPosition(layoutPosition, pixelDistance);
+            if (mAdapter != null && !mIsCustomViewItemEnabled) {
+                mAdapter.prefetchIcon(layoutPosition);
+            }
         }
     }
 
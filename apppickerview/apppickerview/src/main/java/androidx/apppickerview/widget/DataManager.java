@@ -19,8 +19,11 @@ package androidx.apppickerview.widget;
 import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
 
 import android.annotation.SuppressLint;
+import android.content.BroadcastReceiver;
 import android.content.ComponentName;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.content.pm.ActivityInfo;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
@@ -28,14 +31,24 @@ import android.database.Cursor;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
+import androidx.core.content.ContextCompat;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /*
  * Original code by Samsung, all rights reserved to the original author.
@@ -46,6 +59,8 @@ class DataManager {
     private static final String TAG = "DataManager";
 
     private static final int MAX_APP_LIST_COUNT = 10000;
+    private static final int STREAM_BATCH_SIZE = 64;
+    private static final String UNKNOWN_LABEL = "Unknown";
 
     private static final Uri APP_LIST_PROVIDER_CONTENT_URI
             = Uri.parse("content://com.samsung.android.settings.applist");
@@ -55,6 +70,73 @@ class DataManager {
     private static final boolean sIsSupportQUERY = Build.VERSION.SDK_INT >= 26;
     private static final boolean sIsSupportSCS = Build.VERSION.SDK_INT > 29;
 
+    /**
+     * Labels resolved so far, keyed by package name or by "package/activity". Shared by every
+     * {@link AppPickerView} of the process and invalidated per package when it is added, changed
+     * or removed, and entirely when the locale changes.
+     */
+    private static final ConcurrentHashMap<String, String> sLabelCache = new ConcurrentHashMap<>();
+    private static HashMap<String, String> sPackageProviderLabels;
+    private static HashMap<String, String> sComponentProviderLabels;
+    private static Locale sCacheLocale;
+    private static boolean sInvalidationRegistered;
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    private static Executor sLabelExecutor;
+
+    private static final BroadcastReceiver sInvalidationReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (Intent.ACTION_LOCALE_CHANGED.equals(intent.getAction())) {
+                invalidateAll();
+            } else if (intent.getData() != null) {
+                invalidatePackage(intent.getData().getSchemeSpecificPart());
+            }
+        }
+    };
+
+    /**
+     * Receives the labels of an asynchronous {@link #resetPackagesAsync} on the main thread.
+     */
+    interface OnLabelsResolvedListener {
+        /**
+         * @param labelInfoList the labels resolved so far, in request order.
+         * @param complete {@code true} for the last call, whose list holds every label.
+         */
+        void onLabelsResolved(@NonNull List<AppPickerView.AppLabelInfo> labelInfoList,
+                boolean complete);
+    }
+
+    /**
+     * Handle of an asynchronous {@link #resetPackagesAsync}. Once cancelled, the listener is not
+     * called again.
+     */
+    static final class LabelRequest {
+        private final OnLabelsResolvedListener mListener;
+        private volatile boolean mCancelled;
+
+        LabelRequest(OnLabelsResolvedListener listener) {
+            mListener = listener;
+        }
+
+        void cancel() {
+            mCancelled = true;
+        }
+
+        boolean isCancelled() {
+            return mCancelled;
+        }
+
+        void publish(final List<AppPickerView.AppLabelInfo> labelInfoList,
+                final boolean complete) {
+            sMainHandler.post(() -> {
+                if (!mCancelled) {
+                    mListener.onLabelsResolved(labelInfoList, complete);
+                }
+            });
+        }
+    }
+
     DataManager() {
     }
 
@@ -72,11 +154,84 @@ class DataManager {
             List<String> packageNamesList,
             List<AppPickerView.AppLabelInfo> appLabelInfoList,
             List<ComponentName> componentNameList) {
+        return resolveLabels(context, packageNamesList, appLabelInfoList, componentNameList, null);
+    }
+
+    /**
+     * Resolves the labels like {@link #resetPackages(Context, List, List, List)} on a worker
+     * thread. The labels already known are published first, then the rest in batches as they
+     * are resolved.
+     */
+    @NonNull
+    static LabelRequest resetPackagesAsync(@NonNull Context context,
+            @Nullable List<String> packageNamesList,
+            @Nullable List<AppPickerView.AppLabelInfo> appLabelInfoList,
+            @Nullable List<ComponentName> componentNameList,
+            @NonNull OnLabelsResolvedListener listener) {
+        final Context appContext = context.getApplicationContext() != null
+                ? context.getApplicationContext() : context;
+        final List<String> packages = packageNamesList != null
+                ? new ArrayList<>(packageNamesList) : null;
+        final List<AppPickerView.AppLabelInfo> labelInfos = appLabelInfoList != null
+                ? new ArrayList<>(appLabelInfoList) : null;
+        final List<ComponentName> components = componentNameList != null
+                ? new ArrayList<>(componentNameList) : null;
+
+        final LabelRequest request = new LabelRequest(listener);
+        getLabelExecutor().execute(() -> {
+            final List<AppPickerView.AppLabelInfo> result =
+                    resolveLabels(appContext, packages, labelInfos, components, request);
+            if (result != null) {
+                request.publish(result, true);
+            }
+        });
+        return request;
+    }
+
+    /**
+     * Drops the cached labels of {@code packageName}, so the next reset resolves them again.
+     */
+    static void invalidatePackage(@Nullable String packageName) {
+        if (packageName == null) {
+            return;
+        }
+
+        final String componentPrefix = packageName + "/";
+        final Iterator<String> keys = sLabelCache.keySet().iterator();
+        while (keys.hasNext()) {
+            if (matchesPackage(keys.next(), packageName, componentPrefix)) {
+                keys.remove();
+            }
+        }
+        synchronized (DataManager.class) {
+            sPackageProviderLabels = withoutPackage(sPackageProviderLabels, packageName);
+            sComponentProviderLabels = withoutPackage(sComponentProviderLabels, packageName);
+        }
+    }
+
+    static void invalidateAll() {
+        sLabelCache.clear();
+        synchronized (DataManager.class) {
+            sPackageProviderLabels = null;
+            sComponentProviderLabels = null;
+        }
+    }
+
+    /**
+     * Returns the labels in request order, or {@code null} if {@code request} was cancelled.
+     * Only labels missing from the caller's list and from the cache are looked up, and the
+     * content providers are queried at most once until the cache is invalidated.
+     */
+    @Nullable
+    private static List<AppPickerView.AppLabelInfo> resolveLabels(Context context,
+            List<String> packageNamesList,
+            List<AppPickerView.AppLabelInfo> appLabelInfoList,
+            List<ComponentName> componentNameList,
+            @Nullable LabelRequest request) {
+        ensureCacheValid(context);
+
         HashMap<String, String> appLabelMap;
         boolean isComponentListNotNull = componentNameList != null;
-        HashMap<String, String> labelFromSettingsOrSCS = sIsSupportQUERY
-                ? getLabelFromSCS(context, isComponentListNotNull)
-                : isComponentListNotNull ? null : loadLabelFromSettings(context);
 
         if (appLabelInfoList != null) {
             appLabelMap = new HashMap<>();
@@ -92,35 +247,185 @@ class DataManager {
             appLabelMap = null;
         }
 
-        ArrayList<AppPickerView.AppLabelInfo> updatedLabelInfoList = new ArrayList<>();
+        final int count = isComponentListNotNull
+                ? componentNameList.size() : packageNamesList.size();
+        final String[] keys = new String[count];
+        final String[] labels = new String[count];
+        int missingCount = 0;
 
-        if (isComponentListNotNull) {
-            for (ComponentName componentName : componentNameList) {
-                String packageAndActivityName = componentName.getPackageName() + "/" + componentName.getClassName();
-                String appLabel = appLabelMap != null ? appLabelMap.get(packageAndActivityName) : null;
-                if (appLabel == null && labelFromSettingsOrSCS != null) {
-                    appLabel = labelFromSettingsOrSCS.get(packageAndActivityName);
-                }
-                if (appLabel == null) {
-                    appLabel = getLabelFromPackageManager(context, componentName);
+        for (int i = 0; i < count; i++) {
+            if (isComponentListNotNull) {
+                final ComponentName componentName = componentNameList.get(i);
+                keys[i] = componentName.getPackageName() + "/" + componentName.getClassName();
+            } else {
+                keys[i] = packageNamesList.get(i);
+            }
+
+            String label = appLabelMap != null ? appLabelMap.get(keys[i]) : null;
+            if (label == null) {
+                label = sLabelCache.get(keys[i]);
+            }
+            labels[i] = label;
+            if (label == null) {
+                missingCount++;
+            }
+        }
+
+        if (missingCount == 0) {
+            return toLabelInfoList(packageNamesList, componentNameList, labels);
+        }
+
+        if (request != null) {
+            if (request.isCancelled()) {
+                return null;
+            }
+            request.publish(toLabelInfoList(packageNamesList, componentNameList, labels), false);
+        }
+
+        final HashMap<String, String> labelFromSettingsOrSCS =
+                getProviderLabels(context, isComponentListNotNull);
+        int resolvedSincePublish = 0;
+        for (int i = 0; i < count; i++) {
+            if (labels[i] != null) {
+                continue;
+            }
+
+            String label = labelFromSettingsOrSCS != null
+                    ? labelFromSettingsOrSCS.get(keys[i]) : null;
+            if (label == null) {
+                label = isComponentListNotNull
+                        ? getLabelFromPackageManager(context, componentNameList.get(i))
+                        : getLabelFromPackageManager(context, keys[i]);
+            }
+            if (label != null && !UNKNOWN_LABEL.equals(label)) {
+                sLabelCache.put(keys[i], label);
+            }
+            labels[i] = label;
+
+            if (request != null && ++resolvedSincePublish == STREAM_BATCH_SIZE) {
+                if (request.isCancelled()) {
+                    return null;
                 }
+                request.publish(
+                        toLabelInfoList(packageNamesList, componentNameList, labels), false);
+                resolvedSincePublish = 0;
+            }
+        }
+
+        if (request != null && request.isCancelled()) {
+            return null;
+        }
+        return toLabelInfoList(packageNamesList, componentNameList, labels);
+    }
+
+    @NonNull
+    private static ArrayList<AppPickerView.AppLabelInfo> toLabelInfoList(
+            List<String> packageNamesList, List<ComponentName> componentNameList,
+            String[] labels) {
+        ArrayList<AppPickerView.AppLabelInfo> updatedLabelInfoList =
+                new ArrayList<>(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i] == null) {
+                continue;
+            }
+            if (componentNameList != null) {
+                final ComponentName componentName = componentNameList.get(i);
                 updatedLabelInfoList.add(
                         new AppPickerView.AppLabelInfo(componentName.getPackageName(),
-                                appLabel, componentName.getClassName()));
+                                labels[i], componentName.getClassName()));
+            } else {
+                updatedLabelInfoList.add(
+                        new AppPickerView.AppLabelInfo(packageNamesList.get(i), labels[i], ""));
             }
-        } else {
-            for (String packageName : packageNamesList) {
-                String label = appLabelMap != null ? appLabelMap.get(packageName) : null;
-                if (label == null && labelFromSettingsOrSCS != null) {
-                    label = labelFromSettingsOrSCS.get(packageName);
+        }
+        return updatedLabelInfoList;
+    }
+
+    @Nullable
+    private static HashMap<String, String> getProviderLabels(Context context,
+            boolean isComponentNameIncluded) {
+        synchronized (DataManager.class) {
+            HashMap<String, String> labels = isComponentNameIncluded
+                    ? sComponentProviderLabels : sPackageProviderLabels;
+            if (labels == null) {
+                labels = sIsSupportQUERY
+                        ? getLabelFromSCS(context, isComponentNameIncluded)
+                        : isComponentNameIncluded ? new HashMap<>()
+                                : loadLabelFromSettings(context);
+                if (isComponentNameIncluded) {
+                    sComponentProviderLabels = labels;
+                } else {
+                    sPackageProviderLabels = labels;
                 }
-                if (label == null) {
-                    label = getLabelFromPackageManager(context, packageName);
+            }
+            return labels;
+        }
+    }
+
+    private static void ensureCacheValid(Context context) {
+        synchronized (DataManager.class) {
+            final Locale locale = Locale.getDefault();
+            if (!locale.equals(sCacheLocale)) {
+                sCacheLocale = locale;
+                invalidateAll();
+            }
+
+            if (!sInvalidationRegistered) {
+                sInvalidationRegistered = true;
+                final Context appContext = context.getApplicationContext() != null
+                        ? context.getApplicationContext() : context;
+
+                IntentFilter packageFilter = new IntentFilter();
+                packageFilter.addAction(Intent.ACTION_PACKAGE_ADDED);
+                packageFilter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+                packageFilter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+                packageFilter.addDataScheme("package");
+                ContextCompat.registerReceiver(appContext, sInvalidationReceiver, packageFilter,
+                        ContextCompat.RECEIVER_NOT_EXPORTED);
+                ContextCompat.registerReceiver(appContext, sInvalidationReceiver,
+                        new IntentFilter(Intent.ACTION_LOCALE_CHANGED),
+                        ContextCompat.RECEIVER_NOT_EXPORTED);
+            }
+        }
+    }
+
+    private static boolean matchesPackage(String key, String packageName,
+            String componentPrefix) {
+        return key.equals(packageName) || key.startsWith(componentPrefix)
+                || key.endsWith("/" + packageName);
+    }
+
+    @Nullable
+    private static HashMap<String, String> withoutPackage(
+            @Nullable HashMap<String, String> labels, String packageName) {
+        if (labels == null) {
+            return null;
+        }
+
+        final String componentPrefix = packageName + "/";
+        HashMap<String, String> result = null;
+        for (String key : labels.keySet()) {
+            if (matchesPackage(key, packageName, componentPrefix)) {
+                if (result == null) {
+                    result = new HashMap<>(labels);
                 }
-                updatedLabelInfoList.add(new AppPickerView.AppLabelInfo(packageName, label, ""));
+                result.remove(key);
             }
         }
-        return updatedLabelInfoList;
+        return result != null ? result : labels;
+    }
+
+    private static Executor getLabelExecutor() {
+        synchronized (DataManager.class) {
+            if (sLabelExecutor == null) {
+                sLabelExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "AppPickerLabelLoader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return sLabelExecutor;
+        }
     }
 
     @SuppressLint("Range")
@@ -189,10 +494,10 @@ class DataManager {
             PackageManager packageManager = context.getPackageManager();
             ApplicationInfo applicationInfo = packageManager.getApplicationInfo(packageName, 0);
             return applicationInfo != null ?
-                    (String) packageManager.getApplicationLabel(applicationInfo) : "Unknown";
+                    (String) packageManager.getApplicationLabel(applicationInfo) : UNKNOWN_LABEL;
         } catch (PackageManager.NameNotFoundException unused) {
             Log.i(TAG, "can't find label for " + packageName);
-            return "Unknown";
+            return UNKNOWN_LABEL;
         }
     }
 
@@ -201,10 +506,10 @@ class DataManager {
             PackageManager packageManager = context.getPackageManager();
             ActivityInfo activityInfo = packageManager.getActivityInfo(componentName, 0);
             return activityInfo != null ?
-                    activityInfo.loadLabel(packageManager).toString() : "Unknown";
+                    activityInfo.loadLabel(packageManager).toString() : UNKNOWN_LABEL;
         } catch (PackageManager.NameNotFoundException unused) {
             Log.i(TAG, "can't find label for " + componentName);
-            return "Unknown";
+            return UNKNOWN_LABEL;
         }
     }
 }
@@ -172,8 +172,12 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
 
     private final List<View> mDependencySortedChildren = new ArrayList<>();
     private final DirectedAcyclicGraph<View> mChildDag = new DirectedAcyclicGraph<>();
+    private boolean mBehaviorDependentsValid;
 
     private final List<View> mTempList1 = new ArrayList<>();
+    private final Comparator<View> mDependencySortedIndexComparator = (a, b) ->
+            ((LayoutParams) a.getLayoutParams()).mDependencySortedIndex
+                    - ((LayoutParams) b.getLayoutParams()).mDependencySortedIndex;
     private Paint mScrimPaint;
 
     // Array to be mutated by calls to nested scrolling related methods of Behavior to satisfy the
@@ -779,6 +783,73 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
         // We also need to reverse the result since we want the start of the list to contain
         // Views which have no dependencies, then dependent views after that
         Collections.reverse(mDependencySortedChildren);
+
+        cacheBehaviorDependents();
+    }
+
+    /**
+     * Caches, for every child, the children whose {@link Behavior#layoutDependsOn} returns
+     * {@code true} for it, in dependency sorted order. Candidates are taken from the incoming
+     * edges of {@link #mChildDag}, so this costs one behavior call per edge and
+     * {@link #onChildViewsChanged(int)} does not need to ask every pair of children again on
+     * every dispatch.
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheBehaviorDependents() {
+        final int childCount = mDependencySortedChildren.size();
+        for (int i = 0; i < childCount; i++) {
+            final LayoutParams lp =
+                    (LayoutParams) mDependencySortedChildren.get(i).getLayoutParams();
+            lp.mDependencySortedIndex = i;
+            lp.mBehaviorChanged = false;
+        }
+
+        for (int i = 0; i < childCount; i++) {
+            final View child = mDependencySortedChildren.get(i);
+            final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            final ArrayList<View> behaviorDependents = lp.mBehaviorDependents;
+            behaviorDependents.clear();
+
+            final List<View> dependents = mChildDag.getIncomingEdgesInternal(child);
+            if (dependents == null) {
+                continue;
+            }
+
+            for (int j = 0, size = dependents.size(); j < size; j++) {
+                final View checkChild = dependents.get(j);
+                final LayoutParams checkLp = (LayoutParams) checkChild.getLayoutParams();
+                final int checkIndex = checkLp.mDependencySortedIndex;
+                if (checkIndex <= i || checkIndex >= childCount
+                        || mDependencySortedChildren.get(checkIndex) != checkChild) {
+                    continue;
+                }
+
+                final Behavior b = checkLp.getBehavior();
+                if (b != null && b.layoutDependsOn(this, checkChild, child)) {
+                    behaviorDependents.add(checkChild);
+                }
+            }
+
+            // Dispatch in dependency sorted order, like a scan of the sorted children would.
+            if (behaviorDependents.size() > 1) {
+                Collections.sort(behaviorDependents, mDependencySortedIndexComparator);
+            }
+        }
+        mBehaviorDependentsValid = true;
+    }
+
+    private boolean isBehaviorDependentsCacheValid() {
+        if (!mBehaviorDependentsValid) {
+            return false;
+        }
+        for (int i = 0, size = mDependencySortedChildren.size(); i < size; i++) {
+            final LayoutParams lp =
+                    (LayoutParams) mDependencySortedChildren.get(i).getLayoutParams();
+            if (lp.mBehaviorChanged || lp.mDependencySortedIndex != i) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -1370,6 +1441,10 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
         final Rect drawRect = acquireTempRect();
         final Rect lastDrawRect = acquireTempRect();
 
+        if (!isBehaviorDependentsCacheValid()) {
+            cacheBehaviorDependents();
+        }
+
         for (int i = 0; i < childCount; i++) {
             final View child = mDependencySortedChildren.get(i);
             final LayoutParams lp = (LayoutParams) child.getLayoutParams();
@@ -1379,10 +1454,12 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
             }
 
             // Check child views before for anchor
-            for (int j = 0; j < i; j++) {
-                final View checkChild = mDependencySortedChildren.get(j);
-
-                if (lp.mAnchorDirectChild == checkChild) {
+            final View anchor = lp.mAnchorDirectChild;
+            if (anchor != null) {
+                final int anchorIndex =
+                        ((LayoutParams) anchor.getLayoutParams()).mDependencySortedIndex;
+                if (anchorIndex >= 0 && anchorIndex < i
+                        && mDependencySortedChildren.get(anchorIndex) == anchor) {
                     offsetChildToAnchor(child, layoutDirection);
                 }
             }
@@ -1427,12 +1504,13 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
             }
 
             // Update any behavior-dependent views for the change
-            for (int j = i + 1; j < childCount; j++) {
-                final View checkChild = mDependencySortedChildren.get(j);
+            final ArrayList<View> behaviorDependents = lp.mBehaviorDependents;
+            for (int j = 0, size = behaviorDependents.size(); j < size; j++) {
+                final View checkChild = behaviorDependents.get(j);
                 final LayoutParams checkLp = (LayoutParams) checkChild.getLayoutParams();
                 final Behavior b = checkLp.getBehavior();
 
-                if (b != null && b.layoutDependsOn(this, checkChild, child)) {
+                if (b != null) {
                     if (type == EVENT_PRE_DRAW && checkLp.getChangedAfterNestedScroll()) {
                         // If this is from a pre-draw and we have already been changed
                         // from a nested scroll, skip the dispatch and reset the flag
@@ -2953,6 +3031,11 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
 
         final Rect mLastChildRect = new Rect();
 
+        // Dependency cache maintained by CoordinatorLayout#cacheBehaviorDependents()
+        int mDependencySortedIndex = -1;
+        final ArrayList<View> mBehaviorDependents = new ArrayList<>();
+        boolean mBehaviorChanged;
+
         Object mBehaviorTag;
 
         public LayoutParams(int width, int height) {
@@ -3071,6 +3154,7 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
                 mBehavior = behavior;
                 mBehaviorTag = null;
                 mBehaviorResolved = true;
+                mBehaviorChanged = true;
 
                 if (behavior != null) {
                     // Now dispatch that the Behavior has been attached
@@ -3320,6 +3404,7 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
 
         @Override
         public void onChildViewAdded(View parent, View child) {
+            mBehaviorDependentsValid = false;
             if (mOnHierarchyChangeListener != null) {
                 mOnHierarchyChangeListener.onChildViewAdded(parent, child);
             }
@@ -3328,6 +3413,7 @@ public class CoordinatorLayout extends ViewGroup implements NestedScrollingParen
         @Override
         public void onChildViewRemoved(View parent, View child) {
             onChildViewsChanged(EVENT_VIEW_REMOVED);
+            mBehaviorDependentsValid = false;
 
             if (mOnHierarchyChangeListener != null) {
                 mOnHierarchyChangeListener.onChildViewRemoved(parent, child);
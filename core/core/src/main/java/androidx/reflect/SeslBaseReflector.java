@@ -20,6 +20,7 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
 
 import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
 
 import java.lang.reflect.Constructor;
@@ -39,12 +40,20 @@ public class SeslBaseReflector {
     }
 
     public static Class<?> getClass(String className) {
+        final Object cached = SeslReflectorCache.getClass(null, className);
+        if (cached != null) {
+            return cached != SeslReflectorCache.NOT_FOUND ? (Class<?>) cached : null;
+        }
+
+        final long start = System.nanoTime();
+        Class<?> cls = null;
         try {
-            return Class.forName(className);
+            cls = Class.forName(className);
         } catch (ClassNotFoundException e) {
             Log.w(TAG, "Fail to get class = " + className);
-            return null;
         }
+        SeslReflectorCache.putClass(null, className, cls, System.nanoTime() - start);
+        return cls;
     }
 
     public static Method getMethod(String className, String methodName, Class<?>... parameterTypes) {
@@ -55,12 +64,7 @@ public class SeslBaseReflector {
 
         Class<?> cls = getClass(className);
         if (cls != null) {
-            try {
-                return cls.getMethod(methodName, parameterTypes);
-            } catch (NoSuchMethodException e) {
-                Log.w(TAG, "Reflector did not find method = " + methodName);
-                return null;
-            }
+            return getMethod(cls, methodName, parameterTypes);
         }
 
         return null;
@@ -72,12 +76,22 @@ public class SeslBaseReflector {
             return null;
         }
 
+        final Object cached = SeslReflectorCache.getMember(classT,
+                SeslReflectorCache.KIND_METHOD, methodName, parameterTypes);
+        if (cached != null) {
+            return cached != SeslReflectorCache.NOT_FOUND ? (Method) cached : null;
+        }
+
+        final long start = System.nanoTime();
+        Method method = null;
         try {
-            return classT.getMethod(methodName, parameterTypes);
+            method = classT.getMethod(methodName, parameterTypes);
         } catch (NoSuchMethodException e) {
             Log.w(TAG, "Reflector did not find method = " + methodName);
-            return null;
         }
+        SeslReflectorCache.putMember(classT, SeslReflectorCache.KIND_METHOD, methodName,
+                parameterTypes, method, System.nanoTime() - start);
+        return method;
     }
 
     public static Method getDeclaredMethod(String className, String methodName, Class<?>... parameterTypes) {
@@ -87,19 +101,11 @@ public class SeslBaseReflector {
         }
 
         Class<?> cls = getClass(className);
-        Method method = null;
         if (cls != null) {
-            try {
-                method = cls.getDeclaredMethod(methodName, parameterTypes);
-                if (method != null) {
-                    method.setAccessible(true);
-                }
-            } catch (NoSuchMethodException e) {
-                Log.w(TAG, "Reflector did not find method = " + methodName);
-            }
+            return getDeclaredMethod(cls, methodName, parameterTypes);
         }
 
-        return method;
+        return null;
     }
 
     public static <T> Method getDeclaredMethod(Class<T> classT, String methodName, Class<?>... parameterTypes) {
@@ -108,6 +114,13 @@ public class SeslBaseReflector {
             return null;
         }
 
+        final Object cached = SeslReflectorCache.getMember(classT,
+                SeslReflectorCache.KIND_DECLARED_METHOD, methodName, parameterTypes);
+        if (cached != null) {
+            return cached != SeslReflectorCache.NOT_FOUND ? (Method) cached : null;
+        }
+
+        final long start = System.nanoTime();
         Method method = null;
         try {
             method = classT.getDeclaredMethod(methodName, parameterTypes);
@@ -117,7 +130,8 @@ public class SeslBaseReflector {
         } catch (NoSuchMethodException e) {
             Log.w(TAG, "Reflector did not find method = " + methodName);
         }
-
+        SeslReflectorCache.putMember(classT, SeslReflectorCache.KIND_DECLARED_METHOD, methodName,
+                parameterTypes, method, System.nanoTime() - start);
         return method;
     }
 
@@ -149,12 +163,7 @@ public class SeslBaseReflector {
 
         Class<?> cls = getClass(className);
         if (cls != null) {
-            try {
-                return cls.getField(fieldName);
-            } catch (NoSuchFieldException e) {
-                Log.w(TAG, "Reflector did not find field = " + fieldName);
-                return null;
-            }
+            return getField(cls, fieldName);
         }
 
         return null;
@@ -166,12 +175,22 @@ public class SeslBaseReflector {
             return null;
         }
 
+        final Object cached = SeslReflectorCache.getMember(classT,
+                SeslReflectorCache.KIND_FIELD, fieldName, null);
+        if (cached != null) {
+            return cached != SeslReflectorCache.NOT_FOUND ? (Field) cached : null;
+        }
+
+        final long start = System.nanoTime();
+        Field field = null;
         try {
-            return classT.getField(fieldName);
+            field = classT.getField(fieldName);
         } catch (NoSuchFieldException e) {
             Log.w(TAG, "Reflector did not find field = " + fieldName);
-            return null;
         }
+        SeslReflectorCache.putMember(classT, SeslReflectorCache.KIND_FIELD, fieldName, null,
+                field, System.nanoTime() - start);
+        return field;
     }
 
     public static Field getDeclaredField(String className, String fieldName) {
@@ -181,19 +200,11 @@ public class SeslBaseReflector {
         }
 
         Class<?> cls = getClass(className);
-        Field field = null;
         if (cls != null) {
-            try {
-                field = cls.getDeclaredField(fieldName);
-                if (field != null) {
-                    field.setAccessible(true);
-                }
-            } catch (NoSuchFieldException e) {
-                Log.w(TAG, "Reflector did not find field = " + fieldName);
-            }
+            return getDeclaredField(cls, fieldName);
         }
 
-        return field;
+        return null;
     }
 
     public static <T> Field getDeclaredField(Class<T> classT, String fieldName) {
@@ -202,6 +213,13 @@ public class SeslBaseReflector {
             return null;
         }
 
+        final Object cached = SeslReflectorCache.getMember(classT,
+                SeslReflectorCache.KIND_DECLARED_FIELD, fieldName, null);
+        if (cached != null) {
+            return cached != SeslReflectorCache.NOT_FOUND ? (Field) cached : null;
+        }
+
+        final long start = System.nanoTime();
         Field field = null;
         try {
             field = classT.getDeclaredField(fieldName);
@@ -209,9 +227,10 @@ public class SeslBaseReflector {
                 field.setAccessible(true);
             }
         } catch (NoSuchFieldException e) {
-            Log.w(TAG, "Reflector did not find field = " + fieldName);;
+            Log.w(TAG, "Reflector did not find field = " + fieldName);
         }
-
+        SeslReflectorCache.putMember(classT, SeslReflectorCache.KIND_DECLARED_FIELD, fieldName,
+                null, field, System.nanoTime() - start);
         return field;
     }
 
@@ -248,11 +267,81 @@ public class SeslBaseReflector {
     }
 
     public static Constructor<?> getConstructor(String className, Class<?>... paramTypes) {
+        Class<?> cls = getClass(className);
+        if (cls == null) {
+            return null;
+        }
+
+        final Object cached = SeslReflectorCache.getMember(cls,
+                SeslReflectorCache.KIND_CONSTRUCTOR, null, paramTypes);
+        if (cached != null) {
+            return cached != SeslReflectorCache.NOT_FOUND ? (Constructor<?>) cached : null;
+        }
+
+        final long start = System.nanoTime();
+        Constructor<?> constructor = null;
         try {
-            return Class.forName(className).getDeclaredConstructor(paramTypes);
-        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            constructor = cls.getDeclaredConstructor(paramTypes);
+        } catch (NoSuchMethodException e) {
             e.printStackTrace();
-            return null;
+        }
+        SeslReflectorCache.putMember(cls, SeslReflectorCache.KIND_CONSTRUCTOR, null, paramTypes,
+                constructor, System.nanoTime() - start);
+        return constructor;
+    }
+
+    /**
+     * Returns a snapshot of the reflection cache counters. A hit is a class or member lookup
+     * answered from the cache (including cached misses), a miss is one that had to be resolved
+     * through reflection.
+     */
+    @NonNull
+    public static CacheStats getCacheStats() {
+        return new CacheStats(SeslReflectorCache.getHitCount(),
+                SeslReflectorCache.getMissCount(), SeslReflectorCache.getResolveTimeNanos());
+    }
+
+    /**
+     * Resets the counters reported by {@link #getCacheStats()}. Cached entries are kept.
+     */
+    public static void resetCacheStats() {
+        SeslReflectorCache.resetCounters();
+    }
+
+    /**
+     * Immutable snapshot of the reflection cache counters.
+     */
+    public static final class CacheStats {
+        private final long mHitCount;
+        private final long mMissCount;
+        private final long mResolveTimeNanos;
+
+        CacheStats(long hitCount, long missCount, long resolveTimeNanos) {
+            mHitCount = hitCount;
+            mMissCount = missCount;
+            mResolveTimeNanos = resolveTimeNanos;
+        }
+
+        public long getHitCount() {
+            return mHitCount;
+        }
+
+        public long getMissCount() {
+            return mMissCount;
+        }
+
+        /**
+         * Returns the total time spent resolving classes and members that were not cached yet.
+         */
+        public long getResolveTimeNanos() {
+            return mResolveTimeNanos;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "CacheStats{hits=" + mHitCount + ", misses=" + mMissCount
+                    + ", resolveTimeNanos=" + mResolveTimeNanos + "}";
         }
     }
-}
\ No newline at end of file
+}
@@ -39,23 +39,41 @@ public class SeslPathClassReflector {
     }
 
     public static Class<?> getClass(PathClassLoader pathClassLoader, String className) {
+        final Object cached = SeslReflectorCache.getClass(pathClassLoader, className);
+        if (cached != null) {
+            return cached != SeslReflectorCache.NOT_FOUND ? (Class<?>) cached : null;
+        }
+
+        final long start = System.nanoTime();
+        Class<?> cls = null;
         try {
-            return Class.forName(className, true, pathClassLoader);
+            cls = Class.forName(className, true, pathClassLoader);
         } catch (ClassNotFoundException e) {
             Log.e(TAG, "Fail to get class", e);
-            return null;
         }
+        SeslReflectorCache.putClass(pathClassLoader, className, cls, System.nanoTime() - start);
+        return cls;
     }
 
     public static Method getMethod(PathClassLoader pathClassLoader, String className, String methodName, Class<?>... parameterTypes) {
         Class<?> cls = getClass(pathClassLoader, className);
         if (cls != null) {
+            final Object cached = SeslReflectorCache.getMember(cls,
+                    SeslReflectorCache.KIND_METHOD, methodName, parameterTypes);
+            if (cached != null) {
+                return cached != SeslReflectorCache.NOT_FOUND ? (Method) cached : null;
+            }
+
+            final long start = System.nanoTime();
+            Method method = null;
             try {
-                return cls.getMethod(methodName, parameterTypes);
+                method = cls.getMethod(methodName, parameterTypes);
             } catch (NoSuchMethodException e) {
                 Log.e(TAG, methodName + " NoSuchMethodException", e);
-                return null;
             }
+            SeslReflectorCache.putMember(cls, SeslReflectorCache.KIND_METHOD, methodName,
+                    parameterTypes, method, System.nanoTime() - start);
+            return method;
         }
 
         return null;
@@ -64,12 +82,22 @@ public class SeslPathClassReflector {
     public static Field getField(PathClassLoader pathClassLoader, String className, String fieldName) {
         Class<?> cls = getClass(pathClassLoader, className);
         if (cls != null) {
+            final Object cached = SeslReflectorCache.getMember(cls,
+                    SeslReflectorCache.KIND_FIELD, fieldName, null);
+            if (cached != null) {
+                return cached != SeslReflectorCache.NOT_FOUND ? (Field) cached : null;
+            }
+
+            final long start = System.nanoTime();
+            Field field = null;
             try {
-                return cls.getField(fieldName);
+                field = cls.getField(fieldName);
             } catch (NoSuchFieldException e) {
                 Log.e(TAG, fieldName + " NoSuchMethodException", e);
-                return null;
             }
+            SeslReflectorCache.putMember(cls, SeslReflectorCache.KIND_FIELD, fieldName, null,
+                    field, System.nanoTime() - start);
+            return field;
         }
 
         return null;
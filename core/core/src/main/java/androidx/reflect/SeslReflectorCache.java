@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.reflect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of resolved reflection targets shared by {@link SeslBaseReflector} and
+ * {@link SeslPathClassReflector}.
+ *
+ * <p>Both positive and negative results are kept: a member that does not exist on the current
+ * device is stored as {@link #NOT_FOUND} so it is neither looked up nor logged again. Classes
+ * reached through the reflectors are framework classes or classes of process-wide
+ * {@link ClassLoader}s, so entries are never evicted.
+ *
+ * <p>Lookups do not allocate: members are grouped per declaring class and per name, and
+ * overloads are told apart by comparing parameter type arrays.
+ */
+final class SeslReflectorCache {
+    static final int KIND_METHOD = 0;
+    static final int KIND_DECLARED_METHOD = 1;
+    static final int KIND_FIELD = 2;
+    static final int KIND_DECLARED_FIELD = 3;
+    static final int KIND_CONSTRUCTOR = 4;
+
+    /**
+     * Sentinel stored for classes or members that could not be resolved.
+     */
+    static final Object NOT_FOUND = new Object();
+
+    private static final String CONSTRUCTOR_NAME = "<init>";
+    private static final Class<?>[] EMPTY_PARAMETER_TYPES = new Class<?>[0];
+
+    private static final ConcurrentHashMap<String, Object> sClasses = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<ClassLoader, ConcurrentHashMap<String, Object>>
+            sLoaderClasses = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Entry>> sMembers =
+            new ConcurrentHashMap<>();
+
+    private static final AtomicLong sHitCount = new AtomicLong();
+    private static final AtomicLong sMissCount = new AtomicLong();
+    private static final AtomicLong sResolveTimeNanos = new AtomicLong();
+
+    private SeslReflectorCache() {
+    }
+
+    /**
+     * Returns the cached class for {@code className}, {@link #NOT_FOUND}, or {@code null} if it
+     * has not been resolved yet.
+     */
+    @Nullable
+    static Object getClass(@Nullable ClassLoader classLoader, @NonNull String className) {
+        final ConcurrentHashMap<String, Object> classes = classesFor(classLoader, false);
+        return count(classes != null ? classes.get(className) : null);
+    }
+
+    static void putClass(@Nullable ClassLoader classLoader, @NonNull String className,
+            @Nullable Class<?> cls, long resolveTimeNanos) {
+        classesFor(classLoader, true).put(className, cls != null ? cls : NOT_FOUND);
+        sResolveTimeNanos.addAndGet(resolveTimeNanos);
+    }
+
+    /**
+     * Returns the cached member of {@code cls}, {@link #NOT_FOUND}, or {@code null} if it has not
+     * been resolved yet.
+     */
+    @Nullable
+    static Object getMember(@NonNull Class<?> cls, int kind, @Nullable String name,
+            @Nullable Class<?>[] parameterTypes) {
+        final ConcurrentHashMap<String, Entry> members = sMembers.get(cls);
+        if (members == null) {
+            return count(null);
+        }
+
+        for (Entry entry = members.get(keyOf(kind, name)); entry != null; entry = entry.mNext) {
+            if (entry.matches(kind, parameterTypes)) {
+                return count(entry.mValue);
+            }
+        }
+
+        return count(null);
+    }
+
+    static void putMember(@NonNull Class<?> cls, int kind, @Nullable String name,
+            @Nullable Class<?>[] parameterTypes, @Nullable Object member, long resolveTimeNanos) {
+        ConcurrentHashMap<String, Entry> members = sMembers.get(cls);
+        if (members == null) {
+            members = new ConcurrentHashMap<>();
+            final ConcurrentHashMap<String, Entry> previous = sMembers.putIfAbsent(cls, members);
+            if (previous != null) {
+                members = previous;
+            }
+        }
+
+        final String key = keyOf(kind, name);
+        synchronized (members) {
+            final Entry head = members.get(key);
+            for (Entry entry = head; entry != null; entry = entry.mNext) {
+                if (entry.matches(kind, parameterTypes)) {
+                    return;
+                }
+            }
+            members.put(key, new Entry(kind, parameterTypes != null
+                    ? parameterTypes.clone() : EMPTY_PARAMETER_TYPES,
+                    member != null ? member : NOT_FOUND, head));
+        }
+        sResolveTimeNanos.addAndGet(resolveTimeNanos);
+    }
+
+    static long getHitCount() {
+        return sHitCount.get();
+    }
+
+    static long getMissCount() {
+        return sMissCount.get();
+    }
+
+    static long getResolveTimeNanos() {
+        return sResolveTimeNanos.get();
+    }
+
+    static void resetCounters() {
+        sHitCount.set(0);
+        sMissCount.set(0);
+        sResolveTimeNanos.set(0);
+    }
+
+    @Nullable
+    private static Object count(@Nullable Object value) {
+        if (value != null) {
+            sHitCount.incrementAndGet();
+        } else {
+            sMissCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    @Nullable
+    private static ConcurrentHashMap<String, Object> classesFor(@Nullable ClassLoader classLoader,
+            boolean create) {
+        if (classLoader == null) {
+            return sClasses;
+        }
+
+        ConcurrentHashMap<String, Object> classes = sLoaderClasses.get(classLoader);
+        if (classes == null && create) {
+            classes = new ConcurrentHashMap<>();
+            final ConcurrentHashMap<String, Object> previous =
+                    sLoaderClasses.putIfAbsent(classLoader, classes);
+            if (previous != null) {
+                classes = previous;
+            }
+        }
+        return classes;
+    }
+
+    @NonNull
+    private static String keyOf(int kind, @Nullable String name) {
+        return kind == KIND_CONSTRUCTOR || name == null ? CONSTRUCTOR_NAME : name;
+    }
+
+    private static final class Entry {
+        final int mKind;
+        final Class<?>[] mParameterTypes;
+        final Object mValue;
+        final Entry mNext;
+
+        Entry(int kind, Class<?>[] parameterTypes, Object value, Entry next) {
+            mKind = kind;
+            mParameterTypes = parameterTypes;
+            mValue = value;
+            mNext = next;
+        }
+
+        boolean matches(int kind, @Nullable Class<?>[] parameterTypes) {
+            if (mKind != kind) {
+                return false;
+            }
+            if (parameterTypes == null) {
+                return mParameterTypes.length == 0;
+            }
+            return Arrays.equals(mParameterTypes, parameterTypes);
+        }
+    }
+}
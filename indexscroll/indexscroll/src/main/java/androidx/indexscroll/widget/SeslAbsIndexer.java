@@ -22,14 +22,22 @@ import static androidx.recyclerview.widget.LinearLayoutManager.INVALID_OFFSET;
 import android.database.DataSetObservable;
 import android.database.DataSetObserver;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.util.SparseIntArray;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.indexscroll.widget.SeslIndexScrollView.IndexScroll;
 
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /*
  * Original code by Samsung, all rights reserved to the original author.
@@ -48,6 +56,11 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
     private static final char SYMBOL_BASE_CHAR = '!';
     private static final char SYMBOL_CHAR = '&';
 
+    private static final int CANCEL_CHECK_INTERVAL_MASK = 0xFF;
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    private static Executor sIndexExecutor;
+
     static final String INDEXSCROLL_INDEX_COUNTS = "indexscroll_index_counts";
     static final String INDEXSCROLL_INDEX_TITLES = "indexscroll_index_titles";
 
@@ -57,6 +70,8 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
     private Bundle mBundle;
     protected Collator mCollator;
     private final DataSetObservable mDataSetObservable = new DataSetObservable();
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    private CollationKey[] mItemKeys;
     private String[] mLangAlphabetArray;
     private HashMap<Integer, Integer> mLangIndexMap = new HashMap<>();
 
@@ -72,6 +87,8 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
     private boolean mUseGroupIndex = false;
     private boolean mUseDigitIndex = false;
     private boolean mIsInitialized = false;
+    private boolean mUseCollationKeyIndex = false;
+    private boolean mItemKeysInvalid = true;
 
     protected abstract Bundle getBundle();
 
@@ -192,6 +209,67 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
         }
     }
 
+    /**
+     * When enabled, a {@link CollationKey} is built for every item once per data change on the
+     * index worker, and section lookups compare keys instead of reading and collating items for
+     * every probe. Until the keys of the current data are ready, lookups read and collate items
+     * as before. The keys can only be built for items that {@link #snapshotItems()} copies or
+     * {@link #getItemsLoader()} loads, and only by {@link #cacheIndexInfoAsync(Runnable)}: the
+     * synchronous {@link #cacheIndexInfo()} probes items, which it does once per data change,
+     * and uses keys only if they are already built for the current data.
+     */
+    void setCollationKeyIndexEnabled(boolean enabled) {
+        mUseCollationKeyIndex = enabled;
+        if (!enabled) {
+            mItemKeys = null;
+        }
+        mItemKeysInvalid = true;
+    }
+
+    boolean isCollationKeyIndexEnabled() {
+        return mUseCollationKeyIndex;
+    }
+
+    /**
+     * Builds the collation key index for {@code state}, or returns {@code null} if the
+     * computation was cancelled.
+     */
+    private CollationKey[] buildItemKeys(IndexState state, CollationKey[] previousKeys) {
+        HashMap<String, CollationKey> reusableKeys = null;
+        if (previousKeys != null) {
+            reusableKeys = new HashMap<>(previousKeys.length * 4 / 3 + 1);
+            for (CollationKey key : previousKeys) {
+                if (key != null) {
+                    reusableKeys.put(key.getSourceString(), key);
+                }
+            }
+        }
+
+        final int count = state.mItemCount;
+        final CollationKey[] keys = new CollationKey[count];
+        for (int i = 0; i < count; i++) {
+            if ((i & CANCEL_CHECK_INTERVAL_MASK) == 0 && isStale(state)) {
+                return null;
+            }
+
+            final String item = getItemAt(state, i);
+            if (item == null || item.isEmpty()) {
+                continue;
+            }
+
+            CollationKey key = reusableKeys != null ? reusableKeys.get(item) : null;
+            if (key == null) {
+                key = state.mCollator.getCollationKey(item);
+            }
+            keys[i] = key;
+        }
+
+        if (DEBUG) {
+            Log.d(TAG, "Built collation key index for " + count + " items");
+        }
+        return keys;
+    }
+
     private void initIndexer(CharSequence alphabet) {
         if (alphabet == null || alphabet.length() == 0) {
             throw new IllegalArgumentException("Invalid indexString :"
@@ -215,6 +293,8 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
 
         mCollator = Collator.getInstance();
         mCollator.setStrength(Collator.PRIMARY);
+        mItemKeys = null;
+        mItemKeysInvalid = true;
 
         mIsInitialized = true;
     }
@@ -227,11 +307,8 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
         return mAlphabetArray;
     }
 
-    private int compare(String word, String indexString) {
-        return mCollator.compare(word, indexString);
-    }
-
     void cacheIndexInfo() {
+        final int generation = mGeneration.incrementAndGet();
         if (isDataToBeIndexedAvailable() && getItemCount() != 0) {
             mBundle = getBundle();
 
@@ -243,22 +320,235 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
                 }
             }
 
-            onBeginTransaction();
-            for (int i = 0; i < mAlphabetLength; i++) {
-                mCachingValue[i] = getPositionForString("" + mAlphabet.charAt(i));
+            cacheIndexInfoByProbing(generation, false);
+        }
+    }
+
+    /**
+     * Computes the index on the main thread with a binary search per index character, reading
+     * items through {@link #getItemAt(int)}, or comparing collation keys if they are ready.
+     *
+     * @param buildItemKeys whether to build the collation keys in the background when they are
+     *                      enabled but not ready, for the lookups after this one
+     */
+    private void cacheIndexInfoByProbing(int generation, boolean buildItemKeys) {
+        onBeginTransaction();
+        final IndexState state = new IndexState(null, getItemCount(), mCollator, mAlphaMap,
+                generation);
+        final boolean itemKeysReady = mItemKeys != null && !mItemKeysInvalid;
+        if (mUseCollationKeyIndex && itemKeysReady) {
+            state.mItemKeys = mItemKeys;
+        }
+        for (int i = 0; i < mAlphabetLength; i++) {
+            mCachingValue[i] = getPositionForString(state, "" + mAlphabet.charAt(i));
+        }
+        onEndTransaction();
+
+        if (buildItemKeys && mUseCollationKeyIndex && !itemKeysReady) {
+            buildItemKeysInBackground(generation);
+        }
+    }
+
+    /**
+     * Builds the collation key index of the current items on the index worker, for the lookups
+     * after this one. Does nothing if the items cannot be read off the main thread.
+     */
+    private void buildItemKeysInBackground(int generation) {
+        final String[] items = snapshotItems();
+        final Callable<String[]> itemsLoader = items == null ? getItemsLoader() : null;
+        if (items == null && itemsLoader == null) {
+            return;
+        }
+
+        final CollationKey[] previousKeys = mItemKeys;
+        final IndexState state = new IndexState(items, getItemCount(),
+                (Collator) mCollator.clone(), null, generation);
+        getIndexExecutor().execute(() -> {
+            if (isStale(state) || !loadItems(state, itemsLoader)) {
+                return;
+            }
+            final CollationKey[] keys = buildItemKeys(state, previousKeys);
+            if (keys == null) {
+                return;
+            }
+            sMainHandler.post(() -> {
+                if (isStale(state) || !mUseCollationKeyIndex) {
+                    return;
+                }
+                mItemKeys = keys;
+                mItemKeysInvalid = false;
+            });
+        });
+    }
+
+    /**
+     * Computes the index on a background thread and publishes it on the main thread.
+     *
+     * <p>The worker never touches the cursor or list the adapter is using: it works on the
+     * {@link #snapshotItems() snapshot} of a list, or on the items read by
+     * {@link #getItemsLoader() the loader} of a cursor. Collation and the section searches then
+     * run on the worker. Items that can neither be copied cheaply nor loaded on the worker are
+     * indexed on the main thread with the binary search of {@link #cacheIndexInfo()}, which only
+     * reads a few items per index character. Starting a new computation, or calling
+     * {@link #cacheIndexInfo()} or {@link #cancelIndexing()}, cancels the one in flight and its
+     * result is discarded.
+     *
+     * @param onIndexUpdated run on the main thread after a new index has been published
+     */
+    void cacheIndexInfoAsync(@Nullable final Runnable onIndexUpdated) {
+        final int generation = mGeneration.incrementAndGet();
+        if (!isDataToBeIndexedAvailable() || getItemCount() == 0) {
+            return;
+        }
+
+        mBundle = getBundle();
+        if (mBundle != null && mBundle.containsKey(INDEXSCROLL_INDEX_TITLES)
+                && mBundle.containsKey(INDEXSCROLL_INDEX_COUNTS)) {
+            getBundleInfo();
+            if (onIndexUpdated != null) {
+                onIndexUpdated.run();
+            }
+            return;
+        }
+
+        final String[] items = snapshotItems();
+        final Callable<String[]> itemsLoader = items == null ? getItemsLoader() : null;
+        if (items == null && itemsLoader == null) {
+            cacheIndexInfoByProbing(generation, true);
+            if (onIndexUpdated != null) {
+                onIndexUpdated.run();
+            }
+            return;
+        }
+
+        final CharSequence alphabet = mAlphabet;
+        final boolean useCollationKeyIndex = mUseCollationKeyIndex;
+        final CollationKey[] previousKeys = mItemKeys;
+        final IndexState state = new IndexState(items, getItemCount(),
+                (Collator) mCollator.clone(), new SparseIntArray(alphabet.length()), generation);
+
+        getIndexExecutor().execute(() -> {
+            if (isStale(state)) {
+                return;
+            }
+            if (!loadItems(state, itemsLoader)) {
+                // The loaded items do not match what the adapter shows, index what it shows
+                sMainHandler.post(() -> {
+                    if (isStale(state) || alphabet != mAlphabet) {
+                        return;
+                    }
+                    cacheIndexInfoByProbing(state.mGeneration, true);
+                    if (onIndexUpdated != null) {
+                        onIndexUpdated.run();
+                    }
+                });
+                return;
+            }
+
+            if (useCollationKeyIndex) {
+                state.mItemKeys = buildItemKeys(state, previousKeys);
+                if (state.mItemKeys == null) {
+                    return;
+                }
+            }
+
+            final int[] cachingValue = new int[alphabet.length()];
+            for (int i = 0; i < cachingValue.length; i++) {
+                if (isStale(state)) {
+                    return;
+                }
+                cachingValue[i] = getPositionForString(state, "" + alphabet.charAt(i));
+            }
+
+            sMainHandler.post(() -> {
+                if (isStale(state) || alphabet != mAlphabet) {
+                    return;
+                }
+
+                mCachingValue = cachingValue;
+                mAlphaMap = state.mAlphaMap;
+                if (useCollationKeyIndex && mUseCollationKeyIndex) {
+                    mItemKeys = state.mItemKeys;
+                    mItemKeysInvalid = false;
+                }
+                if (onIndexUpdated != null) {
+                    onIndexUpdated.run();
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancels the index computation started by {@link #cacheIndexInfoAsync(Runnable)}, if any.
+     */
+    void cancelIndexing() {
+        mGeneration.incrementAndGet();
+    }
+
+    /**
+     * Returns an immutable copy of the items to be indexed, or {@code null} if they cannot be
+     * copied without reading them one by one. Called on the main thread.
+     */
+    @Nullable
+    String[] snapshotItems() {
+        return null;
+    }
+
+    /**
+     * Returns a task that reads the items to be indexed on the index worker, without touching
+     * the data the adapter is using, or {@code null} if there is none. Called on the main
+     * thread. The task returns {@code null} if the items could not be read.
+     */
+    @Nullable
+    Callable<String[]> getItemsLoader() {
+        return null;
+    }
+
+    /**
+     * Makes the items of {@code state} available on the index worker. Returns whether they
+     * match the item count captured on the main thread.
+     */
+    private boolean loadItems(IndexState state, @Nullable Callable<String[]> itemsLoader) {
+        if (state.mItems == null && itemsLoader != null) {
+            try {
+                state.mItems = itemsLoader.call();
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to load the items to index", e);
+            }
+        }
+        return state.mItems != null && state.mItems.length == state.mItemCount;
+    }
+
+    private boolean isStale(IndexState state) {
+        return state.mGeneration != mGeneration.get();
+    }
+
+    private String getItemAt(IndexState state, int pos) {
+        return state.mItems != null ? state.mItems[pos] : getItemAt(pos);
+    }
+
+    private static Executor getIndexExecutor() {
+        synchronized (SeslAbsIndexer.class) {
+            if (sIndexExecutor == null) {
+                sIndexExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    final Thread thread = new Thread(runnable, "SeslIndexer");
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    thread.setDaemon(true);
+                    return thread;
+                });
             }
-            onEndTransaction();
+            return sIndexExecutor;
         }
     }
 
-    private int getPositionForString(String searchString) {
+    private int getPositionForString(IndexState state, String searchString) {
 
-        if (mAlphabet == null) return 0;
+        if (state.mAlphabet == null) return 0;
 
-        int totalItems = getItemCount();
+        int totalItems = state.mItemCount;
         if (totalItems == 0 || searchString == null || searchString.isEmpty()) return totalItems ;
 
-        SparseIntArray cacheAlphaMap = mAlphaMap;
+        SparseIntArray cacheAlphaMap = state.mAlphaMap;
 
         char indexChar = searchString.charAt(0);
         int cachedOffset = cacheAlphaMap.get(indexChar, INVALID_OFFSET);
@@ -272,11 +562,11 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
         } else {
             int offsetFromAlphabets;
             findOffsetInAlphabets: {
-                calculatedOffset = mAlphabet.toString().indexOf(indexChar);
+                calculatedOffset = state.mAlphabet.toString().indexOf(indexChar);
                 if (calculatedOffset > 0) {
                     offsetFromAlphabets = calculatedOffset - 1;
-                    if (indexChar > mAlphabet.charAt(offsetFromAlphabets)) {
-                        offsetFromAlphabets = cacheAlphaMap.get(mAlphabet.charAt(offsetFromAlphabets), INVALID_OFFSET);
+                    if (indexChar > state.mAlphabet.charAt(offsetFromAlphabets)) {
+                        offsetFromAlphabets = cacheAlphaMap.get(state.mAlphabet.charAt(offsetFromAlphabets), INVALID_OFFSET);
                         if (offsetFromAlphabets != INVALID_OFFSET) {
                             offsetFromAlphabets = Math.abs(offsetFromAlphabets);
                             break findOffsetInAlphabets;
@@ -289,10 +579,10 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
             cachedOffset = offsetFromAlphabets;
 
             adjustOffset: {
-                if (calculatedOffset <  mAlphabet.length() - 1) {
+                if (calculatedOffset <  state.mAlphabet.length() - 1) {
                     ++calculatedOffset;
-                    if (indexChar < mAlphabet.charAt(calculatedOffset)) {
-                        calculatedOffset = cacheAlphaMap.get(this.mAlphabet.charAt(calculatedOffset), INVALID_OFFSET);
+                    if (indexChar < state.mAlphabet.charAt(calculatedOffset)) {
+                        calculatedOffset = cacheAlphaMap.get(state.mAlphabet.charAt(calculatedOffset), INVALID_OFFSET);
                         if (calculatedOffset != INVALID_OFFSET) {
                             calculatedOffset = Math.abs(calculatedOffset);
                             break adjustOffset;
@@ -312,31 +602,39 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
 
         int sectionEnd;
         if (indexChar == 9733) {
-            sectionEnd = Math.max(cachedOffset, mProfileItemCount);
+            sectionEnd = Math.max(cachedOffset, state.mProfileItemCount);
         } else {
             if (indexChar == GROUP_CHECKER) {
-                sectionEnd = Math.max(cachedOffset, mProfileItemCount + mFavoriteItemCount);
+                sectionEnd = Math.max(cachedOffset, state.mProfileItemCount + state.mFavoriteItemCount);
             } else {
-                sectionEnd = Math.max(cachedOffset, mProfileItemCount + mFavoriteItemCount + mGroupItemCount);
+                sectionEnd = Math.max(cachedOffset, state.mProfileItemCount + state.mFavoriteItemCount + state.mGroupItemCount);
             }
         }
 
-        calculatedOffset -= mDigitItemCount;
+        calculatedOffset -= state.mDigitItemCount;
 
         int searchEnd = (indexChar == DIGIT_CHAR) ? calculatedOffset : sectionEnd;
 
         int middleIndex = (calculatedOffset + searchEnd) / 2;
 
+        final CollationKey[] itemKeys = state.mItemKeys;
+        final CollationKey searchCollationKey = itemKeys != null
+                ? state.mCollator.getCollationKey(searchKey) : null;
+
         int finalPosition = totalItems;
         findFinalPosition: {
             while(middleIndex >= searchEnd && middleIndex < calculatedOffset) {
-                String item = getItemAt(middleIndex);
+                String item = itemKeys == null ? getItemAt(state, middleIndex) : null;
+                CollationKey itemKey = itemKeys != null && middleIndex < itemKeys.length
+                        ? itemKeys[middleIndex] : null;
                 int areEquivalent;
-                if (item != null && !item.isEmpty()) {
+                if (itemKey != null || (item != null && !item.isEmpty())) {
                     if (indexChar == 9733 || indexChar == SYMBOL_CHAR || indexChar == GROUP_CHECKER) {
                         areEquivalent = 1;
-                    }else{
-                        areEquivalent = compare(item, searchKey);
+                    } else if (itemKey != null) {
+                        areEquivalent = itemKey.compareTo(searchCollationKey);
+                    } else {
+                        areEquivalent = state.mCollator.compare(item, searchKey);
                     }
 
                     adjustBounds: {
@@ -412,14 +710,19 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
     @Override
     public void onChanged() {
         super.onChanged();
+        // Computations in flight work on the previous data
+        mGeneration.incrementAndGet();
         mAlphaMap.clear();
+        mItemKeysInvalid = true;
         mDataSetObservable.notifyChanged();
     }
 
     @Override
     public void onInvalidated() {
         super.onInvalidated();
+        mGeneration.incrementAndGet();
         mAlphaMap.clear();
+        mItemKeysInvalid = true;
         mDataSetObservable.notifyInvalidated();
     }
 
@@ -446,4 +749,37 @@ public abstract class SeslAbsIndexer extends DataSetObserver {
 
     void onEndTransaction() {
     }
+
+    /**
+     * Inputs of a single index computation, captured on the main thread. {@link #mItems} is
+     * {@code null} when items are read through {@link #getItemAt(int)} on the main thread, or
+     * until the index worker loads them.
+     */
+    private final class IndexState {
+        String[] mItems;
+        final int mItemCount;
+        final CharSequence mAlphabet;
+        final int mProfileItemCount;
+        final int mFavoriteItemCount;
+        final int mGroupItemCount;
+        final int mDigitItemCount;
+        final Collator mCollator;
+        final SparseIntArray mAlphaMap;
+        final int mGeneration;
+        CollationKey[] mItemKeys;
+
+        IndexState(String[] items, int itemCount, Collator collator, SparseIntArray alphaMap,
+                int generation) {
+            mItems = items;
+            mItemCount = itemCount;
+            mAlphabet = SeslAbsIndexer.this.mAlphabet;
+            mProfileItemCount = SeslAbsIndexer.this.mProfileItemCount;
+            mFavoriteItemCount = SeslAbsIndexer.this.mFavoriteItemCount;
+            mGroupItemCount = SeslAbsIndexer.this.mGroupItemCount;
+            mDigitItemCount = SeslAbsIndexer.this.mDigitItemCount;
+            mCollator = collator;
+            mAlphaMap = alphaMap;
+            mGeneration = generation;
+        }
+    }
 }
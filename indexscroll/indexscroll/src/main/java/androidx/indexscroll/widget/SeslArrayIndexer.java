@@ -51,6 +51,12 @@ public class SeslArrayIndexer extends SeslAbsIndexer {
         return mData.get(pos);
     }
 
+    @Override
+    @RestrictTo(LIBRARY_GROUP_PREFIX)
+    String[] snapshotItems() {
+        return mData.toArray(new String[0]);
+    }
+
     @Override
     @RestrictTo(LIBRARY_GROUP_PREFIX)
     protected Bundle getBundle() {
@@ -62,4 +68,17 @@ public class SeslArrayIndexer extends SeslAbsIndexer {
     protected boolean isDataToBeIndexedAvailable() {
         return getItemCount() > 0;
     }
+
+    /**
+     * Enables an index of precomputed collation keys that is built once per data change and
+     * used to answer every section lookup.
+     *
+     * <p>It only takes effect with
+     * {@link SeslIndexScrollView#setAsyncIndexingEnabled(boolean) asynchronous indexing}, which
+     * builds the keys on the index worker. A synchronous index is computed once per data change
+     * with a binary search over the items, which the keys would not speed up.
+     */
+    public void setUseCollationKeyIndex(boolean useCollationKeyIndex) {
+        setCollationKeyIndexEnabled(useCollationKeyIndex);
+    }
 }
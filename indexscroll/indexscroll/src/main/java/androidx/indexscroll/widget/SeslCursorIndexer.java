@@ -22,8 +22,11 @@ import android.database.Cursor;
 import android.os.Bundle;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
+import java.util.concurrent.Callable;
+
 /*
  * Original code by Samsung, all rights reserved to the original author.
  */
@@ -40,6 +43,8 @@ public class SeslCursorIndexer extends SeslAbsIndexer {
     protected int mColumnIndex;
     protected int mSavedCursorPos;
 
+    private Callable<Cursor> mItemsLoader;
+
     public SeslCursorIndexer(Cursor cursor, int sortedColumnIndex,
                              CharSequence indexCharacters) {
         super(indexCharacters);
@@ -133,4 +138,59 @@ public class SeslCursorIndexer extends SeslAbsIndexer {
     public void setMiscItemsCount(int count) {
         setDigitItem(count);
     }
+
+    /**
+     * Enables an index of precomputed collation keys that is built once per data change and
+     * used to answer every section lookup. Recommended for cursors with many rows, where the
+     * binary search would otherwise move the cursor and collate a string for every probe.
+     * The keys are built on the index worker from the rows read by the
+     * {@link #setItemsLoader(Callable) loader}, so they are only used when one is set.
+     *
+     * <p>It only takes effect with
+     * {@link SeslIndexScrollView#setAsyncIndexingEnabled(boolean) asynchronous indexing}. A
+     * synchronous index is computed once per data change with a binary search over the rows,
+     * which the keys would not speed up.
+     */
+    public void setUseCollationKeyIndex(boolean useCollationKeyIndex) {
+        setCollationKeyIndexEnabled(useCollationKeyIndex);
+    }
+
+    /**
+     * Sets a loader the index worker calls to read the indexed column without touching the
+     * cursor the adapter is using, e.g. by querying the same rows again. It must return a new
+     * cursor with the same rows in the same order, with the indexed column at the same index.
+     * The indexer closes it.
+     *
+     * <p>Without a loader, the index is computed on the main thread with a binary search that
+     * only reads a few rows per index character.
+     */
+    public void setItemsLoader(@Nullable Callable<Cursor> itemsLoader) {
+        mItemsLoader = itemsLoader;
+    }
+
+    @Override
+    @Nullable
+    @RestrictTo(LIBRARY_GROUP_PREFIX)
+    Callable<String[]> getItemsLoader() {
+        final Callable<Cursor> itemsLoader = mItemsLoader;
+        if (itemsLoader == null) {
+            return null;
+        }
+        final int columnIndex = mColumnIndex;
+        return () -> {
+            final Cursor cursor = itemsLoader.call();
+            if (cursor == null) {
+                return null;
+            }
+            try {
+                final String[] items = new String[cursor.getCount()];
+                for (int i = 0; i < items.length && cursor.moveToPosition(i); i++) {
+                    items[i] = cursor.getString(columnIndex);
+                }
+                return items;
+            } finally {
+                cursor.close();
+            }
+        };
+    }
 }
@@ -106,6 +106,10 @@ public class SeslIndexScrollView extends FrameLayout {
     private boolean mHasOverlayChild = false;
     private boolean mIsSimpleIndexScroll = false;
     private boolean mRegisteredDataSetObserver = false;
+    private boolean mAsyncIndexingEnabled = false;
+    // True from the moment an asynchronous index update is requested until it is published, so
+    // an update cancelled by a detach is started again on attach
+    private boolean mIndexUpdatePending = false;
 
     boolean mNeedToHandleA11yEvent = false;
     int mA11yTargetIndex = -1;
@@ -114,6 +118,15 @@ public class SeslIndexScrollView extends FrameLayout {
     long mStartTouchDown = 0;
     float mTouchY = OUT_OF_BOUNDARY;
 
+    final Runnable mIndexUpdatedRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mIndexUpdatePending = false;
+            mTouchHelper.invalidateRoot();
+            invalidate();
+        }
+    };
+
     final Runnable mPreviewDelayRunnable = new Runnable() {
         @Override
         public void run() {
@@ -245,9 +258,12 @@ public class SeslIndexScrollView extends FrameLayout {
     }
 
     private void setAbsIndexer(SeslAbsIndexer indexer) {
-        if (mIndexer != null && mRegisteredDataSetObserver) {
-            mRegisteredDataSetObserver = false;
-            mIndexer.unregisterDataSetObserver(mIndexerObserver);
+        if (mIndexer != null) {
+            mIndexer.cancelIndexing();
+            if (mRegisteredDataSetObserver) {
+                mRegisteredDataSetObserver = false;
+                mIndexer.unregisterDataSetObserver(mIndexerObserver);
+            }
         }
 
         mIsSimpleIndexScroll = false;
@@ -261,10 +277,41 @@ public class SeslIndexScrollView extends FrameLayout {
                     .setColorFilter(mIndexScroll.mThumbColor, PorterDuff.Mode.MULTIPLY);
         }
 
-        mIndexer.cacheIndexInfo();
+        if (mAsyncIndexingEnabled) {
+            mIndexUpdatePending = true;
+            mIndexer.cacheIndexInfoAsync(mIndexUpdatedRunnable);
+        } else {
+            mIndexer.cacheIndexInfo();
+        }
         mIndexScroll.setAlphabetArray(mIndexer.getAlphabetArray());
     }
 
+    /**
+     * Sets whether the index of the attached indexer is built on a background thread.
+     *
+     * <p>When enabled, the index is computed on a worker thread from a copy of the items of a
+     * {@link SeslArrayIndexer}, or from the items read by the
+     * {@link SeslCursorIndexer#setItemsLoader loader} of a {@link SeslCursorIndexer}, and swapped
+     * in on the main thread once complete. It is rebuilt the same way whenever the indexer
+     * reports a data change. A cursor indexer without a loader is indexed on the main thread. A
+     * computation that is still running when newer data arrives, or when this view is detached,
+     * is cancelled, and one cancelled by a detach is started again once this view is attached.
+     * Until the first index is published the index bar keeps the previous positions.
+     */
+    public void setAsyncIndexingEnabled(boolean enabled) {
+        mAsyncIndexingEnabled = enabled;
+        if (!enabled) {
+            mIndexUpdatePending = false;
+            if (mIndexer != null) {
+                mIndexer.cancelIndexing();
+            }
+        }
+    }
+
+    public boolean isAsyncIndexingEnabled() {
+        return mAsyncIndexingEnabled;
+    }
+
     public void setSimpleIndexScroll(String[] indexBarChar, int width) {
         if (indexBarChar != null) {
             mIsSimpleIndexScroll = true;
@@ -363,6 +410,11 @@ public class SeslIndexScrollView extends FrameLayout {
             mIndexer.unregisterDataSetObserver(mIndexerObserver);
         }
 
+        if (mIndexer != null) {
+            mIndexer.cancelIndexing();
+        }
+        removeCallbacks(mIndexerObserver.mUpdateIndex);
+
         if (mPreviewDelayRunnable != null) {
             removeCallbacks(mPreviewDelayRunnable);
         }
@@ -380,6 +432,12 @@ public class SeslIndexScrollView extends FrameLayout {
             mRegisteredDataSetObserver = true;
             mIndexer.registerDataSetObserver(mIndexerObserver);
         }
+
+        // Restart the update cancelled when this view was detached
+        if (mIndexUpdatePending && mAsyncIndexingEnabled && mIndexer != null) {
+            mIndexerObserver.mDataInvalid = false;
+            mIndexer.cacheIndexInfoAsync(mIndexUpdatedRunnable);
+        }
     }
 
     public void setIndexBarBackgroundDrawable(Drawable bgDrawable) {
@@ -644,11 +702,20 @@ public class SeslIndexScrollView extends FrameLayout {
 
         private void notifyDataSetChange() {
             this.mDataInvalid = true;
+            if (mAsyncIndexingEnabled && mIndexer != null) {
+                mIndexUpdatePending = true;
+                mIndexer.cancelIndexing();
+            }
             removeCallbacks(mUpdateIndex);
             postDelayed(mUpdateIndex, INDEX_UPDATE_DELAY);
         }
 
-        Runnable mUpdateIndex = () -> mDataInvalid = false;
+        Runnable mUpdateIndex = () -> {
+            mDataInvalid = false;
+            if (mAsyncIndexingEnabled && mIndexer != null) {
+                mIndexer.cacheIndexInfoAsync(mIndexUpdatedRunnable);
+            }
+        };
     }
 
     class IndexScroll {
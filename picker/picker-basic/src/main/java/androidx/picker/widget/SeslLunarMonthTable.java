@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.picker.widget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.reflect.lunarcalendar.SeslSolarLunarConverterReflector;
+
+import java.util.Calendar;
+
+import dalvik.system.PathClassLoader;
+
+/**
+ * Process-wide table of converted lunar months shared by {@link SeslDatePicker},
+ * {@link SeslSpinningDatePicker} and {@link SeslSimpleMonthView}.
+ *
+ * <p>A lunar month is converted in one pass the first time it is requested: its length, the
+ * weekday of its first day and the solar date of every day are computed with a handful of
+ * reflective calls and kept in a small LRU keyed by (year, month, leap). Swiping back and forth
+ * through calendar pages then answers every query from memory without reflection or allocation.
+ */
+final class SeslLunarMonthTable {
+    private static final int MAX_CACHED_MONTHS = 24;
+    private static final int MAX_DAYS_IN_LUNAR_MONTH = 30;
+    private static final int NO_KEY = -1;
+
+    private static final SeslLunarMonthTable sInstance = new SeslLunarMonthTable();
+
+    private final int[] mKeys = new int[MAX_CACHED_MONTHS];
+    private final long[] mLastAccess = new long[MAX_CACHED_MONTHS];
+    private final Month[] mMonths = new Month[MAX_CACHED_MONTHS];
+    private long mAccessCount;
+
+    private SeslLunarMonthTable() {
+        for (int i = 0; i < MAX_CACHED_MONTHS; i++) {
+            mKeys[i] = NO_KEY;
+        }
+    }
+
+    @NonNull
+    static SeslLunarMonthTable getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Returns the converted lunar month, converting it first if it is not cached, or
+     * {@code null} if {@code solarLunarConverter} is not available.
+     */
+    @Nullable
+    synchronized Month getMonth(@Nullable PathClassLoader pathClassLoader,
+            @Nullable Object solarLunarConverter, int year, int month, boolean isLeapMonth) {
+        if (solarLunarConverter == null) {
+            return null;
+        }
+
+        final int key = keyOf(year, month, isLeapMonth);
+        int slot = -1;
+        for (int i = 0; i < MAX_CACHED_MONTHS; i++) {
+            if (mKeys[i] == key) {
+                mLastAccess[i] = ++mAccessCount;
+                return mMonths[i];
+            }
+            if (slot == -1 || mLastAccess[i] < mLastAccess[slot]) {
+                slot = i;
+            }
+        }
+
+        final Month converted = convertMonth(pathClassLoader, solarLunarConverter,
+                year, month, isLeapMonth);
+        mKeys[slot] = key;
+        mMonths[slot] = converted;
+        mLastAccess[slot] = ++mAccessCount;
+        return converted;
+    }
+
+    /**
+     * Returns the number of days in the lunar month, or {@code defaultLength} if
+     * {@code solarLunarConverter} is not available.
+     */
+    int getDayLength(@Nullable PathClassLoader pathClassLoader,
+            @Nullable Object solarLunarConverter, int year, int month, boolean isLeapMonth,
+            int defaultLength) {
+        final Month lunarMonth = getMonth(pathClassLoader, solarLunarConverter,
+                year, month, isLeapMonth);
+        return lunarMonth != null ? lunarMonth.getDayLength() : defaultLength;
+    }
+
+    /**
+     * Sets {@code outCalendar} to the solar date of the given lunar date. Returns {@code false}
+     * and leaves {@code outCalendar} untouched if the date is not covered by the table.
+     */
+    boolean setSolarDate(@Nullable PathClassLoader pathClassLoader,
+            @Nullable Object solarLunarConverter, int year, int month, int day,
+            boolean isLeapMonth, @NonNull Calendar outCalendar) {
+        final Month lunarMonth = getMonth(pathClassLoader, solarLunarConverter,
+                year, month, isLeapMonth);
+        if (lunarMonth == null || day < 1 || day > lunarMonth.getDayLength()) {
+            return false;
+        }
+
+        outCalendar.set(lunarMonth.getSolarYear(day), lunarMonth.getSolarMonth(day),
+                lunarMonth.getSolarDay(day));
+        return true;
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < MAX_CACHED_MONTHS; i++) {
+            mKeys[i] = NO_KEY;
+            mMonths[i] = null;
+            mLastAccess[i] = 0;
+        }
+    }
+
+    private static int keyOf(int year, int month, boolean isLeapMonth) {
+        return (year << 5) | (month << 1) | (isLeapMonth ? 1 : 0);
+    }
+
+    @NonNull
+    private static Month convertMonth(@Nullable PathClassLoader pathClassLoader,
+            @NonNull Object solarLunarConverter, int year, int month, boolean isLeapMonth) {
+        final int dayLength = Math.max(0, Math.min(MAX_DAYS_IN_LUNAR_MONTH,
+                SeslSolarLunarConverterReflector.getDayLengthOf(pathClassLoader,
+                        solarLunarConverter, year, month, isLeapMonth)));
+
+        SeslSolarLunarConverterReflector.convertLunarToSolar(pathClassLoader,
+                solarLunarConverter, year, month, 1, isLeapMonth);
+        int solarYear = SeslSolarLunarConverterReflector
+                .getYear(pathClassLoader, solarLunarConverter);
+        int solarMonth = SeslSolarLunarConverterReflector
+                .getMonth(pathClassLoader, solarLunarConverter);
+        int solarDay = SeslSolarLunarConverterReflector
+                .getDay(pathClassLoader, solarLunarConverter);
+        final int weekday = SeslSolarLunarConverterReflector.getWeekday(pathClassLoader,
+                solarLunarConverter, solarYear, solarMonth, solarDay);
+
+        final Month lunarMonth = new Month(dayLength, weekday);
+        for (int i = 0; i < dayLength; i++) {
+            lunarMonth.mSolarYears[i] = solarYear;
+            lunarMonth.mSolarMonths[i] = solarMonth;
+            lunarMonth.mSolarDays[i] = solarDay;
+
+            if (++solarDay > getDaysInSolarMonth(solarYear, solarMonth)) {
+                solarDay = 1;
+                if (++solarMonth > Calendar.DECEMBER) {
+                    solarMonth = Calendar.JANUARY;
+                    solarYear++;
+                }
+            }
+        }
+        return lunarMonth;
+    }
+
+    private static int getDaysInSolarMonth(int year, int month) {
+        switch (month) {
+            case Calendar.APRIL:
+            case Calendar.JUNE:
+            case Calendar.SEPTEMBER:
+            case Calendar.NOVEMBER:
+                return 30;
+            case Calendar.FEBRUARY:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Immutable conversion result for a single lunar month. Days are 1-based.
+     */
+    static final class Month {
+        private final int mDayLength;
+        private final int mWeekdayOfFirstDay;
+        final int[] mSolarYears;
+        final int[] mSolarMonths;
+        final int[] mSolarDays;
+
+        Month(int dayLength, int weekdayOfFirstDay) {
+            mDayLength = dayLength;
+            mWeekdayOfFirstDay = weekdayOfFirstDay;
+            mSolarYears = new int[dayLength];
+            mSolarMonths = new int[dayLength];
+            mSolarDays = new int[dayLength];
+        }
+
+        int getDayLength() {
+            return mDayLength;
+        }
+
+        /**
+         * Returns the weekday of the first day as reported by the converter, which is
+         * zero-based from {@link Calendar#SUNDAY}.
+         */
+        int getWeekdayOfFirstDay() {
+            return mWeekdayOfFirstDay;
+        }
+
+        int getSolarYear(int day) {
+            return mSolarYears[day - 1];
+        }
+
+        int getSolarMonth(int day) {
+            return mSolarMonths[day - 1];
+        }
+
+        int getSolarDay(int day) {
+            return mSolarDays[day - 1];
+        }
+    }
+}
@@ -82,10 +82,15 @@ public class SeslSimpleMonthView extends View {
 
     private static final int MAX_MONTH_VIEW_ID = 42;
 
+    private static final int MAX_DAY_NUMBER = 31;
+
     private static final int MIN_HEIGHT = 10;
     private static final int YEAR_WEIGHT = 10000;
     private static final int MONTH_WEIGHT = 100;
 
+    private static Locale sDayNumberLocale;
+    private static String[] sDayNumberStrings;
+
     private Paint mAbnormalSelectedDayPaint;
     private final Calendar mCalendar = Calendar.getInstance();
     Context mContext;
@@ -99,6 +104,9 @@ public class SeslSimpleMonthView extends View {
     PathClassLoader mPathClassLoader = null;
     Object mSolarLunarConverter;
     private Calendar mTempDate = Calendar.getInstance();
+    private final Calendar mDrawCalendar = Calendar.getInstance();
+    private final Calendar mTouchCalendar = Calendar.getInstance();
+    private final SeslLunarMonthTable mLunarMonthTable = SeslLunarMonthTable.getInstance();
     private final MonthViewTouchHelper mTouchHelper;
     int mWeekHeight;
     private int mWeekStart = DEFAULT_WEEK_START;
@@ -291,7 +299,7 @@ public class SeslSimpleMonthView extends View {
                                 nextMonth, day - mNumCells,
                                 false);
                     } else {
-                        Calendar calendar = Calendar.getInstance();
+                        final Calendar calendar = mTouchCalendar;
                         calendar.clear();
                         calendar.set(mYear, mMonth, mNumCells);
                         calendar.add(Calendar.DAY_OF_MONTH, day - mNumCells);
@@ -314,7 +322,7 @@ public class SeslSimpleMonthView extends View {
                             getDaysInMonthLunar(prevMonth, prevYear, mIsPrevMonthLeap) + day,
                             true);
                 } else {
-                    Calendar calendar = Calendar.getInstance();
+                    final Calendar calendar = mTouchCalendar;
                     calendar.clear();
                     calendar.set(mYear, mMonth, 1);
                     calendar.add(Calendar.DAY_OF_MONTH, day - 1);
@@ -382,20 +390,11 @@ public class SeslSimpleMonthView extends View {
         mMaxDate = maxDate;
 
         if (mIsLunar) {
-            if (mSolarLunarConverter != null) {
-                SeslSolarLunarConverterReflector
-                        .convertLunarToSolar(mPathClassLoader,
-                                mSolarLunarConverter, mYear, mMonth, 1, mIsLeapMonth);
-                final int lunarYear = SeslSolarLunarConverterReflector
-                        .getYear(mPathClassLoader, mSolarLunarConverter);
-                final int lunarMonth = SeslSolarLunarConverterReflector.
-                        getMonth(mPathClassLoader, mSolarLunarConverter);
-                final int lunarDay = SeslSolarLunarConverterReflector
-                        .getDay(mPathClassLoader, mSolarLunarConverter);
-                mDayOfWeekStart = SeslSolarLunarConverterReflector
-                        .getWeekday(mPathClassLoader, mSolarLunarConverter, lunarYear,
-                                lunarMonth, lunarDay) + 1;
-                mNumCells = getDaysInMonthLunar(mMonth, mYear, mIsLeapMonth);
+            final SeslLunarMonthTable.Month lunarMonth = mLunarMonthTable.getMonth(
+                    mPathClassLoader, mSolarLunarConverter, mYear, mMonth, mIsLeapMonth);
+            if (lunarMonth != null) {
+                mDayOfWeekStart = lunarMonth.getWeekdayOfFirstDay() + 1;
+                mNumCells = lunarMonth.getDayLength();
             }
         } else {
             mDayOfWeekStart = mCalendar.get(Calendar.DAY_OF_WEEK);
@@ -438,8 +437,8 @@ public class SeslSimpleMonthView extends View {
     int getDaysInMonthLunar(int month, int year, boolean isLeapMonth) {
         final int solarDay = getDaysInMonth(month, year);
         if (mSolarLunarConverter != null) {
-            return SeslSolarLunarConverterReflector
-                    .getDayLengthOf(mPathClassLoader, mSolarLunarConverter, year, month, isLeapMonth);
+            return mLunarMonthTable.getDayLength(mPathClassLoader, mSolarLunarConverter,
+                    year, month, isLeapMonth, solarDay);
         } else  {
             Log.e(TAG, "getDaysInMonthLunar, mSolarLunarConverter is null");
             return solarDay;
@@ -757,7 +756,7 @@ public class SeslSimpleMonthView extends View {
                 var26.setColor(this.mSelectedDayNumberTextColor);
             }
 
-            var1.drawText(String.format("%d", var2), (float)var24, (float)var11, var26);
+            var1.drawText(getDayNumberString(var2), (float)var24, (float)var11, var26);
             ++var16;
 
             if (var16 == this.mNumDays) {
@@ -848,7 +847,7 @@ public class SeslSimpleMonthView extends View {
                     var26.setColor(this.mSelectedDayNumberTextColor);
                 }
 
-                var1.drawText(String.format("%d", var2), (float)var31, (float)var16, var26);
+                var1.drawText(getDayNumberString(var2), (float)var31, (float)var16, var26);
                 var31 = var32 + 1;
                 if (var31 == this.mNumDays) {
                     var16 += this.mWeekHeight;
@@ -862,7 +861,7 @@ public class SeslSimpleMonthView extends View {
         }
 
         if (var4 > 0 && !this.mIsFirstMonth) {
-            Calendar var35 = Calendar.getInstance();
+            Calendar var35 = this.mDrawCalendar;
             var35.clear();
             var35.set(this.mYear, this.mMonth, 1);
             var35.add(5, -var4);
@@ -934,9 +933,6 @@ public class SeslSimpleMonthView extends View {
 
                     this.mTempDate.clear();
                     this.mTempDate.set(var2, var18, var17);
-                    var35 = Calendar.getInstance();
-                    var35.clear();
-                    var35.set(this.mMinDate.get(1), this.mMinDate.get(2), this.mMinDate.get(5));
                     if (this.mTempDate.before(this.mMinDate)) {
                         this.mDayNumberPaint.setAlpha(this.mDayNumberDisabledAlpha);
                     }
@@ -956,7 +952,7 @@ public class SeslSimpleMonthView extends View {
                     var26.setColor(this.mSelectedDayNumberTextColor);
                 }
 
-                var1.drawText(String.format("%d", var17), (float)var9, (float)var8, var26);
+                var1.drawText(getDayNumberString(var17), (float)var9, (float)var8, var26);
                 ++var17;
             }
         }
@@ -964,6 +960,28 @@ public class SeslSimpleMonthView extends View {
     }
     // kang
 
+    /**
+     * Returns the localized string for {@code day}. Strings for 1..31 are built once per default
+     * locale (including non-Latin digits) so that drawing a month does not allocate.
+     */
+    private static String getDayNumberString(int day) {
+        final Locale locale = Locale.getDefault();
+        String[] dayNumbers = sDayNumberStrings;
+        if (dayNumbers == null || !locale.equals(sDayNumberLocale)) {
+            dayNumbers = new String[MAX_DAY_NUMBER + 1];
+            for (int i = 1; i <= MAX_DAY_NUMBER; i++) {
+                dayNumbers[i] = String.format(locale, "%d", i);
+            }
+            sDayNumberStrings = dayNumbers;
+            sDayNumberLocale = locale;
+        }
+
+        if (day < 1 || day > MAX_DAY_NUMBER) {
+            return String.format(locale, "%d", day);
+        }
+        return dayNumbers[day];
+    }
+
     private boolean isPrevMonthStartMonth() {
         if (mIsLunar) {
             float month = mMonth;
@@ -1069,7 +1087,7 @@ public class SeslSimpleMonthView extends View {
             mTempDate.clear();
             mTempDate.set(year, month, day);
             if (isPrevMonth) {
-                Calendar minDate = Calendar.getInstance();
+                final Calendar minDate = mTouchCalendar;
                 minDate.clear();
                 minDate.set(mMinDate.get(Calendar.YEAR),
                         mMinDate.get(Calendar.MONTH),
@@ -1096,6 +1114,7 @@ public class SeslSimpleMonthView extends View {
     private class MonthViewTouchHelper extends ExploreByTouchHelper {
         private final Rect mTempRect = new Rect();
         private final Calendar mTempCalendar = Calendar.getInstance();
+        private final Calendar mLunarCalendar = Calendar.getInstance();
 
         public MonthViewTouchHelper(View host) {
             super(host);
@@ -1193,7 +1212,7 @@ public class SeslSimpleMonthView extends View {
                         onDeactivatedDayClick(mYear, month, prevMonthLastDay + virtualViewId, true);
                     }
                 } else {
-                    Calendar calendar = Calendar.getInstance();
+                    final Calendar calendar = mTouchCalendar;
                     calendar.clear();
                     calendar.set(mYear, mMonth, 1);
                     calendar.add(Calendar.DAY_OF_MONTH, virtualViewId - 1);
@@ -1212,7 +1231,7 @@ public class SeslSimpleMonthView extends View {
                     onDeactivatedDayClick(mYear, month, virtualViewId - mNumCells, false);
                 }
             } else {
-                Calendar calendar = Calendar.getInstance();
+                final Calendar calendar = mTouchCalendar;
                 calendar.clear();
                 calendar.set(mYear, mMonth, mNumCells);
                 calendar.add(Calendar.DAY_OF_MONTH, virtualViewId - mNumCells);
@@ -1271,17 +1290,18 @@ public class SeslSimpleMonthView extends View {
                 day -= mNumCells;
             }
 
-            SeslSolarLunarConverterReflector.convertLunarToSolar(mPathClassLoader,
-                    mSolarLunarConverter, year, month, day, isLeapMonth);
-            final int lunarYear = SeslSolarLunarConverterReflector
-                    .getYear(mPathClassLoader, mSolarLunarConverter);
-            final int lunarMonth = SeslSolarLunarConverterReflector
-                    .getMonth(mPathClassLoader, mSolarLunarConverter);
-            final int lunarDay = SeslSolarLunarConverterReflector
-                    .getDay(mPathClassLoader, mSolarLunarConverter);
-
-            Calendar calendar = Calendar.getInstance();
-            calendar.set(lunarYear, lunarMonth, lunarDay);
+            final Calendar calendar = mLunarCalendar;
+            if (!mLunarMonthTable.setSolarDate(mPathClassLoader, mSolarLunarConverter,
+                    year, month, day, isLeapMonth, calendar)) {
+                SeslSolarLunarConverterReflector.convertLunarToSolar(mPathClassLoader,
+                        mSolarLunarConverter, year, month, day, isLeapMonth);
+                calendar.set(SeslSolarLunarConverterReflector
+                                .getYear(mPathClassLoader, mSolarLunarConverter),
+                        SeslSolarLunarConverterReflector
+                                .getMonth(mPathClassLoader, mSolarLunarConverter),
+                        SeslSolarLunarConverterReflector
+                                .getDay(mPathClassLoader, mSolarLunarConverter));
+            }
 
             return SeslLunarDateUtilsReflector
                     .buildLunarDateString(mPathClassLoader, calendar, getContext());
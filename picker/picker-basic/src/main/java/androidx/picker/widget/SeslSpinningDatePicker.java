@@ -891,13 +891,17 @@ public class SeslSpinningDatePicker extends LinearLayout
     private Calendar convertLunarToSolar(Calendar calendar, int year, int monthOfYear,
             int dayOfMonth) {
         Calendar newCalendar = (Calendar) calendar.clone();
-        SeslSolarLunarConverterReflector
-                .convertLunarToSolar(mPathClassLoader, mSolarLunarConverter, year, monthOfYear,
-                        dayOfMonth, mIsLeapMonth);
-        newCalendar.set(SeslSolarLunarConverterReflector.getYear(mPathClassLoader,
-                        mSolarLunarConverter),
-                SeslSolarLunarConverterReflector.getMonth(mPathClassLoader, mSolarLunarConverter),
-                SeslSolarLunarConverterReflector.getDay(mPathClassLoader, mSolarLunarConverter));
+        if (!SeslLunarMonthTable.getInstance().setSolarDate(mPathClassLoader,
+                mSolarLunarConverter, year, monthOfYear, dayOfMonth, mIsLeapMonth,
+                newCalendar)) {
+            SeslSolarLunarConverterReflector
+                    .convertLunarToSolar(mPathClassLoader, mSolarLunarConverter, year, monthOfYear,
+                            dayOfMonth, mIsLeapMonth);
+            newCalendar.set(SeslSolarLunarConverterReflector.getYear(mPathClassLoader,
+                            mSolarLunarConverter),
+                    SeslSolarLunarConverterReflector.getMonth(mPathClassLoader, mSolarLunarConverter),
+                    SeslSolarLunarConverterReflector.getDay(mPathClassLoader, mSolarLunarConverter));
+        }
         return newCalendar;
     }
 
@@ -1020,7 +1020,11 @@ public class Preference implements Comparable<Preference> {
      * @param key The key for the preference
      */
     public void setKey(String key) {
+        final String oldKey = mKey;
         mKey = key;
+        if (mParentGroup != null && !TextUtils.equals(oldKey, key)) {
+            mParentGroup.onDescendantKeyChanged(this, oldKey);
+        }
 
         if (mRequiresKey && !hasKey()) {
             requireKey();
@@ -1397,7 +1401,10 @@ public class Preference implements Comparable<Preference> {
             mId = preferenceManager.getNextId();
         }
 
-        dispatchSetInitialValue();
+        // The initial value is set once the hierarchy is attached to the manager that owns it
+        if (!preferenceManager.isInflationOnly()) {
+            dispatchSetInitialValue();
+        }
     }
 
     /**
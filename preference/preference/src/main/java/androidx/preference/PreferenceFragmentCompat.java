@@ -52,6 +52,8 @@ import androidx.fragment.app.FragmentManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.concurrent.Executor;
+
 /**
  * <p><b>SESL variant</b></p><br>
  *
@@ -127,6 +129,20 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
     RecyclerView mList;
     private boolean mHavePrefs;
     private boolean mInitDone;
+    /**
+     * Incremented whenever the preference hierarchy is set, so the result of an asynchronous
+     * inflation started before is dropped.
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    int mInflateGeneration;
+    private boolean mInflating;
+    /**
+     * Saved state of the preference hierarchy, kept until the asynchronous inflation it is
+     * meant for sets the hierarchy.
+     */
+    @Nullable
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    Bundle mPendingHierarchyState;
     private int mLayoutResId = R.layout.preference_list_fragment;
     private Runnable mSelectPreferenceRunnable;
     private final Handler mHandler = new Handler(Looper.getMainLooper()) {
@@ -347,6 +363,8 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
                 final PreferenceScreen preferenceScreen = getPreferenceScreen();
                 if (preferenceScreen != null) {
                     preferenceScreen.restoreHierarchyState(container);
+                } else if (mInflating) {
+                    mPendingHierarchyState = container;
                 }
             }
         }
@@ -369,6 +387,15 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
         mPreferenceManager.setOnDisplayPreferenceDialogListener(this);
     }
 
+    @Override
+    public void onPause() {
+        super.onPause();
+        final PreferenceDataStore dataStore = mPreferenceManager.getPreferenceDataStore();
+        if (dataStore instanceof SeslBatchingPreferenceDataStore) {
+            ((SeslBatchingPreferenceDataStore) dataStore).flush();
+        }
+    }
+
     @Override
     public void onStop() {
         super.onStop();
@@ -401,6 +428,8 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
             Bundle container = new Bundle();
             preferenceScreen.saveHierarchyState(container);
             outState.putBundle(PREFERENCES_TAG, container);
+        } else if (mPendingHierarchyState != null) {
+            outState.putBundle(PREFERENCES_TAG, mPendingHierarchyState);
         }
     }
 
@@ -434,6 +463,9 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
      */
     public void setPreferenceScreen(
             @SuppressLint("UnknownNullness") PreferenceScreen preferenceScreen) {
+        mInflateGeneration++;
+        mInflating = false;
+        mPendingHierarchyState = null;
         if (preferenceScreen != null && mPreferenceManager.setPreferences(preferenceScreen)) {
             onUnbindPreferences();
             mHavePrefs = true;
@@ -468,7 +500,76 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
     public void setPreferencesFromResource(@XmlRes int preferencesResId, @Nullable String key) {
         requirePreferenceManager();
 
-        final PreferenceScreen xmlRoot = mPreferenceManager.inflateFromResource(requireContext(),
+        setPreferenceScreen(inflatePreferenceScreen(mPreferenceManager, requireContext(),
+                preferencesResId, key));
+    }
+
+    /**
+     * Inflates the given XML resource on {@code executor} and replaces the current preference
+     * hierarchy (if any) with the preference hierarchy rooted at {@code key} on the main thread,
+     * so the inflation does not hold up the main thread while the fragment is created.
+     *
+     * <p>The preferences in the XML must be constructible off the main thread. The executor only
+     * constructs them: they read their initial values, persist their default values and are
+     * bound to the list on the main thread once the hierarchy is set, so the inflation does not
+     * touch the storage of the {@link PreferenceManager}. Until then
+     * {@link #getPreferenceScreen()} returns {@code null}. The result is dropped if the hierarchy
+     * is set again before the inflation finishes.
+     *
+     * @param preferencesResId The XML resource ID to inflate
+     * @param key              The preference key of the {@link PreferenceScreen} to use as the
+     *                         root of the preference hierarchy, or {@code null} to use the root
+     *                         {@link PreferenceScreen}.
+     * @param executor         The executor that inflates the XML resource
+     */
+    public void setPreferencesFromResource(@XmlRes final int preferencesResId,
+            @Nullable final String key, @NonNull Executor executor) {
+        requirePreferenceManager();
+
+        final int generation = ++mInflateGeneration;
+        mInflating = true;
+        final Context context = requireContext();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                PreferenceScreen root = null;
+                RuntimeException error = null;
+                try {
+                    root = inflatePreferenceScreen(
+                            PreferenceManager.createInflationManager(context), context,
+                            preferencesResId, key);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+                final PreferenceScreen result = root;
+                final RuntimeException failure = error;
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mInflateGeneration) {
+                            return;
+                        }
+                        if (failure != null) {
+                            // Fail on the main thread, like an inflation on it would
+                            throw failure;
+                        }
+                        mPreferenceManager.attachInflatedHierarchy(result);
+                        final Bundle container = mPendingHierarchyState;
+                        if (container != null) {
+                            result.restoreHierarchyState(container);
+                        }
+                        setPreferenceScreen(result);
+                    }
+                });
+            }
+        });
+    }
+
+    @NonNull
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    static PreferenceScreen inflatePreferenceScreen(@NonNull PreferenceManager preferenceManager,
+            @NonNull Context context, @XmlRes int preferencesResId, @Nullable String key) {
+        final PreferenceScreen xmlRoot = preferenceManager.inflateFromResource(context,
                 preferencesResId, null);
 
         final Preference root;
@@ -481,8 +582,7 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
         } else {
             root = xmlRoot;
         }
-
-        setPreferenceScreen((PreferenceScreen) root);
+        return (PreferenceScreen) root;
     }
 
     /**
@@ -600,6 +700,9 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
     }
 
     private void postBindPreferences() {
+        // Without a list, e.g. when an asynchronous inflation finishes after onDestroyView(),
+        // the preferences are bound when the view is created again
+        if (mList == null) return;
         if (mHandler.hasMessages(MSG_BIND_PREFERENCES)) return;
         mHandler.obtainMessage(MSG_BIND_PREFERENCES).sendToTarget();
     }
@@ -799,10 +902,14 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
                         return;
                     }
                 }
+                // A key used by a single preference is resolved through the key index of the
+                // hierarchy, so the adapter can look the preference up by identity
+                final Preference target = preference != null ? preference
+                        : findUniquePreference(key);
                 final int position;
-                if (preference != null) {
+                if (target != null) {
                     position = ((PreferenceGroup.PreferencePositionCallback) adapter)
-                            .getPreferenceAdapterPosition(preference);
+                            .getPreferenceAdapterPosition(target);
                 } else {
                     position = ((PreferenceGroup.PreferencePositionCallback) adapter)
                             .getPreferenceAdapterPosition(key);
@@ -872,6 +979,15 @@ public abstract class PreferenceFragmentCompat extends Fragment implements
                 @NonNull Preference pref);
     }
 
+    @Nullable
+    private Preference findUniquePreference(@Nullable String key) {
+        final PreferenceScreen preferenceScreen = getPreferenceScreen();
+        if (key == null || preferenceScreen == null) {
+            return null;
+        }
+        return preferenceScreen.findUniquePreference(key);
+    }
+
     private static class ScrollToPreferenceObserver extends RecyclerView.AdapterDataObserver {
         private final RecyclerView.Adapter<?> mAdapter;
         private final RecyclerView mList;
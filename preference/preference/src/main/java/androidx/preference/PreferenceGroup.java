@@ -69,6 +69,12 @@ public abstract class PreferenceGroup extends Preference {
     private boolean mAttachedToHierarchy = false;
     private int mInitialExpandedChildrenCount = Integer.MAX_VALUE;
     private OnExpandButtonClickListener mOnExpandButtonClickListener = null;
+    /**
+     * Keys of every preference below this group, built on first use while this group is the
+     * root of its hierarchy and dropped when it is added to another group.
+     */
+    @Nullable
+    private PreferenceKeyIndex mKeyIndex;
 
     private final Runnable mClearRecycleCacheRunnable = new Runnable() {
         @Override
@@ -200,16 +206,13 @@ public abstract class PreferenceGroup extends Preference {
      * @return Whether the preference is now in this group
      */
     public boolean addPreference(@NonNull Preference preference) {
-        if (mPreferences.contains(preference)) {
+        if (preference.getParent() == this) {
             return true;
         }
         if (preference.getKey() != null) {
-            PreferenceGroup root = this;
-            while (root.getParent() != null) {
-                root = root.getParent();
-            }
+            final PreferenceGroup root = getRoot();
             final String key = preference.getKey();
-            if (root.findPreference(key) != null) {
+            if (TextUtils.equals(root.getKey(), key) || root.getKeyIndex().contains(key)) {
                 Log.e(TAG, "Found duplicated key: \"" + key
                         + "\". This can cause unintended behaviour,"
                         + " please use unique keys for every preference.");
@@ -241,6 +244,14 @@ public abstract class PreferenceGroup extends Preference {
             mPreferences.add(insertionIndex, preference);
         }
 
+        if (preference instanceof PreferenceGroup) {
+            ((PreferenceGroup) preference).mKeyIndex = null;
+        }
+        final PreferenceGroup root = getRoot();
+        if (root.mKeyIndex != null) {
+            root.mKeyIndex.addSubtree(preference);
+        }
+
         final PreferenceManager preferenceManager = getPreferenceManager();
         final String key = preference.getKey();
         final long id;
@@ -305,6 +316,11 @@ public abstract class PreferenceGroup extends Preference {
             }
             boolean success = mPreferences.remove(preference);
             if (success) {
+                final PreferenceGroup root = getRoot();
+                if (root.mKeyIndex != null) {
+                    root.mKeyIndex.removeSubtree(preference, root);
+                }
+
                 // If this preference, or another preference with the same key, gets re-added
                 // immediately, we want it to have the same id so that it can be correctly tracked
                 // in the adapter by RecyclerView, to make it appear as if it has only been
@@ -374,6 +390,13 @@ public abstract class PreferenceGroup extends Preference {
         if (TextUtils.equals(getKey(), key)) {
             return (T) this;
         }
+        final String keyString = key.toString();
+        final PreferenceKeyIndex keyIndex = getRoot().getKeyIndex();
+        if (!keyIndex.isDuplicated(keyString)) {
+            final Preference preference = keyIndex.get(keyString);
+            return preference != null && isAncestorOf(preference) ? (T) preference : null;
+        }
+        // Several preferences use the key, walk the hierarchy to find the first one
         final int preferenceCount = getPreferenceCount();
         for (int i = 0; i < preferenceCount; i++) {
             final Preference preference = getPreference(i);
@@ -393,6 +416,68 @@ public abstract class PreferenceGroup extends Preference {
         return null;
     }
 
+    /**
+     * Returns the only {@link Preference} of the hierarchy with the given key, or {@code null} if
+     * there is none or several preferences use it.
+     */
+    @Nullable
+    Preference findUniquePreference(@NonNull String key) {
+        final PreferenceGroup root = getRoot();
+        final PreferenceKeyIndex keyIndex = root.getKeyIndex();
+        if (TextUtils.equals(root.getKey(), key)) {
+            return keyIndex.contains(key) ? null : root;
+        }
+        return keyIndex.get(key);
+    }
+
+    /**
+     * Called by a {@link Preference} below this group after its key changed.
+     */
+    void onDescendantKeyChanged(@NonNull Preference preference, @Nullable String oldKey) {
+        final PreferenceGroup root = getRoot();
+        if (root.mKeyIndex != null) {
+            root.mKeyIndex.remove(oldKey, preference, root);
+            root.mKeyIndex.add(preference.getKey(), preference);
+        }
+    }
+
+    @NonNull
+    private PreferenceGroup getRoot() {
+        PreferenceGroup root = this;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return root;
+    }
+
+    /**
+     * Returns the key index of this group, building it if needed. Must only be called on the
+     * root of the hierarchy.
+     */
+    @NonNull
+    private PreferenceKeyIndex getKeyIndex() {
+        if (mKeyIndex == null) {
+            final PreferenceKeyIndex keyIndex = new PreferenceKeyIndex();
+            final int preferenceCount = getPreferenceCount();
+            for (int i = 0; i < preferenceCount; i++) {
+                keyIndex.addSubtree(getPreference(i));
+            }
+            mKeyIndex = keyIndex;
+        }
+        return mKeyIndex;
+    }
+
+    private boolean isAncestorOf(@NonNull Preference preference) {
+        PreferenceGroup parent = preference.getParent();
+        while (parent != null) {
+            if (parent == this) {
+                return true;
+            }
+            parent = parent.getParent();
+        }
+        return false;
+    }
+
     /**
      * Whether this preference group should be shown on the same screen as its contained
      * preferences.
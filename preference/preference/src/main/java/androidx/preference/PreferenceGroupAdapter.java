@@ -34,7 +34,10 @@ import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * <p><b>SESL variant</b></p><br>
@@ -84,10 +87,46 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
 
     /**
      * List of unique {@link PreferenceResourceDescriptor}s, used to cache item view types for
-     * {@link RecyclerView}.
+     * {@link RecyclerView}. The view type of a descriptor is its index in this list.
      */
     private final List<PreferenceResourceDescriptor> mPreferenceResourceDescriptors;
 
+    /**
+     * View type of each descriptor in {@link #mPreferenceResourceDescriptors}.
+     */
+    private final HashMap<PreferenceResourceDescriptor, Integer> mViewTypes = new HashMap<>();
+
+    /**
+     * Reused to look up the view type of a preference without allocating.
+     */
+    private final PreferenceResourceDescriptor mLookupDescriptor =
+            new PreferenceResourceDescriptor();
+
+    /**
+     * Flattened and visible preferences of every group that has not reported a change since
+     * they were computed. A group reporting a change drops its entry and the entries of its
+     * ancestors, so {@link #updatePreferences()} only reflattens the changed part of the
+     * hierarchy.
+     */
+    private IdentityHashMap<PreferenceGroup, FlattenedGroup> mFlattenedGroups =
+            new IdentityHashMap<>();
+
+    /**
+     * Position of each preference in {@link #mVisiblePreferences}, built on first use.
+     */
+    @Nullable
+    private IdentityHashMap<Preference, Integer> mVisiblePositions;
+
+    @Nullable
+    private Executor mDiffExecutor;
+
+    /**
+     * Incremented by every {@link #updatePreferences()}, so that a diff computed on
+     * {@link #mDiffExecutor} for an older hierarchy is not applied.
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    int mUpdateGeneration;
+
     private final Handler mHandler;
 
     private final Runnable mSyncRunnable = new Runnable() {
@@ -119,82 +158,175 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
         updatePreferences();
     }
 
+    /**
+     * Sets the executor that computes the difference between the old and new visible
+     * preferences when the hierarchy changes, or {@code null} to compute it on the main thread.
+     * <p>
+     * This only applies while the {@link PreferenceManager} has a
+     * {@link PreferenceManager.PreferenceComparisonCallback}, which is then called from the
+     * executor. It is meant for very large screens, where the diff would take noticeable time
+     * on the main thread; the RecyclerView keeps showing the previous preferences until the
+     * diff is done.
+     *
+     * @param executor The executor to compute diffs on, or {@code null}
+     */
+    public void setDiffExecutor(@Nullable Executor executor) {
+        mDiffExecutor = executor;
+    }
+
     /**
      * Updates {@link #mPreferences} and {@link #mVisiblePreferences} as well as notifying
      * {@link RecyclerView} of any changes.
      */
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     void updatePreferences() {
+        final int generation = ++mUpdateGeneration;
         for (final Preference preference : mPreferences) {
             // Clear out the listeners in anticipation of some items being removed. This listener
-            // will be set again on any remaining preferences when we flatten the group.
+            // will be set again on any remaining preferences once the group is flattened.
             preference.setOnPreferenceChangeInternalListener(null);
         }
-        // Attempt to reuse the current array size when creating the new array for efficiency
-        final int size = mPreferences.size();
-        mPreferences = new ArrayList<>(size);
-        flattenPreferenceGroup(mPreferences, mPreferenceGroup);
+
+        final IdentityHashMap<PreferenceGroup, FlattenedGroup> flattenedGroups =
+                new IdentityHashMap<>(mFlattenedGroups.size());
+        final FlattenedGroup root = flattenPreferenceGroup(mPreferenceGroup, flattenedGroups);
+        mFlattenedGroups = flattenedGroups;
+        mPreferences = root.mPreferences;
+        for (final Preference preference : mPreferences) {
+            preference.setOnPreferenceChangeInternalListener(this);
+        }
 
         final List<Preference> oldVisibleList = mVisiblePreferences;
 
         // Create a new variable so we can pass into DiffUtil without using a synthetic accessor
         // to access the private mVisiblePreferences
-        final List<Preference> visiblePreferenceList = createVisiblePreferencesList(
+        final List<Preference> visiblePreferenceList = getVisiblePreferences(
                 mPreferenceGroup);
 
-        mVisiblePreferences = visiblePreferenceList;
-
-        mAccessibilityPositionTable = createAccessibilityPositionTable();//sesl
         final PreferenceManager preferenceManager = mPreferenceGroup.getPreferenceManager();
         if (preferenceManager != null
                 && preferenceManager.getPreferenceComparisonCallback() != null) {
             final PreferenceManager.PreferenceComparisonCallback comparisonCallback =
                     preferenceManager.getPreferenceComparisonCallback();
-            final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
-                @Override
-                public int getOldListSize() {
-                    return oldVisibleList.size();
-                }
-
-                @Override
-                public int getNewListSize() {
-                    return visiblePreferenceList.size();
-                }
-
-                @Override
-                public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-                    return comparisonCallback.arePreferenceItemsTheSame(
-                            oldVisibleList.get(oldItemPosition),
-                            visiblePreferenceList.get(newItemPosition));
-                }
-
-                @Override
-                public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-                    return comparisonCallback.arePreferenceContentsTheSame(
-                            oldVisibleList.get(oldItemPosition),
-                            visiblePreferenceList.get(newItemPosition));
-                }
-            });
+            final Executor diffExecutor = mDiffExecutor;
+            if (diffExecutor != null) {
+                diffExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final DiffUtil.DiffResult result = calculateVisibleDiff(oldVisibleList,
+                                visiblePreferenceList, comparisonCallback);
+                        mHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (generation == mUpdateGeneration) {
+                                    setVisiblePreferences(visiblePreferenceList);
+                                    result.dispatchUpdatesTo(PreferenceGroupAdapter.this);
+                                    clearWasDetached();
+                                }
+                            }
+                        });
+                    }
+                });
+                return;
+            }
 
+            final DiffUtil.DiffResult result = calculateVisibleDiff(oldVisibleList,
+                    visiblePreferenceList, comparisonCallback);
+            setVisiblePreferences(visiblePreferenceList);
             result.dispatchUpdatesTo(this);
         } else {
+            setVisiblePreferences(visiblePreferenceList);
             notifyDataSetChanged();
         }
 
+        clearWasDetached();
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void setVisiblePreferences(@NonNull List<Preference> visiblePreferences) {
+        mVisiblePreferences = visiblePreferences;
+        mVisiblePositions = null;
+        mAccessibilityPositionTable = createAccessibilityPositionTable();//sesl
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void clearWasDetached() {
         for (final Preference preference : mPreferences) {
             preference.clearWasDetached();
         }
     }
 
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    static DiffUtil.DiffResult calculateVisibleDiff(final List<Preference> oldVisibleList,
+            final List<Preference> visiblePreferenceList,
+            final PreferenceManager.PreferenceComparisonCallback comparisonCallback) {
+        return DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldVisibleList.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return visiblePreferenceList.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return comparisonCallback.arePreferenceItemsTheSame(
+                        oldVisibleList.get(oldItemPosition),
+                        visiblePreferenceList.get(newItemPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                return comparisonCallback.arePreferenceContentsTheSame(
+                        oldVisibleList.get(oldItemPosition),
+                        visiblePreferenceList.get(newItemPosition));
+            }
+        });
+    }
+
+    /**
+     * Drops the flattened preferences of the groups containing {@code preference}, and of
+     * {@code preference} itself if it is a group, so they are reflattened on the next update.
+     * Everything is reflattened if {@code preference} is not part of the flattened hierarchy.
+     */
+    private void invalidateFlattenedGroups(@NonNull Preference preference) {
+        Preference current = preference;
+        while (current != null) {
+            if (current instanceof PreferenceGroup) {
+                mFlattenedGroups.remove(current);
+            }
+            if (current == mPreferenceGroup) {
+                return;
+            }
+            current = current.getParent();
+        }
+        mFlattenedGroups.clear();
+    }
+
     /**
-     * Recursively builds a list containing a flattened representation of a given
-     * {@link PreferenceGroup}, which may itself contain nested {@link PreferenceGroup}s with
-     * their own {@link Preference}s.
+     * Builds a list containing a flattened representation of a given {@link PreferenceGroup},
+     * which may itself contain nested {@link PreferenceGroup}s with their own
+     * {@link Preference}s. Groups that did not change since the previous update reuse their
+     * previous lists.
      *
-     * @param preferences The list to add the flattened {@link Preference}s to
-     * @param group       The {@link PreferenceGroup} to generate the list for
+     * @param group           The {@link PreferenceGroup} to generate the list for
+     * @param flattenedGroups The flattened groups of this update, which {@code group} and the
+     *                        groups below it are added to
+     * @return The flattened group
      */
-    private void flattenPreferenceGroup(List<Preference> preferences, PreferenceGroup group) {
+    private FlattenedGroup flattenPreferenceGroup(PreferenceGroup group,
+            IdentityHashMap<PreferenceGroup, FlattenedGroup> flattenedGroups) {
+        final FlattenedGroup previous = mFlattenedGroups.get(group);
+        if (previous != null) {
+            keepFlattenedGroup(group, previous, flattenedGroups);
+            return previous;
+        }
+
+        final List<Preference> preferences = new ArrayList<>();
+        final List<PreferenceGroup> nestedGroups = new ArrayList<>();
         group.sortPreferences();
         final int groupSize = group.getPreferenceCount();
         for (int i = 0; i < groupSize; i++) {
@@ -225,26 +357,57 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
 
             preferences.add(preference);
 
-            final PreferenceResourceDescriptor descriptor = new PreferenceResourceDescriptor(
-                    preference);
-            if (!mPreferenceResourceDescriptors.contains(descriptor)) {
-                mPreferenceResourceDescriptors.add(descriptor);
-            }
+            getViewType(preference);
 
             if (preference instanceof PreferenceGroup) {
                 final PreferenceGroup nestedGroup = (PreferenceGroup) preference;
                 if (nestedGroup.isOnSameScreenAsChildren()) {
                     mNextGroupPreference = mNextPreference;//sesl
-                    flattenPreferenceGroup(preferences, nestedGroup);
+                    preferences.addAll(
+                            flattenPreferenceGroup(nestedGroup, flattenedGroups).mPreferences);
+                    nestedGroups.add(nestedGroup);
                 }
             }
+        }
 
-            preference.setOnPreferenceChangeInternalListener(this);
+        final FlattenedGroup flattenedGroup = new FlattenedGroup(preferences, nestedGroups);
+        flattenedGroups.put(group, flattenedGroup);
+        return flattenedGroup;
+    }
+
+    /**
+     * Carries the unchanged {@code flattenedGroup} of {@code group}, and those of the groups
+     * below it, over to the flattened groups of this update.
+     */
+    private void keepFlattenedGroup(PreferenceGroup group, FlattenedGroup flattenedGroup,
+            IdentityHashMap<PreferenceGroup, FlattenedGroup> flattenedGroups) {
+        flattenedGroups.put(group, flattenedGroup);
+        for (PreferenceGroup nestedGroup : flattenedGroup.mNestedGroups) {
+            final FlattenedGroup nested = mFlattenedGroups.get(nestedGroup);
+            if (nested != null) {
+                keepFlattenedGroup(nestedGroup, nested, flattenedGroups);
+            }
+        }
+    }
+
+    /**
+     * Returns the preferences of {@code group} visible to the user, generating them if the group
+     * changed since the previous update. The group must have been flattened by this update.
+     */
+    private List<Preference> getVisiblePreferences(PreferenceGroup group) {
+        final FlattenedGroup flattenedGroup = mFlattenedGroups.get(group);
+        if (flattenedGroup == null) {
+            return createVisiblePreferencesList(group);
+        }
+        if (flattenedGroup.mVisiblePreferences == null) {
+            flattenedGroup.mVisiblePreferences = createVisiblePreferencesList(group);
         }
+        return flattenedGroup.mVisiblePreferences;
     }
 
     /**
-     * Recursively generates a list of {@link Preference}s visible to the user.
+     * Generates a list of {@link Preference}s visible to the user, reusing the lists of nested
+     * groups that did not change.
      *
      * @param group The root preference group to be processed
      * @return The flattened and visible section of the preference group
@@ -286,12 +449,16 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
                                 + "supported!");
             }
 
-            // Recursively generate nested list of visible preferences
-            final List<Preference> innerList = createVisiblePreferencesList(innerGroup);
+            // Generate nested list of visible preferences
+            final List<Preference> innerList = getVisiblePreferences(innerGroup);
 
+            if (!isGroupExpandable(group)) {
+                visiblePreferences.addAll(innerList);
+                visiblePreferenceCount += innerList.size();
+                continue;
+            }
             for (Preference inner : innerList) {
-                if (!isGroupExpandable(group)
-                        || visiblePreferenceCount < group.getInitialExpandedChildrenCount()) {
+                if (visiblePreferenceCount < group.getInitialExpandedChildrenCount()) {
                     visiblePreferences.add(inner);
                 } else {
                     collapsedPreferences.add(inner);
@@ -332,7 +499,7 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
             @Override
             public boolean onPreferenceClick(@NonNull Preference preference) {
                 group.setInitialExpandedChildrenCount(Integer.MAX_VALUE);
-                onPreferenceHierarchyChange(preference);
+                onPreferenceHierarchyChange(group);
                 final PreferenceGroup.OnExpandButtonClickListener listener =
                         group.getOnExpandButtonClickListener();
                 if (listener != null) {
@@ -383,7 +550,7 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
 
     @Override
     public void onPreferenceChange(@NonNull Preference preference) {
-        final int index = mVisiblePreferences.indexOf(preference);
+        final int index = getPreferenceAdapterPosition(preference);
         // If we don't find the preference, we don't need to notify anyone
         if (index != -1) {
             // Send the preference as a placeholder to ensure the view holder is recycled in place
@@ -393,6 +560,7 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
 
     @Override
     public void onPreferenceHierarchyChange(@NonNull Preference preference) {
+        invalidateFlattenedGroups(preference);
         mHandler.removeCallbacks(mSyncRunnable);
         mHandler.post(mSyncRunnable);
     }
@@ -404,18 +572,25 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
 
     @Override
     public int getItemViewType(int position) {
-        final Preference preference = this.getItem(position);
-
-        PreferenceResourceDescriptor descriptor = new PreferenceResourceDescriptor(preference);
+        return getViewType(this.getItem(position));
+    }
 
-        int viewType = mPreferenceResourceDescriptors.indexOf(descriptor);
-        if (viewType != -1) {
-            return viewType;
-        } else {
-            viewType = mPreferenceResourceDescriptors.size();
-            mPreferenceResourceDescriptors.add(descriptor);
+    /**
+     * Returns the view type of {@code preference}, registering a new one if no preference with
+     * the same {@link PreferenceResourceDescriptor} was seen before.
+     */
+    private int getViewType(@NonNull Preference preference) {
+        mLookupDescriptor.set(preference);
+        final Integer viewType = mViewTypes.get(mLookupDescriptor);
+        if (viewType != null) {
             return viewType;
         }
+        final PreferenceResourceDescriptor descriptor = new PreferenceResourceDescriptor();
+        descriptor.set(preference);
+        final int newViewType = mPreferenceResourceDescriptors.size();
+        mPreferenceResourceDescriptors.add(descriptor);
+        mViewTypes.put(descriptor, newViewType);
+        return newViewType;
     }
 
     @Override
@@ -503,14 +678,17 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
 
     @Override
     public int getPreferenceAdapterPosition(@NonNull Preference preference) {
-        final int size = mVisiblePreferences.size();
-        for (int i = 0; i < size; i++) {
-            final Preference candidate = mVisiblePreferences.get(i);
-            if (candidate != null && candidate.equals(preference)) {
-                return i;
+        if (mVisiblePositions == null) {
+            final int size = mVisiblePreferences.size();
+            final IdentityHashMap<Preference, Integer> positions = new IdentityHashMap<>(size);
+            // Iterate backwards so that the first position wins if a preference is listed twice
+            for (int i = size - 1; i >= 0; i--) {
+                positions.put(mVisiblePreferences.get(i), i);
             }
+            mVisiblePositions = positions;
         }
-        return RecyclerView.NO_POSITION;
+        final Integer position = mVisiblePositions.get(preference);
+        return position != null ? position : RecyclerView.NO_POSITION;
     }
 
     /**
@@ -527,7 +705,7 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
         String mDotDescription;//sesl
         boolean mIsDotVisibled;//sesl
 
-        PreferenceResourceDescriptor(@NonNull Preference preference) {
+        void set(@NonNull Preference preference) {
             mClassName = preference.getClass().getName();
             mLayoutResId = preference.getLayoutResource();
             mWidgetLayoutResId = preference.getWidgetLayoutResource();
@@ -558,6 +736,23 @@ public class PreferenceGroupAdapter extends RecyclerView.Adapter<PreferenceViewH
         }
     }
 
+    /**
+     * Flattened preferences of a {@link PreferenceGroup} and the preferences of it visible to
+     * the user, kept until the group or a preference below it reports a change. The lists are
+     * never modified once built.
+     */
+    private static final class FlattenedGroup {
+        final List<Preference> mPreferences;
+        final List<PreferenceGroup> mNestedGroups;
+        @Nullable
+        List<Preference> mVisiblePreferences;
+
+        FlattenedGroup(List<Preference> preferences, List<PreferenceGroup> nestedGroups) {
+            mPreferences = preferences;
+            mNestedGroups = nestedGroups;
+        }
+    }
+
     //Sesl
     final List<Integer> createAccessibilityPositionTable() {
         ArrayList<Integer> arrayList = new ArrayList<>();
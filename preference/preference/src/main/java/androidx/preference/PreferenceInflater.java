@@ -20,6 +20,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.res.XmlResourceParser;
 import android.util.AttributeSet;
+import android.util.SparseArray;
 import android.util.Xml;
 import android.view.InflateException;
 
@@ -31,16 +32,26 @@ import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
  * This inflater is used to inflate preference hierarchies from XML files.
+ * <p>
+ * An inflater can be used from any thread, as long as the preferences it creates can be
+ * constructed on that thread. When a resource is inflated, the constructor used for each of its
+ * preferences is remembered, so inflating the same resource again, e.g. when a fragment is
+ * recreated, does not resolve the class names again.
  */
 class PreferenceInflater {
     private static final Class<?>[] CONSTRUCTOR_SIGNATURE = new Class<?>[]{
             Context.class, AttributeSet.class};
 
     private static final HashMap<String, Constructor<?>> CONSTRUCTOR_MAP = new HashMap<>();
+    /**
+     * The structure of the resources inflated so far, by resource ID. Guarded by itself.
+     */
+    private static final SparseArray<ParsedResource> PARSED_RESOURCES = new SparseArray<>();
     private static final String INTENT_TAG_NAME = "intent";
     private static final String EXTRA_TAG_NAME = "extra";
     @NonNull
@@ -49,6 +60,25 @@ class PreferenceInflater {
     private PreferenceManager mPreferenceManager;
     private String[] mDefaultPackages;
 
+    /**
+     * The structure of the resource being inflated recorded by a previous inflation, if any.
+     */
+    @Nullable
+    private ParsedResource mParsedResource;
+    /**
+     * The tag names and constructors of the preferences of the resource being inflated, in
+     * document order, or {@code null} when not inflating a resource.
+     */
+    @Nullable
+    private ArrayList<String> mItemNames;
+    @Nullable
+    private ArrayList<Constructor<?>> mItemConstructors;
+    /**
+     * The constructor {@link #createItem(String, String[], AttributeSet)} used last.
+     */
+    @Nullable
+    private Constructor<?> mLastConstructor;
+
     public PreferenceInflater(@NonNull Context context, PreferenceManager preferenceManager) {
         mContext = context;
         init(preferenceManager);
@@ -109,7 +139,26 @@ class PreferenceInflater {
     public Preference inflate(int resource, @Nullable PreferenceGroup root) {
         XmlResourceParser parser = getContext().getResources().getXml(resource);
         try {
-            return inflate(parser, root);
+            synchronized (mConstructorArgs) {
+                synchronized (PARSED_RESOURCES) {
+                    mParsedResource = PARSED_RESOURCES.get(resource);
+                }
+                mItemNames = new ArrayList<>();
+                mItemConstructors = new ArrayList<>();
+                try {
+                    final Preference result = inflate(parser, root);
+                    final ParsedResource parsedResource =
+                            new ParsedResource(mItemNames, mItemConstructors);
+                    synchronized (PARSED_RESOURCES) {
+                        PARSED_RESOURCES.put(resource, parsedResource);
+                    }
+                    return result;
+                } finally {
+                    mParsedResource = null;
+                    mItemNames = null;
+                    mItemConstructors = null;
+                }
+            }
         } finally {
             parser.close();
         }
@@ -206,7 +255,10 @@ class PreferenceInflater {
     private Preference createItem(@NonNull String name, @Nullable String[] prefixes,
             AttributeSet attrs)
             throws ClassNotFoundException, InflateException {
-        Constructor<?> constructor = CONSTRUCTOR_MAP.get(name);
+        Constructor<?> constructor;
+        synchronized (CONSTRUCTOR_MAP) {
+            constructor = CONSTRUCTOR_MAP.get(name);
+        }
 
         try {
             if (constructor == null) {
@@ -238,9 +290,12 @@ class PreferenceInflater {
                 }
                 constructor = clazz.getConstructor(CONSTRUCTOR_SIGNATURE);
                 constructor.setAccessible(true);
-                CONSTRUCTOR_MAP.put(name, constructor);
+                synchronized (CONSTRUCTOR_MAP) {
+                    CONSTRUCTOR_MAP.put(name, constructor);
+                }
             }
 
+            mLastConstructor = constructor;
             Object[] args = mConstructorArgs;
             args[1] = attrs;
             return (Preference) constructor.newInstance(args);
@@ -275,12 +330,28 @@ class PreferenceInflater {
         try {
             final Preference item;
 
-            if (-1 == name.indexOf('.')) {
+            // Reuse the constructor of the previous inflation of the resource when the
+            // preference at the same position has the same tag. Resources with variants for
+            // other configurations may not have the same structure.
+            final int index = mItemNames != null ? mItemNames.size() : -1;
+            final Constructor<?> cachedConstructor = mParsedResource != null
+                    ? mParsedResource.getConstructor(index, name) : null;
+            mLastConstructor = null;
+            if (cachedConstructor != null) {
+                mConstructorArgs[1] = attrs;
+                item = (Preference) cachedConstructor.newInstance(mConstructorArgs);
+                mLastConstructor = cachedConstructor;
+            } else if (-1 == name.indexOf('.')) {
                 item = onCreateItem(name, attrs);
             } else {
                 item = createItem(name, null, attrs);
             }
 
+            if (mItemNames != null) {
+                mItemNames.add(name);
+                // Null when onCreateItem created the item without createItem
+                mItemConstructors.add(mLastConstructor);
+            }
             return item;
 
         } catch (InflateException e) {
@@ -364,4 +435,30 @@ class PreferenceInflater {
                 && (type != XmlPullParser.END_TAG || parser.getDepth() > outerDepth));
     }
 
+    /**
+     * The tag names and constructors of the preferences of an inflated resource, in document
+     * order.
+     */
+    private static final class ParsedResource {
+        private final String[] mNames;
+        private final Constructor<?>[] mConstructors;
+
+        ParsedResource(@NonNull ArrayList<String> names,
+                @NonNull ArrayList<Constructor<?>> constructors) {
+            mNames = names.toArray(new String[0]);
+            mConstructors = constructors.toArray(new Constructor<?>[0]);
+        }
+
+        /**
+         * Returns the constructor of the preference at {@code index}, or {@code null} if the
+         * resource had another structure or the preference was not created by a constructor.
+         */
+        @Nullable
+        Constructor<?> getConstructor(int index, @NonNull String name) {
+            if (index < 0 || index >= mNames.length || !mNames[index].equals(name)) {
+                return null;
+            }
+            return mConstructors[index];
+        }
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.preference;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+
+/**
+ * Index of the keys of every {@link Preference} below the root {@link PreferenceGroup} of a
+ * hierarchy, kept up to date by the groups as preferences are added, removed or change keys.
+ * <p>
+ * A key used by a single preference maps to it. Keys shared by several preferences are only
+ * counted, since {@link PreferenceGroup#findPreference(CharSequence)} has to return the first of
+ * them in hierarchy order and callers fall back to walking the hierarchy for those.
+ * <p>
+ * The root group itself is not indexed.
+ */
+final class PreferenceKeyIndex {
+    private final HashMap<String, Preference> mPreferences = new HashMap<>();
+    /**
+     * Number of preferences using each key that more than one preference uses.
+     */
+    private final HashMap<String, Integer> mDuplicateCounts = new HashMap<>();
+
+    /**
+     * Returns whether any indexed preference uses {@code key}.
+     */
+    boolean contains(@NonNull String key) {
+        return mPreferences.containsKey(key) || mDuplicateCounts.containsKey(key);
+    }
+
+    /**
+     * Returns whether more than one indexed preference uses {@code key}.
+     */
+    boolean isDuplicated(@NonNull String key) {
+        return mDuplicateCounts.containsKey(key);
+    }
+
+    /**
+     * Returns the only indexed preference using {@code key}, or {@code null} if there is none or
+     * the key is {@link #isDuplicated(String) duplicated}.
+     */
+    @Nullable
+    Preference get(@NonNull String key) {
+        return mPreferences.get(key);
+    }
+
+    /**
+     * Indexes {@code preference} and, if it is a group, everything below it.
+     */
+    void addSubtree(@NonNull Preference preference) {
+        add(preference.getKey(), preference);
+        if (preference instanceof PreferenceGroup) {
+            final PreferenceGroup group = (PreferenceGroup) preference;
+            final int count = group.getPreferenceCount();
+            for (int i = 0; i < count; i++) {
+                addSubtree(group.getPreference(i));
+            }
+        }
+    }
+
+    /**
+     * Removes {@code preference} and, if it is a group, everything below it, from the index.
+     * Must be called once the preference is no longer below {@code root}.
+     */
+    void removeSubtree(@NonNull Preference preference, @NonNull PreferenceGroup root) {
+        remove(preference.getKey(), preference, root);
+        if (preference instanceof PreferenceGroup) {
+            final PreferenceGroup group = (PreferenceGroup) preference;
+            final int count = group.getPreferenceCount();
+            for (int i = 0; i < count; i++) {
+                removeSubtree(group.getPreference(i), root);
+            }
+        }
+    }
+
+    void add(@Nullable String key, @NonNull Preference preference) {
+        if (key == null) {
+            return;
+        }
+        final Integer count = mDuplicateCounts.get(key);
+        if (count != null) {
+            mDuplicateCounts.put(key, count + 1);
+            return;
+        }
+        final Preference existing = mPreferences.put(key, preference);
+        if (existing != null && existing != preference) {
+            mPreferences.remove(key);
+            mDuplicateCounts.put(key, 2);
+        }
+    }
+
+    /**
+     * Removes {@code preference} from the entry of {@code key}. When a key stops being
+     * duplicated, the preference still using it is looked up below {@code root}, so
+     * {@code preference} must not be reachable from {@code root} with that key anymore.
+     */
+    void remove(@Nullable String key, @NonNull Preference preference,
+            @NonNull PreferenceGroup root) {
+        if (key == null) {
+            return;
+        }
+        final Integer count = mDuplicateCounts.get(key);
+        if (count == null) {
+            if (mPreferences.get(key) == preference) {
+                mPreferences.remove(key);
+            }
+        } else if (count > 2) {
+            mDuplicateCounts.put(key, count - 1);
+        } else {
+            mDuplicateCounts.remove(key);
+            final Preference remaining = findBelow(root, key);
+            if (remaining != null) {
+                mPreferences.put(key, remaining);
+            }
+        }
+    }
+
+    @Nullable
+    private static Preference findBelow(@NonNull PreferenceGroup group, @NonNull String key) {
+        final int count = group.getPreferenceCount();
+        for (int i = 0; i < count; i++) {
+            final Preference preference = group.getPreference(i);
+            if (TextUtils.equals(preference.getKey(), key)) {
+                return preference;
+            }
+            if (preference instanceof PreferenceGroup) {
+                final Preference found = findBelow((PreferenceGroup) preference, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}
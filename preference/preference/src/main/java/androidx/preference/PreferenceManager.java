@@ -30,6 +30,8 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.core.content.ContextCompat;
 
+import java.util.Set;
+
 /**
  * Used to help create {@link Preference} hierarchies from activities or XML.
  *
@@ -73,6 +75,11 @@ public class PreferenceManager {
      * hierarchy. Do not set this directly, use {@link #setNoCommit(boolean)}.
      */
     private boolean mNoCommit;
+    /**
+     * Whether this manager only inflates a hierarchy for another manager, so preferences attached
+     * to it do not set their initial values. See {@link #createInflationManager(Context)}.
+     */
+    private boolean mInflationOnly;
     /**
      * The {@link SharedPreferences} name that will be used for all {@link Preference}s managed
      * by this instance.
@@ -198,6 +205,9 @@ public class PreferenceManager {
      *
      * Used by Settings.
      *
+     * <p>This may be called from a background thread, as long as the preferences in the XML can
+     * be constructed on that thread and nothing else uses this manager until it returns.
+     *
      * @param context         The context of the resource
      * @param resId           The resource ID of the XML to inflate
      * @param rootPreferences Optional existing hierarchy to merge the new
@@ -221,6 +231,59 @@ public class PreferenceManager {
         return rootPreferences;
     }
 
+    /**
+     * Creates a manager to inflate a hierarchy with on a background thread. It shares no state
+     * with any other manager, and preferences attached to it neither read nor set their initial
+     * values, so they are left as constructed. Attach the inflated hierarchy to the manager that
+     * will own it with {@link #attachInflatedHierarchy(PreferenceGroup)} on the main thread.
+     *
+     * @param context The context of the resource
+     */
+    @NonNull
+    static PreferenceManager createInflationManager(@NonNull Context context) {
+        final PreferenceManager preferenceManager = new PreferenceManager(context);
+        preferenceManager.mInflationOnly = true;
+        preferenceManager.setPreferenceDataStore(new DiscardingPreferenceDataStore());
+        return preferenceManager;
+    }
+
+    /**
+     * Returns whether this manager was created by {@link #createInflationManager(Context)}.
+     */
+    boolean isInflationOnly() {
+        return mInflationOnly;
+    }
+
+    /**
+     * Attaches a hierarchy inflated with {@link #createInflationManager(Context)} to this
+     * manager. The preferences set their initial values here for the first time, as they would
+     * when inflated with this manager, so they read persisted values from, and persist their
+     * default values to, the storage of this manager.
+     *
+     * @param root The root of the inflated hierarchy
+     */
+    void attachInflatedHierarchy(@NonNull PreferenceGroup root) {
+        // Block commits
+        setNoCommit(true);
+
+        root.onAttachedToHierarchy(this);
+        attachChildren(root);
+
+        // Unblock commits
+        setNoCommit(false);
+    }
+
+    private void attachChildren(@NonNull PreferenceGroup group) {
+        final int preferenceCount = group.getPreferenceCount();
+        for (int i = 0; i < preferenceCount; i++) {
+            final Preference preference = group.getPreference(i);
+            preference.onAttachedToHierarchy(this);
+            if (preference instanceof PreferenceGroup) {
+                attachChildren((PreferenceGroup) preference);
+            }
+        }
+    }
+
     @NonNull
     public PreferenceScreen createPreferenceScreen(@NonNull Context context) {
         final PreferenceScreen preferenceScreen = new PreferenceScreen(context, null);
@@ -720,4 +783,33 @@ public class PreferenceManager {
         }
     }
 
+    /**
+     * Reads back the default values and drops every write, so nothing a preference does while
+     * it is inflated off the main thread reaches any storage.
+     */
+    private static class DiscardingPreferenceDataStore extends PreferenceDataStore {
+        @Override
+        public void putString(@NonNull String key, @Nullable String value) {
+        }
+
+        @Override
+        public void putStringSet(@NonNull String key, @Nullable Set<String> values) {
+        }
+
+        @Override
+        public void putInt(@NonNull String key, int value) {
+        }
+
+        @Override
+        public void putLong(@NonNull String key, long value) {
+        }
+
+        @Override
+        public void putFloat(@NonNull String key, float value) {
+        }
+
+        @Override
+        public void putBoolean(@NonNull String key, boolean value) {
+        }
+    }
 }
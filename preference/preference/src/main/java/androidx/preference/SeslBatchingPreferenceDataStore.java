@@ -0,0 +1,343 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.preference;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link PreferenceDataStore} backed by {@link SharedPreferences} that batches writes.
+ *
+ * <p>Every {@link SharedPreferences.Editor#apply()} schedules a write of the whole file, so
+ * changing many preferences at once, e.g. with the switch of a {@link SeslSwitchPreferenceScreen}
+ * that turns its children on or off, writes the file many times. This data store keeps the
+ * values it is given in memory and writes all the values changed within
+ * {@link #setWriteDelay(long) the write delay} with a single commit on the given executor.
+ * Values that have not been written yet are returned by the getters, so preferences read back
+ * what they persisted right away. If a commit fails, the values stay unsaved and the write
+ * is retried after a delay that grows with every failure.
+ *
+ * <p>{@link PreferenceFragmentCompat} calls {@link #flush()} when it is paused if this data store
+ * is set on its {@link PreferenceManager}. While it is set,
+ * {@link PreferenceManager#getSharedPreferences()} returns {@code null}.
+ *
+ * <p>When a preference is attached to a hierarchy, it sets its default value as its initial
+ * value, and preferences such as {@link TwoStatePreference} and {@link ListPreference} persist
+ * it. So the default value of every such preference whose key has no value yet is put into this
+ * data store, and written to the {@link SharedPreferences} with the next commit, as it would be
+ * without a data store.
+ *
+ * <p>This class can be used from any thread.
+ *
+ * @see PreferenceManager#setPreferenceDataStore(PreferenceDataStore)
+ */
+public class SeslBatchingPreferenceDataStore extends PreferenceDataStore {
+    /**
+     * The default time, in milliseconds, writes are held back for so they can be batched.
+     */
+    public static final long DEFAULT_WRITE_DELAY_MS = 100;
+
+    /**
+     * Value of keys that have been removed but not written yet.
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * The longest time, in milliseconds, a write is retried after when commits keep failing.
+     */
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private final SharedPreferences mSharedPreferences;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private final Runnable mCommitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            commit();
+        }
+    };
+
+    private final Object mLock = new Object();
+    /**
+     * The values that have not been written yet, by key. Guarded by {@link #mLock}.
+     */
+    private final HashMap<String, Object> mUnsavedValues = new HashMap<>();
+    private boolean mFlushScheduled;
+    private volatile long mWriteDelayMs = DEFAULT_WRITE_DELAY_MS;
+
+    /**
+     * Serializes the commits, so a commit always writes values at least as recent as the
+     * previous one.
+     */
+    private final Object mCommitLock = new Object();
+    /**
+     * The time the next write is retried after if a commit fails, doubled by every failed
+     * commit and reset by a successful one. Guarded by {@link #mCommitLock}.
+     */
+    private long mRetryDelayMs;
+
+    /**
+     * @param sharedPreferences The {@link SharedPreferences} the values are written to
+     * @param executor          The executor the values are written on
+     */
+    public SeslBatchingPreferenceDataStore(@NonNull SharedPreferences sharedPreferences,
+            @NonNull Executor executor) {
+        mSharedPreferences = sharedPreferences;
+        mExecutor = executor;
+    }
+
+    /**
+     * Returns the {@link SharedPreferences} the values are written to. They only contain the
+     * values changed through this data store once they have been written.
+     */
+    @NonNull
+    public SharedPreferences getSharedPreferences() {
+        return mSharedPreferences;
+    }
+
+    /**
+     * Sets the time writes are held back for so they can be batched. It applies to the writes
+     * scheduled from then on.
+     *
+     * @param writeDelayMs The delay in milliseconds, {@link #DEFAULT_WRITE_DELAY_MS} by default
+     */
+    public void setWriteDelay(long writeDelayMs) {
+        mWriteDelayMs = Math.max(0, writeDelayMs);
+    }
+
+    /**
+     * Returns the time, in milliseconds, writes are held back for so they can be batched.
+     */
+    public long getWriteDelay() {
+        return mWriteDelayMs;
+    }
+
+    /**
+     * Writes the values that have not been written yet on the executor now, instead of after
+     * the write delay.
+     */
+    public void flush() {
+        synchronized (mLock) {
+            if (!mFlushScheduled) {
+                return;
+            }
+            mFlushScheduled = false;
+        }
+        mHandler.removeCallbacks(mFlushRunnable);
+        mExecutor.execute(mCommitRunnable);
+    }
+
+    /**
+     * Returns whether some values have not been written yet.
+     */
+    public boolean hasUnsavedValues() {
+        synchronized (mLock) {
+            return !mUnsavedValues.isEmpty();
+        }
+    }
+
+    @Override
+    public void putString(@NonNull String key, @Nullable String value) {
+        put(key, value);
+    }
+
+    @Override
+    public void putStringSet(@NonNull String key, @Nullable Set<String> values) {
+        put(key, values != null ? new HashSet<>(values) : null);
+    }
+
+    @Override
+    public void putInt(@NonNull String key, int value) {
+        put(key, value);
+    }
+
+    @Override
+    public void putLong(@NonNull String key, long value) {
+        put(key, value);
+    }
+
+    @Override
+    public void putFloat(@NonNull String key, float value) {
+        put(key, value);
+    }
+
+    @Override
+    public void putBoolean(@NonNull String key, boolean value) {
+        put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public String getString(@NonNull String key, @Nullable String defValue) {
+        synchronized (mLock) {
+            final Object value = mUnsavedValues.get(key);
+            if (value != null) {
+                return value != REMOVED ? (String) value : defValue;
+            }
+        }
+        return mSharedPreferences.getString(key, defValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public Set<String> getStringSet(@NonNull String key, @Nullable Set<String> defValues) {
+        synchronized (mLock) {
+            final Object value = mUnsavedValues.get(key);
+            if (value != null) {
+                return value != REMOVED ? (Set<String>) value : defValues;
+            }
+        }
+        return mSharedPreferences.getStringSet(key, defValues);
+    }
+
+    @Override
+    public int getInt(@NonNull String key, int defValue) {
+        synchronized (mLock) {
+            final Object value = mUnsavedValues.get(key);
+            if (value != null) {
+                return value != REMOVED ? (Integer) value : defValue;
+            }
+        }
+        return mSharedPreferences.getInt(key, defValue);
+    }
+
+    @Override
+    public long getLong(@NonNull String key, long defValue) {
+        synchronized (mLock) {
+            final Object value = mUnsavedValues.get(key);
+            if (value != null) {
+                return value != REMOVED ? (Long) value : defValue;
+            }
+        }
+        return mSharedPreferences.getLong(key, defValue);
+    }
+
+    @Override
+    public float getFloat(@NonNull String key, float defValue) {
+        synchronized (mLock) {
+            final Object value = mUnsavedValues.get(key);
+            if (value != null) {
+                return value != REMOVED ? (Float) value : defValue;
+            }
+        }
+        return mSharedPreferences.getFloat(key, defValue);
+    }
+
+    @Override
+    public boolean getBoolean(@NonNull String key, boolean defValue) {
+        synchronized (mLock) {
+            final Object value = mUnsavedValues.get(key);
+            if (value != null) {
+                return value != REMOVED ? (Boolean) value : defValue;
+            }
+        }
+        return mSharedPreferences.getBoolean(key, defValue);
+    }
+
+    private void put(@NonNull String key, @Nullable Object value) {
+        final boolean scheduleFlush;
+        synchronized (mLock) {
+            mUnsavedValues.put(key, value != null ? value : REMOVED);
+            scheduleFlush = !mFlushScheduled;
+            mFlushScheduled = true;
+        }
+        if (scheduleFlush) {
+            mHandler.postDelayed(mFlushRunnable, mWriteDelayMs);
+        }
+    }
+
+    private void scheduleRetry(long delayMs) {
+        synchronized (mLock) {
+            if (mFlushScheduled) {
+                // A write of newer values is already scheduled and writes these too
+                return;
+            }
+            mFlushScheduled = true;
+        }
+        mHandler.postDelayed(mFlushRunnable, delayMs);
+    }
+
+    @SuppressWarnings({"WeakerAccess", "unchecked"}) /* synthetic access */
+    void commit() {
+        synchronized (mCommitLock) {
+            final HashMap<String, Object> values;
+            synchronized (mLock) {
+                if (mUnsavedValues.isEmpty()) {
+                    return;
+                }
+                values = new HashMap<>(mUnsavedValues);
+            }
+
+            final SharedPreferences.Editor editor = mSharedPreferences.edit();
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                final String key = entry.getKey();
+                final Object value = entry.getValue();
+                if (value == REMOVED) {
+                    editor.remove(key);
+                } else if (value instanceof String) {
+                    editor.putString(key, (String) value);
+                } else if (value instanceof Set) {
+                    editor.putStringSet(key, (Set<String>) value);
+                } else if (value instanceof Integer) {
+                    editor.putInt(key, (Integer) value);
+                } else if (value instanceof Long) {
+                    editor.putLong(key, (Long) value);
+                } else if (value instanceof Float) {
+                    editor.putFloat(key, (Float) value);
+                } else if (value instanceof Boolean) {
+                    editor.putBoolean(key, (Boolean) value);
+                }
+            }
+            if (!editor.commit()) {
+                // Keep the values unsaved and write them again later
+                mRetryDelayMs = mRetryDelayMs == 0
+                        ? Math.max(mWriteDelayMs, DEFAULT_WRITE_DELAY_MS)
+                        : Math.min(mRetryDelayMs * 2, MAX_RETRY_DELAY_MS);
+                scheduleRetry(mRetryDelayMs);
+                return;
+            }
+            mRetryDelayMs = 0;
+
+            // Values changed again while committing stay unsaved until the next commit
+            synchronized (mLock) {
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    final String key = entry.getKey();
+                    if (mUnsavedValues.get(key) == entry.getValue()) {
+                        mUnsavedValues.remove(key);
+                    }
+                }
+            }
+        }
+    }
+}
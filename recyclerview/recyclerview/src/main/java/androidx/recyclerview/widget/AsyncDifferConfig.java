@@ -39,15 +39,19 @@ public final class AsyncDifferConfig<T> {
     private final Executor mBackgroundThreadExecutor;
     @NonNull
     private final DiffUtil.ItemCallback<T> mDiffCallback;
+    @Nullable
+    private final Executor mParallelDiffExecutor;
 
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     AsyncDifferConfig(
             @Nullable Executor mainThreadExecutor,
             @NonNull Executor backgroundThreadExecutor,
-            @NonNull DiffUtil.ItemCallback<T> diffCallback) {
+            @NonNull DiffUtil.ItemCallback<T> diffCallback,
+            @Nullable Executor parallelDiffExecutor) {
         mMainThreadExecutor = mainThreadExecutor;
         mBackgroundThreadExecutor = backgroundThreadExecutor;
         mDiffCallback = diffCallback;
+        mParallelDiffExecutor = parallelDiffExecutor;
     }
 
     @SuppressWarnings("WeakerAccess")
@@ -69,6 +73,17 @@ public final class AsyncDifferConfig<T> {
         return mDiffCallback;
     }
 
+    /**
+     * Returns the executor large lists with item ids are diffed on in parallel, or {@code null}.
+     *
+     * @see Builder#setParallelDiffExecutor(Executor)
+     */
+    @SuppressWarnings("WeakerAccess")
+    @Nullable
+    public Executor getParallelDiffExecutor() {
+        return mParallelDiffExecutor;
+    }
+
     /**
      * Builder class for {@link AsyncDifferConfig}.
      *
@@ -79,6 +94,8 @@ public final class AsyncDifferConfig<T> {
         private Executor mMainThreadExecutor;
         private Executor mBackgroundThreadExecutor;
         private final DiffUtil.ItemCallback<T> mDiffCallback;
+        @Nullable
+        private Executor mParallelDiffExecutor;
 
         public Builder(@NonNull DiffUtil.ItemCallback<T> diffCallback) {
             mDiffCallback = diffCallback;
@@ -118,6 +135,25 @@ public final class AsyncDifferConfig<T> {
             return this;
         }
 
+        /**
+         * If provided, large lists whose items have ids, as reported by
+         * {@link DiffUtil.ItemCallback#getItemId(Object)}, but not unique ones are split around
+         * the items with unique ids and the parts are diffed in parallel on this executor. The
+         * diff callback must then be safe to call from several threads at once.
+         * <p>
+         * If not provided or null, lists are diffed on the background thread executor only.
+         *
+         * @param executor The executor to diff parts of large lists on.
+         * @return this
+         * @see DiffUtil.DiffConfig.Builder#setParallelExecutor(Executor)
+         */
+        @SuppressWarnings({"unused", "WeakerAccess"})
+        @NonNull
+        public Builder<T> setParallelDiffExecutor(@Nullable Executor executor) {
+            mParallelDiffExecutor = executor;
+            return this;
+        }
+
         /**
          * Creates a {@link AsyncListDiffer} with the given parameters.
          *
@@ -136,7 +172,8 @@ public final class AsyncDifferConfig<T> {
             return new AsyncDifferConfig<>(
                     mMainThreadExecutor,
                     mBackgroundThreadExecutor,
-                    mDiffCallback);
+                    mDiffCallback,
+                    mParallelDiffExecutor);
         }
 
         // TODO: remove the below once supportlib has its own appropriate executors
@@ -16,8 +16,10 @@
 
 package androidx.recyclerview.widget;
 
+import android.os.CancellationSignal;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.OperationCanceledException;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -200,6 +202,10 @@ public class AsyncListDiffer<T> {
     @SuppressWarnings("WeakerAccess") /* synthetic access */
     int mMaxScheduledGeneration;
 
+    // Cancels the diff of the latest scheduled generation, if one is running.
+    @Nullable
+    private CancellationSignal mRunningDiffSignal;
+
     /**
      * Get the current List - any diffing to present this list has already been computed and
      * dispatched via the ListUpdateCallback.
@@ -252,6 +258,11 @@ public class AsyncListDiffer<T> {
             @Nullable final Runnable commitCallback) {
         // incrementing generation means any currently-running diffs are discarded when they finish
         final int runGeneration = ++mMaxScheduledGeneration;
+        // a running diff would be discarded anyway, so stop it instead of letting it finish
+        if (mRunningDiffSignal != null) {
+            mRunningDiffSignal.cancel();
+            mRunningDiffSignal = null;
+        }
 
         if (newList == mList) {
             // nothing to do (Note - still had to inc generation, since may have ongoing work)
@@ -286,7 +297,13 @@ public class AsyncListDiffer<T> {
         }
 
         final List<T> oldList = mList;
-        mConfig.getBackgroundThreadExecutor().execute(new Runnable() {
+        final CancellationSignal signal = new CancellationSignal();
+        mRunningDiffSignal = signal;
+        final DiffUtil.DiffConfig diffConfig = new DiffUtil.DiffConfig.Builder()
+                .setParallelExecutor(mConfig.getParallelDiffExecutor())
+                .setCancellationSignal(signal)
+                .build();
+        mConfig.getBackgroundThreadExecutor().execute(cancellable(signal, new Runnable() {
             @Override
             public void run() {
                 final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
@@ -342,18 +359,55 @@ public class AsyncListDiffer<T> {
                         // non-null which is the only case handled above.
                         throw new AssertionError();
                     }
-                });
+
+                    @Override
+                    public long getOldItemId(int oldItemPosition) {
+                        T oldItem = oldList.get(oldItemPosition);
+                        return oldItem != null
+                                ? mConfig.getDiffCallback().getItemId(oldItem)
+                                : RecyclerView.NO_ID;
+                    }
+
+                    @Override
+                    public long getNewItemId(int newItemPosition) {
+                        T newItem = newList.get(newItemPosition);
+                        return newItem != null
+                                ? mConfig.getDiffCallback().getItemId(newItem)
+                                : RecyclerView.NO_ID;
+                    }
+                }, diffConfig);
 
                 mMainThreadExecutor.execute(new Runnable() {
                     @Override
                     public void run() {
                         if (mMaxScheduledGeneration == runGeneration) {
+                            mRunningDiffSignal = null;
                             latchList(newList, result, commitCallback);
                         }
                     }
                 });
             }
-        });
+        }));
+    }
+
+    /**
+     * Wraps a diff runnable so that it is skipped if {@code signal} is cancelled before it runs,
+     * and ends quietly if it is cancelled while diffing.
+     */
+    private static Runnable cancellable(final CancellationSignal signal, final Runnable diff) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (signal.isCanceled()) {
+                    return;
+                }
+                try {
+                    diff.run();
+                } catch (OperationCanceledException e) {
+                    // a newer list was submitted, which discards this diff
+                }
+            }
+        };
     }
 
     @SuppressWarnings("WeakerAccess") /* synthetic access */
@@ -16,6 +16,7 @@
 
 package androidx.recyclerview.widget;
 
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.SparseBooleanArray;
 import android.util.SparseIntArray;
@@ -25,6 +26,8 @@ import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 
+import java.util.concurrent.Executor;
+
 /**
  * A utility class that supports asynchronous content loading.
  * <p>
@@ -39,8 +42,14 @@ import androidx.annotation.WorkerThread;
  * {@link ViewCallback} when the data is loaded. It may load some extra items for smoother
  * scrolling.
  * <p>
- * Note that this class uses a single thread to load the data, so it suitable to load data from
- * secondary storage such as disk, but not from network.
+ * By default this class uses a single thread to load the data, so it suitable to load data from
+ * secondary storage such as disk, but not from network. A {@link LoaderConfig} can let several
+ * workers load tiles in parallel, read further ahead while the list scrolls fast, and bound the
+ * cache by a memory budget instead of a number of tiles.
+ * <p>
+ * Tiles nearest to the visible range are loaded first, those ahead in the scroll direction before
+ * those behind it. Tiles that leave the range before they are loaded are not loaded, and tiles
+ * that leave it while they load are discarded instead of evicting tiles that are still needed.
  * <p>
  * This class is designed to work with {@link RecyclerView}, but it does
  * not depend on it and can be used with other list views.
@@ -51,6 +60,11 @@ public class AsyncListUtil<T> {
 
     static final boolean DEBUG = false;
 
+    /**
+     * Velocity based read-ahead extends the range by at most this many visible ranges.
+     */
+    private static final int MAX_READ_AHEAD_RANGES = 4;
+
     final Class<T> mTClass;
     final int mTileSize;
     final DataCallback<T> mDataCallback;
@@ -58,6 +72,11 @@ public class AsyncListUtil<T> {
 
     final TileList<T> mTileList;
 
+    final Executor mLoaderExecutor;
+    final int mWorkerCount;
+    final int mReadAheadMillis;
+    final long mCacheBudget;
+
     final ThreadUtil.MainThreadCallback<T> mMainThreadProxy;
     final ThreadUtil.BackgroundCallback<T> mBackgroundProxy;
 
@@ -65,6 +84,10 @@ public class AsyncListUtil<T> {
     final int[] mPrevRange = new int[2];
     final int[] mTmpRangeExtended = new int[2];
 
+    private long mPrevRangeTimeMs;
+    // Smoothed scroll velocity, in items per second.
+    private float mScrollVelocity;
+
     boolean mAllowScrollHints;
     private int mScrollHint = ViewCallback.HINT_SCROLL_NONE;
 
@@ -89,14 +112,33 @@ public class AsyncListUtil<T> {
      */
     public AsyncListUtil(@NonNull Class<T> klass, int tileSize,
             @NonNull DataCallback<T> dataCallback, @NonNull ViewCallback viewCallback) {
+        this(klass, tileSize, dataCallback, viewCallback, new LoaderConfig.Builder().build());
+    }
+
+    /**
+     * Creates an AsyncListUtil that loads tiles as configured by {@code loaderConfig}.
+     *
+     * @param klass Class of the data item.
+     * @param tileSize Number of item per chunk loaded at once.
+     * @param dataCallback Data access callback.
+     * @param viewCallback Callback for querying visible item range and update notifications.
+     * @param loaderConfig How tiles are loaded and cached.
+     */
+    public AsyncListUtil(@NonNull Class<T> klass, int tileSize,
+            @NonNull DataCallback<T> dataCallback, @NonNull ViewCallback viewCallback,
+            @NonNull LoaderConfig loaderConfig) {
         mTClass = klass;
         mTileSize = tileSize;
         mDataCallback = dataCallback;
         mViewCallback = viewCallback;
+        mLoaderExecutor = loaderConfig.getExecutor();
+        mWorkerCount = loaderConfig.getWorkerCount();
+        mReadAheadMillis = loaderConfig.getReadAheadMillis();
+        mCacheBudget = loaderConfig.getCacheBudget();
 
         mTileList = new TileList<T>(mTileSize);
 
-        ThreadUtil<T> threadUtil = new MessageThreadUtil<T>();
+        ThreadUtil<T> threadUtil = new MessageThreadUtil<T>(mLoaderExecutor);
         mMainThreadProxy = threadUtil.getMainThreadProxy(mMainThreadCallback);
         mBackgroundProxy = threadUtil.getBackgroundProxy(mBackgroundCallback);
 
@@ -185,6 +227,17 @@ public class AsyncListUtil<T> {
             return;
         }
 
+        final long now = SystemClock.uptimeMillis();
+        if (mAllowScrollHints && now > mPrevRangeTimeMs
+                && mTmpRange[0] <= mPrevRange[1] && mPrevRange[0] <= mTmpRange[1]) {
+            final float velocity =
+                    Math.abs(mTmpRange[0] - mPrevRange[0]) * 1000f / (now - mPrevRangeTimeMs);
+            mScrollVelocity = (mScrollVelocity + velocity) / 2;
+        } else {
+            mScrollVelocity = 0;
+        }
+        mPrevRangeTimeMs = now;
+
         if (!mAllowScrollHints) {
             mScrollHint = ViewCallback.HINT_SCROLL_NONE;
         } else if (mTmpRange[0] > mPrevRange[1] || mPrevRange[0] > mTmpRange[1]) {
@@ -200,6 +253,17 @@ public class AsyncListUtil<T> {
         mPrevRange[1] = mTmpRange[1];
 
         mViewCallback.extendRangeInto(mTmpRange, mTmpRangeExtended, mScrollHint);
+        if (mReadAheadMillis > 0 && mScrollHint != ViewCallback.HINT_SCROLL_NONE) {
+            // Read further ahead the faster the list scrolls, so that loading keeps up.
+            final int visibleCount = mTmpRange[1] - mTmpRange[0] + 1;
+            final int readAhead = (int) Math.min(mScrollVelocity * mReadAheadMillis / 1000f,
+                    (float) visibleCount * MAX_READ_AHEAD_RANGES);
+            if (mScrollHint == ViewCallback.HINT_SCROLL_ASC) {
+                mTmpRangeExtended[1] += readAhead;
+            } else {
+                mTmpRangeExtended[0] -= readAhead;
+            }
+        }
         mTmpRangeExtended[0] = Math.min(mTmpRange[0], Math.max(mTmpRangeExtended[0], 0));
         mTmpRangeExtended[1] =
                 Math.max(mTmpRange[1], Math.min(mTmpRangeExtended[1], mItemCount - 1));
@@ -246,6 +310,9 @@ public class AsyncListUtil<T> {
                 log("gen #%d, added tile @%d, total tiles: %d",
                         generation, tile.mStartPosition, mTileList.size());
             }
+            if (mCacheBudget > 0) {
+                trimTileCache(generation);
+            }
             int endPosition = tile.mStartPosition + tile.mItemCount;
             int index = 0;
             while (index < mMissingPositions.size()) {
@@ -275,6 +342,25 @@ public class AsyncListUtil<T> {
             mBackgroundProxy.recycleTile(tile);
         }
 
+        /**
+         * Evicts the least recently used tiles outside the required range until the cache fits
+         * its memory budget.
+         */
+        private void trimTileCache(int generation) {
+            while (mTileList.getMemorySize() > mCacheBudget) {
+                TileList.Tile<T> tile = mTileList.removeLeastRecentlyUsed(
+                        mTmpRangeExtended[0], mTmpRangeExtended[1]);
+                if (tile == null) {
+                    return;
+                }
+                if (DEBUG) {
+                    log("evicting tile @%d, total tiles: %d",
+                            tile.mStartPosition, mTileList.size());
+                }
+                mBackgroundProxy.evictTile(generation, tile);
+            }
+        }
+
         private void recycleAllTiles() {
             if (DEBUG) {
                 log("recycling all %d tiles", mTileList.size());
@@ -297,8 +383,18 @@ public class AsyncListUtil<T> {
 
         final SparseBooleanArray mLoadedTiles = new SparseBooleanArray();
 
+        // Tiles of the current generation handed to a worker and not added yet.
+        final SparseBooleanArray mLoadingTiles = new SparseBooleanArray();
+        private int mLoadingCount;
+
+        // Start positions of the tiles waiting for a worker, in the order to load them.
+        private int[] mPendingTiles = new int[16];
+        private int mPendingHead;
+        private int mPendingCount;
+
         private int mGeneration;
         private int mItemCount;
+        private int mScrollHint;
 
         private int mFirstRequiredTileStart;
         private int mLastRequiredTileStart;
@@ -307,6 +403,8 @@ public class AsyncListUtil<T> {
         public void refresh(int generation) {
             mGeneration = generation;
             mLoadedTiles.clear();
+            mLoadingTiles.clear();
+            mPendingCount = 0;
             mItemCount = mDataCallback.refreshData();
             mMainThreadProxy.updateItemCount(mGeneration, mItemCount);
         }
@@ -328,21 +426,44 @@ public class AsyncListUtil<T> {
 
             mFirstRequiredTileStart = getTileStart(extRangeStart);
             mLastRequiredTileStart = getTileStart(extRangeEnd);
+            mScrollHint = scrollHint;
             if (DEBUG) {
                 log("requesting tile range: %d..%d",
                         mFirstRequiredTileStart, mLastRequiredTileStart);
             }
 
-            // All pending tile requests are removed by ThreadUtil at this point.
+            // All pending tile requests are removed by ThreadUtil at this point, and the tiles
+            // waiting for a worker are dropped here, so tiles that scrolled out are not loaded.
             // Re-request all required tiles in the most optimal order.
-            if (scrollHint == ViewCallback.HINT_SCROLL_DESC) {
-                requestTiles(mFirstRequiredTileStart, lastVisibleTileStart, scrollHint, true);
-                requestTiles(lastVisibleTileStart + mTileSize, mLastRequiredTileStart, scrollHint,
-                        false);
-            } else {
-                requestTiles(firstVisibleTileStart, mLastRequiredTileStart, scrollHint, false);
-                requestTiles(mFirstRequiredTileStart, firstVisibleTileStart - mTileSize, scrollHint,
-                        true);
+            mPendingCount = 0;
+            requestTiles(firstVisibleTileStart, lastVisibleTileStart, scrollHint,
+                    scrollHint == ViewCallback.HINT_SCROLL_DESC);
+            requestTilesAround(firstVisibleTileStart, lastVisibleTileStart, scrollHint);
+        }
+
+        /**
+         * Requests the required tiles outside the visible ones, nearest first. Tiles behind the
+         * scroll direction count as twice as far as the ones ahead of it.
+         */
+        private void requestTilesAround(int firstVisibleTileStart, int lastVisibleTileStart,
+                int scrollHint) {
+            final int afterWeight = scrollHint == ViewCallback.HINT_SCROLL_DESC ? 2 : 1;
+            final int beforeWeight = scrollHint == ViewCallback.HINT_SCROLL_ASC ? 2 : 1;
+            int after = lastVisibleTileStart + mTileSize;
+            int before = firstVisibleTileStart - mTileSize;
+            while (after <= mLastRequiredTileStart || before >= mFirstRequiredTileStart) {
+                final long afterDistance = after <= mLastRequiredTileStart
+                        ? (long) (after - lastVisibleTileStart) * afterWeight : Long.MAX_VALUE;
+                final long beforeDistance = before >= mFirstRequiredTileStart
+                        ? (long) (firstVisibleTileStart - before) * beforeWeight : Long.MAX_VALUE;
+                if (afterDistance < beforeDistance || (afterDistance == beforeDistance
+                        && scrollHint != ViewCallback.HINT_SCROLL_DESC)) {
+                    requestTiles(after, after, scrollHint, false);
+                    after += mTileSize;
+                } else {
+                    requestTiles(before, before, scrollHint, false);
+                    before -= mTileSize;
+                }
             }
         }
 
@@ -369,14 +490,107 @@ public class AsyncListUtil<T> {
                 }
                 return;
             }
+            if (mWorkerCount > 1) {
+                if (!mLoadingTiles.get(position)) {
+                    enqueuePendingTile(position);
+                    dispatchPendingTiles();
+                }
+                return;
+            }
             TileList.Tile<T> tile = acquireTile();
             tile.mStartPosition = position;
             tile.mItemCount = Math.min(mTileSize, mItemCount - tile.mStartPosition);
             mDataCallback.fillData(tile.mItems, tile.mStartPosition, tile.mItemCount);
+            measureTile(tile);
             flushTileCache(scrollHint);
             addTile(tile);
         }
 
+        @Override
+        public void addLoadedTile(int generation, TileList.Tile<T> tile) {
+            mLoadingCount--;
+            if (generation != mGeneration) {
+                if (DEBUG) {
+                    log("discarding an older generation tile @%d", tile.mStartPosition);
+                }
+                recycleTile(tile);
+            } else {
+                mLoadingTiles.delete(tile.mStartPosition);
+                if (!isTileRequired(tile.mStartPosition) || isTileLoaded(tile.mStartPosition)) {
+                    if (DEBUG) {
+                        log("discarding tile @%d that scrolled out", tile.mStartPosition);
+                    }
+                    recycleTile(tile);
+                } else {
+                    flushTileCache(mScrollHint);
+                    addTile(tile);
+                }
+            }
+            dispatchPendingTiles();
+        }
+
+        @Override
+        public void evictTile(int generation, TileList.Tile<T> tile) {
+            if (generation == mGeneration) {
+                mLoadedTiles.delete(tile.mStartPosition);
+            }
+            recycleTile(tile);
+        }
+
+        private void enqueuePendingTile(int position) {
+            if (mPendingCount == 0) {
+                mPendingHead = 0;
+            } else if (mPendingHead + mPendingCount == mPendingTiles.length) {
+                final int[] pendingTiles = mPendingHead > mPendingTiles.length / 2
+                        ? mPendingTiles : new int[mPendingTiles.length * 2];
+                System.arraycopy(mPendingTiles, mPendingHead, pendingTiles, 0, mPendingCount);
+                mPendingTiles = pendingTiles;
+                mPendingHead = 0;
+            }
+            mPendingTiles[mPendingHead + mPendingCount++] = position;
+        }
+
+        /**
+         * Hands the pending tiles to workers until all of them are busy.
+         */
+        private void dispatchPendingTiles() {
+            while (mLoadingCount < mWorkerCount && mPendingCount > 0) {
+                final int position = mPendingTiles[mPendingHead++];
+                mPendingCount--;
+                if (!isTileRequired(position) || isTileLoaded(position)
+                        || mLoadingTiles.get(position)) {
+                    continue;
+                }
+
+                final TileList.Tile<T> tile = acquireTile();
+                tile.mStartPosition = position;
+                tile.mItemCount = Math.min(mTileSize, mItemCount - tile.mStartPosition);
+                final int generation = mGeneration;
+                mLoadingTiles.put(position, true);
+                mLoadingCount++;
+                if (DEBUG) {
+                    log("loading tile @%d, %d workers busy", position, mLoadingCount);
+                }
+                mLoaderExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        mDataCallback.fillData(tile.mItems, tile.mStartPosition, tile.mItemCount);
+                        measureTile(tile);
+                        mBackgroundProxy.addLoadedTile(generation, tile);
+                    }
+                });
+            }
+        }
+
+        private boolean isTileRequired(int position) {
+            return mFirstRequiredTileStart <= position && position <= mLastRequiredTileStart;
+        }
+
+        private void measureTile(TileList.Tile<T> tile) {
+            tile.mMemorySize = mCacheBudget > 0
+                    ? mDataCallback.getDataSize(tile.mItems, tile.mItemCount) : 0;
+        }
+
         @Override
         public void recycleTile(TileList.Tile<T> tile) {
             if (DEBUG) {
@@ -418,6 +632,10 @@ public class AsyncListUtil<T> {
         }
 
         private void flushTileCache(int scrollHint) {
+            if (mCacheBudget > 0) {
+                // The main thread evicts tiles by their memory size instead.
+                return;
+            }
             final int cacheSizeLimit = mDataCallback.getMaxCachedTiles();
             while (mLoadedTiles.size() >= cacheSizeLimit) {
                 int firstLoadedTileStart = mLoadedTiles.keyAt(0);
@@ -510,6 +728,158 @@ public class AsyncListUtil<T> {
         public int getMaxCachedTiles() {
             return 10;
         }
+
+        /**
+         * Returns the memory size of a filled tile, in the unit of
+         * {@link LoaderConfig.Builder#setCacheBudget(long)}. Only called if the cache has a
+         * budget.
+         * <p>
+         * The default implementation returns the item count, so that the budget is a number of
+         * items.
+         *
+         * @param data Array of data items. Should not be accessed beyond <code>itemCount</code>.
+         * @param itemCount The data item count.
+         * @return The memory size of the tile.
+         */
+        @WorkerThread
+        public int getDataSize(@NonNull T[] data, int itemCount) {
+            return itemCount;
+        }
+    }
+
+    /**
+     * Configures how {@link AsyncListUtil} loads and caches tiles.
+     */
+    public static final class LoaderConfig {
+        private final Executor mExecutor;
+        private final int mWorkerCount;
+        private final int mReadAheadMillis;
+        private final long mCacheBudget;
+
+        LoaderConfig(Executor executor, int workerCount, int readAheadMillis, long cacheBudget) {
+            mExecutor = executor;
+            mWorkerCount = workerCount;
+            mReadAheadMillis = readAheadMillis;
+            mCacheBudget = cacheBudget;
+        }
+
+        /**
+         * Returns the executor tiles are loaded on.
+         */
+        @NonNull
+        public Executor getExecutor() {
+            return mExecutor;
+        }
+
+        /**
+         * Returns the number of tiles that are loaded at the same time.
+         */
+        public int getWorkerCount() {
+            return mWorkerCount;
+        }
+
+        /**
+         * Returns how far ahead of the visible range tiles are loaded while scrolling, in
+         * milliseconds of scrolling at the current speed, or 0 if the speed is not considered.
+         */
+        public int getReadAheadMillis() {
+            return mReadAheadMillis;
+        }
+
+        /**
+         * Returns the memory budget of the tile cache, or 0 if the cache is limited by
+         * {@link DataCallback#getMaxCachedTiles()}.
+         */
+        public long getCacheBudget() {
+            return mCacheBudget;
+        }
+
+        /**
+         * Builder class for {@link LoaderConfig}.
+         */
+        public static final class Builder {
+            private Executor mExecutor;
+            private int mWorkerCount = 1;
+            private int mReadAheadMillis;
+            private long mCacheBudget;
+
+            /**
+             * Sets the executor tiles are loaded on. It must be able to run one more task than
+             * the worker count at the same time, as tile bookkeeping runs on it too.
+             * <p>
+             * If not provided or null, defaults to the executor of {@code AsyncTask}.
+             *
+             * @param executor The executor to load tiles on.
+             * @return this
+             */
+            @NonNull
+            public Builder setExecutor(@Nullable Executor executor) {
+                mExecutor = executor;
+                return this;
+            }
+
+            /**
+             * Sets the number of tiles that are loaded at the same time. With more than one
+             * worker, {@link DataCallback#fillData(Object[], int, int)} is called from several
+             * threads at once. Defaults to 1.
+             *
+             * @param workerCount Number of workers, at least 1.
+             * @return this
+             */
+            @NonNull
+            public Builder setWorkerCount(int workerCount) {
+                if (workerCount < 1) {
+                    throw new IllegalArgumentException("Worker count must be at least 1");
+                }
+                mWorkerCount = workerCount;
+                return this;
+            }
+
+            /**
+             * Sets how far ahead of the visible range tiles are loaded while scrolling, in
+             * milliseconds of scrolling at the current speed. The range returned by
+             * {@link ViewCallback#extendRangeInto(int[], int[], int)} is extended in the scroll
+             * direction by the number of items that scroll by in this time, up to four times
+             * the visible range. Defaults to 0, which does not consider the scroll speed.
+             *
+             * @param readAheadMillis Read-ahead time in milliseconds.
+             * @return this
+             */
+            @NonNull
+            public Builder setReadAheadMillis(int readAheadMillis) {
+                mReadAheadMillis = Math.max(0, readAheadMillis);
+                return this;
+            }
+
+            /**
+             * Sets a memory budget for the tile cache, in the unit of
+             * {@link DataCallback#getDataSize(Object[], int)}. When the loaded tiles exceed it,
+             * the least recently read tiles outside the required range are evicted. The budget
+             * replaces {@link DataCallback#getMaxCachedTiles()}. Defaults to 0, no budget.
+             *
+             * @param cacheBudget The memory budget, or 0.
+             * @return this
+             */
+            @NonNull
+            public Builder setCacheBudget(long cacheBudget) {
+                mCacheBudget = Math.max(0, cacheBudget);
+                return this;
+            }
+
+            /**
+             * Creates a {@link LoaderConfig} with the given parameters.
+             *
+             * @return A new LoaderConfig.
+             */
+            @SuppressWarnings("deprecation") /* AsyncTask */
+            @NonNull
+            public LoaderConfig build() {
+                if (mExecutor == null) {
+                    mExecutor = android.os.AsyncTask.THREAD_POOL_EXECUTOR;
+                }
+                return new LoaderConfig(mExecutor, mWorkerCount, mReadAheadMillis, mCacheBudget);
+            }
+        }
     }
 
     /**
@@ -16,6 +16,9 @@
 
 package androidx.recyclerview.widget;
 
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -28,6 +31,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * DiffUtil is a utility class that calculates the difference between two lists and outputs a
@@ -61,6 +66,13 @@ import java.util.List;
  * the same constraint (e.g. a created timestamp for a list of posts), you can disable move
  * detection to improve performance.
  * <p>
+ * If every item in both lists has an id that is unique within its list, as reported by
+ * {@link Callback#getOldItemId(int)} and {@link Callback#getNewItemId(int)} or
+ * {@link ItemCallback#getItemId(Object)}, {@link #calculateDiff(Callback, DiffConfig)} skips
+ * Myers' algorithm: it matches the items through their ids, keeps the longest run of matches
+ * that are in the same order in both lists in place, and reports the other matches as moves,
+ * in O(N log N) time with a single {@link Callback#areItemsTheSame(int, int)} call per match.
+ * <p>
  * The actual runtime of the algorithm significantly depends on the number of changes in the list
  * and the cost of your comparison methods. Below are some average run times for reference:
  * (The test list is composed of random UUID Strings and the tests are run on Nexus 5X with M)
@@ -75,6 +87,13 @@ import java.util.List;
  * </ul>
  * <p>
  * Due to implementation constraints, the max size of the list can be 2^26.
+ * <p>
+ * For large lists, {@link #calculateDiff(Callback, DiffConfig)} can make use of item ids
+ * reported by {@link Callback#getOldItemId(int)} and {@link Callback#getNewItemId(int)}: items
+ * whose id is unique in both lists split the lists into independent chunks that are diffed in
+ * parallel, and moves are matched through a hash index of ids instead of comparing every removal
+ * with every addition. The calculation can also be cancelled with a {@link CancellationSignal}
+ * and reports its timing through the {@link DiffResult}.
  *
  * @see ListAdapter
  * @see AsyncListDiffer
@@ -84,6 +103,20 @@ public class DiffUtil {
         // utility class, no instance.
     }
 
+    /**
+     * Lists with fewer items in total are diffed in one piece even if a parallel executor is
+     * configured.
+     */
+    private static final int MIN_PARTITIONED_DIFF_SIZE = 2048;
+
+    /**
+     * Minimum number of items a parallel diff task covers, so that tiny chunks between close
+     * anchors are diffed together.
+     */
+    private static final int MIN_PARALLEL_TASK_SIZE = 512;
+
+    private static final int DUPLICATE_ID = -2;
+
     private static final Comparator<Diagonal> DIAGONAL_COMPARATOR = new Comparator<Diagonal>() {
         @Override
         public int compare(Diagonal o1, Diagonal o2) {
@@ -121,17 +154,12 @@ public class DiffUtil {
      */
     @NonNull
     public static DiffResult calculateDiff(@NonNull Callback cb, boolean detectMoves) {
+        final long startNs = System.nanoTime();
         final int oldSize = cb.getOldListSize();
         final int newSize = cb.getNewListSize();
 
         final List<Diagonal> diagonals = new ArrayList<>();
 
-        // instead of a recursive implementation, we keep our own stack to avoid potential stack
-        // overflow exceptions
-        final List<Range> stack = new ArrayList<>();
-
-        stack.add(new Range(0, oldSize, 0, newSize));
-
         final int max = (oldSize + newSize + 1) / 2;
         // allocate forward and backward k-lines. K lines are diagonal lines in the matrix. (see the
         // paper for details)
@@ -139,11 +167,117 @@ public class DiffUtil {
         final CenteredArray forward = new CenteredArray(max * 2 + 1);
         final CenteredArray backward = new CenteredArray(max * 2 + 1);
 
+        findDiagonals(new Range(0, oldSize, 0, newSize), cb, forward, backward, null, diagonals);
+        // sort snakes
+        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
+
+        return new DiffResult(cb, diagonals,
+                forward.backingData(), backward.backingData(),
+                detectMoves, null, null, null, System.nanoTime() - startNs, 1);
+    }
+
+    /**
+     * Calculates the list of update operations that can covert one list into the other one,
+     * as configured by {@code config}.
+     * <p>
+     * If every item has an id that is unique within its list, the lists are matched through
+     * their ids alone, without running Myers' algorithm. Otherwise, if the callback reports
+     * item ids, items whose id is unique in both lists and that appear in the same order in
+     * both are used as anchors: the stretches between anchors are diffed on their own, in
+     * parallel on the {@link DiffConfig#getParallelExecutor() parallel executor} when one is
+     * configured and the lists are large enough, and moves are matched through a hash index of
+     * ids. The callback must then be safe to call from several threads at once.
+     * Anchoring may produce a slightly longer edit script than a single Myers pass over the
+     * whole lists would.
+     * <p>
+     * If the {@link DiffConfig#getCancellationSignal() cancellation signal} is cancelled, the
+     * calculation stops at its next check and throws an {@link OperationCanceledException}.
+     *
+     * @param cb     The callback that acts as a gateway to the backing list data
+     * @param config How to calculate the diff.
+     * @return A DiffResult that contains the information about the edit sequence to convert the
+     * old list into the new list.
+     * @throws OperationCanceledException If the calculation was cancelled.
+     */
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback cb, @NonNull DiffConfig config) {
+        final long startNs = System.nanoTime();
+        final CancellationSignal signal = config.getCancellationSignal();
+        final int oldSize = cb.getOldListSize();
+        final int newSize = cb.getNewListSize();
+
+        long[] oldIds = getItemIds(cb, oldSize, true);
+        long[] newIds = oldIds != null ? getItemIds(cb, newSize, false) : null;
+        if (newIds == null) {
+            oldIds = null;
+        }
+
+        final List<Range> ranges = new ArrayList<>();
+        final List<Diagonal> diagonals = new ArrayList<>();
+        final Executor executor = config.getParallelExecutor();
+        boolean partitioned = false;
+        if (oldIds != null) {
+            final LongIndexMap oldIndex = indexIds(oldIds);
+            final LongIndexMap newIndex = indexIds(newIds);
+            // every position added a distinct key, so no id is missing or repeated
+            final boolean uniqueIds = oldIndex.size() == oldSize && newIndex.size() == newSize;
+            if (uniqueIds || (executor != null
+                    && oldSize + newSize >= MIN_PARTITIONED_DIFF_SIZE)) {
+                partitioned = true;
+                final boolean anchorsConfirmed = findAnchoredRanges(cb, oldIds, newIds,
+                        oldIndex, newIndex, signal, ranges, diagonals);
+                if (uniqueIds && anchorsConfirmed) {
+                    // Any match left between two anchors would extend the run of anchors, so
+                    // the ranges hold only additions, removals and moves.
+                    ranges.clear();
+                }
+            }
+        }
+        if (!partitioned) {
+            ranges.add(new Range(0, oldSize, 0, newSize));
+        }
+
+        if (executor != null && ranges.size() > 1 && config.getParallelism() > 1) {
+            findDiagonalsInParallel(cb, ranges, executor, config.getParallelism(), signal,
+                    diagonals);
+        } else {
+            for (int i = 0; i < ranges.size(); i++) {
+                findDiagonals(ranges.get(i), cb, signal, diagonals);
+            }
+        }
+        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
+        mergeAdjacentDiagonals(diagonals);
+
+        return new DiffResult(cb, diagonals, new int[oldSize], new int[newSize],
+                config.isDetectMoves(), signal, oldIds, newIds, System.nanoTime() - startNs,
+                ranges.size());
+    }
+
+    /**
+     * Runs Myers' algorithm on {@code range} and adds the diagonals it finds to
+     * {@code diagonals}. The k-line arrays must be large enough for the range.
+     */
+    private static void findDiagonals(
+            Range range,
+            Callback cb,
+            CenteredArray forward,
+            CenteredArray backward,
+            @Nullable CancellationSignal signal,
+            List<Diagonal> diagonals) {
+        // instead of a recursive implementation, we keep our own stack to avoid potential stack
+        // overflow exceptions
+        final List<Range> stack = new ArrayList<>();
+
+        stack.add(range);
+
         // We pool the ranges to avoid allocations for each recursive call.
         final List<Range> rangePool = new ArrayList<>();
         while (!stack.isEmpty()) {
-            final Range range = stack.remove(stack.size() - 1);
-            final Snake snake = midPoint(range, cb, forward, backward);
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
+            final Range current = stack.remove(stack.size() - 1);
+            final Snake snake = midPoint(current, cb, forward, backward, signal);
             if (snake != null) {
                 // if it has a diagonal, save it
                 if (snake.diagonalSize() > 0) {
@@ -152,31 +286,206 @@ public class DiffUtil {
                 // add new ranges for left and right
                 final Range left = rangePool.isEmpty() ? new Range() : rangePool.remove(
                         rangePool.size() - 1);
-                left.oldListStart = range.oldListStart;
-                left.newListStart = range.newListStart;
+                left.oldListStart = current.oldListStart;
+                left.newListStart = current.newListStart;
                 left.oldListEnd = snake.startX;
                 left.newListEnd = snake.startY;
                 stack.add(left);
 
                 // re-use range for right
                 //noinspection UnnecessaryLocalVariable
-                final Range right = range;
-                right.oldListEnd = range.oldListEnd;
-                right.newListEnd = range.newListEnd;
+                final Range right = current;
+                right.oldListEnd = current.oldListEnd;
+                right.newListEnd = current.newListEnd;
                 right.oldListStart = snake.endX;
                 right.newListStart = snake.endY;
                 stack.add(right);
             } else {
-                rangePool.add(range);
+                rangePool.add(current);
             }
 
         }
-        // sort snakes
-        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
+    }
 
-        return new DiffResult(cb, diagonals,
-                forward.backingData(), backward.backingData(),
-                detectMoves);
+    /**
+     * Runs Myers' algorithm on {@code range} with k-line arrays sized for it.
+     */
+    static void findDiagonals(Range range, Callback cb, @Nullable CancellationSignal signal,
+            List<Diagonal> diagonals) {
+        final int max = (range.oldSize() + range.newSize() + 1) / 2;
+        findDiagonals(range, cb, new CenteredArray(max * 2 + 1),
+                new CenteredArray(max * 2 + 1), signal, diagonals);
+    }
+
+    /**
+     * Returns the ids the callback reports for one of the lists, or {@code null} if it reports
+     * none.
+     */
+    @Nullable
+    static long[] getItemIds(Callback cb, int size, boolean oldList) {
+        long[] ids = null;
+        for (int i = 0; i < size; i++) {
+            final long id = oldList ? cb.getOldItemId(i) : cb.getNewItemId(i);
+            if (id != RecyclerView.NO_ID && ids == null) {
+                ids = new long[size];
+                Arrays.fill(ids, 0, i, RecyclerView.NO_ID);
+            }
+            if (ids != null) {
+                ids[i] = id;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Indexes the ids that appear once in the list. Ids that appear more than once map to
+     * {@link #DUPLICATE_ID}.
+     */
+    @NonNull
+    static LongIndexMap indexIds(long[] ids) {
+        final LongIndexMap index = new LongIndexMap(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != RecyclerView.NO_ID
+                    && index.put(ids[i], i) != LongIndexMap.ABSENT) {
+                index.put(ids[i], DUPLICATE_ID);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Splits the lists around anchors, items whose id is unique in both lists and that keep
+     * their relative order, and adds a diagonal for each anchor and the ranges between them that
+     * still need to be diffed. Returns {@code false} if
+     * {@link Callback#areItemsTheSame(int, int)} rejected any of the candidate anchors.
+     */
+    private static boolean findAnchoredRanges(Callback cb, long[] oldIds, long[] newIds,
+            LongIndexMap oldIndex, LongIndexMap newIndex, @Nullable CancellationSignal signal,
+            List<Range> ranges, List<Diagonal> anchors) {
+        final int[] pairOld = new int[oldIds.length];
+        final int[] pairNew = new int[oldIds.length];
+        int pairCount = 0;
+        for (int oldPosition = 0; oldPosition < oldIds.length; oldPosition++) {
+            final long id = oldIds[oldPosition];
+            if (id == RecyclerView.NO_ID || oldIndex.get(id) != oldPosition) {
+                continue;
+            }
+            final int newPosition = newIndex.get(id);
+            if (newPosition >= 0) {
+                pairOld[pairCount] = oldPosition;
+                pairNew[pairCount] = newPosition;
+                pairCount++;
+            }
+        }
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+
+        // The pairs are in old list order; the longest run of them that is also in new list
+        // order can be matched without crossing.
+        final int[] sequence = longestIncreasingSubsequence(pairNew, pairCount);
+        boolean allConfirmed = true;
+        int oldStart = 0;
+        int newStart = 0;
+        for (int index : sequence) {
+            final int oldPosition = pairOld[index];
+            final int newPosition = pairNew[index];
+            if (!cb.areItemsTheSame(oldPosition, newPosition)) {
+                allConfirmed = false;
+                continue;
+            }
+            addRange(ranges, oldStart, oldPosition, newStart, newPosition);
+            anchors.add(new Diagonal(oldPosition, newPosition, 1));
+            oldStart = oldPosition + 1;
+            newStart = newPosition + 1;
+        }
+        addRange(ranges, oldStart, oldIds.length, newStart, newIds.length);
+        return allConfirmed;
+    }
+
+    private static void addRange(List<Range> ranges, int oldStart, int oldEnd, int newStart,
+            int newEnd) {
+        // Without items on both sides there is nothing to match; the DiffResult sees the
+        // items as plain additions or removals.
+        if (oldEnd > oldStart && newEnd > newStart) {
+            ranges.add(new Range(oldStart, oldEnd, newStart, newEnd));
+        }
+    }
+
+    /**
+     * Returns the indices of a longest strictly increasing subsequence of the first
+     * {@code count} values, in order.
+     */
+    @NonNull
+    static int[] longestIncreasingSubsequence(int[] values, int count) {
+        final int[] tails = new int[count];
+        final int[] previous = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        final int[] sequence = new int[length];
+        for (int i = length - 1, index = length > 0 ? tails[length - 1] : -1; i >= 0; i--) {
+            sequence[i] = index;
+            index = previous[index];
+        }
+        return sequence;
+    }
+
+    /**
+     * Joins sorted diagonals that continue each other, such as neighbouring anchors.
+     */
+    private static void mergeAdjacentDiagonals(List<Diagonal> diagonals) {
+        int merged = 0;
+        for (int i = 0; i < diagonals.size(); i++) {
+            final Diagonal diagonal = diagonals.get(i);
+            if (merged > 0) {
+                final Diagonal last = diagonals.get(merged - 1);
+                if (last.endX() == diagonal.x && last.endY() == diagonal.y) {
+                    diagonals.set(merged - 1,
+                            new Diagonal(last.x, last.y, last.size + diagonal.size));
+                    continue;
+                }
+            }
+            diagonals.set(merged++, diagonal);
+        }
+        while (diagonals.size() > merged) {
+            diagonals.remove(diagonals.size() - 1);
+        }
+    }
+
+    /**
+     * Diffs {@code ranges} on {@code executor} and the calling thread, and adds the diagonals
+     * found to {@code diagonals}.
+     */
+    private static void findDiagonalsInParallel(Callback cb, List<Range> ranges,
+            Executor executor, int parallelism, @Nullable CancellationSignal signal,
+            List<Diagonal> diagonals) {
+        final ParallelDiff diff = new ParallelDiff(cb, ranges, signal);
+        // The calling thread takes part too, so the diff completes even if the executor is busy
+        // or is the one running this call.
+        final int helperCount = Math.min(parallelism, diff.mTaskCount) - 1;
+        for (int i = 0; i < helperCount; i++) {
+            executor.execute(diff);
+        }
+        diff.run();
+        diff.awaitCompletion();
+        diagonals.addAll(diff.mDiagonals);
     }
 
     /**
@@ -187,7 +496,8 @@ public class DiffUtil {
             Range range,
             Callback cb,
             CenteredArray forward,
-            CenteredArray backward) {
+            CenteredArray backward,
+            @Nullable CancellationSignal signal) {
         if (range.oldSize() < 1 || range.newSize() < 1) {
             return null;
         }
@@ -195,6 +505,9 @@ public class DiffUtil {
         forward.set(1, range.oldListStart);
         backward.set(1, range.oldListEnd);
         for (int d = 0; d < max; d++) {
+            if (signal != null) {
+                signal.throwIfCanceled();
+            }
             Snake snake = forward(range, cb, forward, backward, d);
             if (snake != null) {
                 return snake;
@@ -395,6 +708,267 @@ public class DiffUtil {
         public Object getChangePayload(int oldItemPosition, int newItemPosition) {
             return null;
         }
+
+        /**
+         * Returns a stable id of the item at the given position in the old list, or
+         * {@link RecyclerView#NO_ID} if it has none.
+         * <p>
+         * {@link DiffUtil#calculateDiff(Callback, DiffConfig)} uses ids to split large lists and
+         * to match moved items without comparing every removal with every addition. If two
+         * items both have an id, {@link #areItemsTheSame(int, int)} must only return
+         * {@code true} for them if their ids are equal.
+         * <p>
+         * Default implementation returns {@link RecyclerView#NO_ID}.
+         *
+         * @param oldItemPosition The position of the item in the old list
+         * @return The id of the item, or {@link RecyclerView#NO_ID}.
+         */
+        public long getOldItemId(int oldItemPosition) {
+            return RecyclerView.NO_ID;
+        }
+
+        /**
+         * Returns a stable id of the item at the given position in the new list, or
+         * {@link RecyclerView#NO_ID} if it has none.
+         *
+         * @param newItemPosition The position of the item in the new list
+         * @return The id of the item, or {@link RecyclerView#NO_ID}.
+         * @see #getOldItemId(int)
+         */
+        public long getNewItemId(int newItemPosition) {
+            return RecyclerView.NO_ID;
+        }
+    }
+
+    /**
+     * Configures how {@link DiffUtil#calculateDiff(Callback, DiffConfig)} calculates a diff.
+     */
+    public static final class DiffConfig {
+        private final boolean mDetectMoves;
+        @Nullable
+        private final Executor mParallelExecutor;
+        private final int mParallelism;
+        @Nullable
+        private final CancellationSignal mCancellationSignal;
+
+        DiffConfig(boolean detectMoves, @Nullable Executor parallelExecutor, int parallelism,
+                @Nullable CancellationSignal cancellationSignal) {
+            mDetectMoves = detectMoves;
+            mParallelExecutor = parallelExecutor;
+            mParallelism = parallelism;
+            mCancellationSignal = cancellationSignal;
+        }
+
+        /**
+         * Returns whether moved items are detected.
+         */
+        public boolean isDetectMoves() {
+            return mDetectMoves;
+        }
+
+        /**
+         * Returns the executor chunks of the lists are diffed on, or {@code null} to diff on
+         * the calling thread only.
+         */
+        @Nullable
+        public Executor getParallelExecutor() {
+            return mParallelExecutor;
+        }
+
+        /**
+         * Returns the largest number of threads, including the calling one, that diff at once.
+         */
+        public int getParallelism() {
+            return mParallelism;
+        }
+
+        /**
+         * Returns the signal that cancels the calculation, if any.
+         */
+        @Nullable
+        public CancellationSignal getCancellationSignal() {
+            return mCancellationSignal;
+        }
+
+        /**
+         * Builder class for {@link DiffConfig}.
+         */
+        public static final class Builder {
+            private boolean mDetectMoves = true;
+            @Nullable
+            private Executor mParallelExecutor;
+            private int mParallelism = Runtime.getRuntime().availableProcessors();
+            @Nullable
+            private CancellationSignal mCancellationSignal;
+
+            /**
+             * Sets whether moved items should be detected. Defaults to {@code true}.
+             *
+             * @param detectMoves True if DiffUtil should try to detect moved items.
+             * @return this
+             */
+            @NonNull
+            public Builder setDetectMoves(boolean detectMoves) {
+                mDetectMoves = detectMoves;
+                return this;
+            }
+
+            /**
+             * Sets an executor to diff independent chunks of large lists on. Lists are only
+             * split if the callback reports item ids, and the callback must then be safe to
+             * call from the executor's threads.
+             *
+             * @param executor The executor, or {@code null} to diff on the calling thread.
+             * @return this
+             */
+            @NonNull
+            public Builder setParallelExecutor(@Nullable Executor executor) {
+                mParallelExecutor = executor;
+                return this;
+            }
+
+            /**
+             * Sets the largest number of threads, including the calling one, that diff at
+             * once. Defaults to the number of available processors.
+             *
+             * @param parallelism Number of threads, at least 1.
+             * @return this
+             */
+            @NonNull
+            public Builder setParallelism(int parallelism) {
+                if (parallelism < 1) {
+                    throw new IllegalArgumentException("Parallelism must be at least 1");
+                }
+                mParallelism = parallelism;
+                return this;
+            }
+
+            /**
+             * Sets a signal that cancels the calculation, which then throws an
+             * {@link OperationCanceledException}.
+             *
+             * @param signal The signal, or {@code null}.
+             * @return this
+             */
+            @NonNull
+            public Builder setCancellationSignal(@Nullable CancellationSignal signal) {
+                mCancellationSignal = signal;
+                return this;
+            }
+
+            /**
+             * Creates a {@link DiffConfig} with the given parameters.
+             *
+             * @return A new DiffConfig.
+             */
+            @NonNull
+            public DiffConfig build() {
+                return new DiffConfig(mDetectMoves, mParallelExecutor, mParallelism,
+                        mCancellationSignal);
+            }
+        }
+    }
+
+    /**
+     * Diffs the ranges of a partitioned diff on several threads. Each thread takes the next
+     * range that is not taken yet, until all are done.
+     */
+    private static final class ParallelDiff implements Runnable {
+        final Callback mCallback;
+        final List<Range> mRanges;
+        @Nullable
+        final CancellationSignal mSignal;
+        final List<Diagonal> mDiagonals = new ArrayList<>();
+        final int mTaskCount;
+        // Index of the first range of each task; ranges are grouped so that tasks are not tiny.
+        private final int[] mTaskStarts;
+        private final AtomicInteger mNextTask = new AtomicInteger();
+        private int mRemainingTasks;
+        private Throwable mError;
+
+        ParallelDiff(Callback callback, List<Range> ranges, @Nullable CancellationSignal signal) {
+            mCallback = callback;
+            mRanges = ranges;
+            mSignal = signal;
+
+            final int[] taskStarts = new int[ranges.size() + 1];
+            int taskCount = 0;
+            int taskSize = 0;
+            for (int i = 0; i < ranges.size(); i++) {
+                if (taskSize == 0) {
+                    taskStarts[taskCount++] = i;
+                }
+                final Range range = ranges.get(i);
+                taskSize += range.oldSize() + range.newSize();
+                if (taskSize >= MIN_PARALLEL_TASK_SIZE) {
+                    taskSize = 0;
+                }
+            }
+            taskStarts[taskCount] = ranges.size();
+            mTaskStarts = taskStarts;
+            mTaskCount = taskCount;
+            mRemainingTasks = taskCount;
+        }
+
+        @Override
+        public void run() {
+            int task;
+            while ((task = mNextTask.getAndIncrement()) < mTaskCount) {
+                final List<Diagonal> diagonals = new ArrayList<>();
+                Throwable error = null;
+                try {
+                    if (!hasFailed()) {
+                        for (int i = mTaskStarts[task]; i < mTaskStarts[task + 1]; i++) {
+                            findDiagonals(mRanges.get(i), mCallback, mSignal, diagonals);
+                        }
+                    }
+                } catch (Throwable t) {
+                    error = t;
+                }
+                onTaskDone(diagonals, error);
+            }
+        }
+
+        private synchronized boolean hasFailed() {
+            return mError != null;
+        }
+
+        private synchronized void onTaskDone(List<Diagonal> diagonals, Throwable error) {
+            if (error != null) {
+                if (mError == null) {
+                    mError = error;
+                }
+            } else {
+                mDiagonals.addAll(diagonals);
+            }
+            if (--mRemainingTasks == 0) {
+                notifyAll();
+            }
+        }
+
+        /**
+         * Waits for the tasks other threads took and rethrows the first error any task hit.
+         */
+        synchronized void awaitCompletion() {
+            boolean interrupted = false;
+            while (mRemainingTasks > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (mError instanceof RuntimeException) {
+                throw (RuntimeException) mError;
+            } else if (mError instanceof Error) {
+                throw (Error) mError;
+            } else if (mError != null) {
+                throw new RuntimeException(mError);
+            }
+        }
     }
 
     /**
@@ -467,6 +1041,26 @@ public class DiffUtil {
         public Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
             return null;
         }
+
+        /**
+         * Returns a stable id of the item, or {@link RecyclerView#NO_ID} if it has none.
+         * <p>
+         * If every item has an id that is unique within its list, {@link AsyncListDiffer} and
+         * {@link ListAdapter} match the old and new items through their ids in near-linear
+         * time instead of running Myers' algorithm. If two items both have an id,
+         * {@link #areItemsTheSame(T, T)} must only return {@code true} for them if their ids
+         * are equal.
+         * <p>
+         * Default implementation returns {@link RecyclerView#NO_ID}.
+         *
+         * @param item The item.
+         * @return The id of the item, or {@link RecyclerView#NO_ID}.
+         * @see Callback#getOldItemId(int)
+         */
+        @SuppressWarnings({"unused"})
+        public long getItemId(@NonNull T item) {
+            return RecyclerView.NO_ID;
+        }
     }
 
     /**
@@ -653,15 +1247,42 @@ public class DiffUtil {
 
         private final boolean mDetectMoves;
 
+        @Nullable
+        private final CancellationSignal mSignal;
+
+        // Item ids reported by the callback, or null if it reports none.
+        @Nullable
+        private final long[] mOldIds;
+        @Nullable
+        private final long[] mNewIds;
+
+        private final long mDiffTimeNanos;
+
+        private final int mPartitionCount;
+
+        private long mMoveDetectionTimeNanos;
+
         /**
          * @param callback        The callback that was used to calculate the diff
          * @param diagonals       Matches between the two lists
          * @param oldItemStatuses An int[] that can be re-purposed to keep metadata
          * @param newItemStatuses An int[] that can be re-purposed to keep metadata
          * @param detectMoves     True if this DiffResult will try to detect moved items
+         * @param signal          Signal that cancels the move detection
+         * @param oldIds          Ids of the old items, or null to detect moves without them
+         * @param newIds          Ids of the new items, or null to detect moves without them
+         * @param diffTimeNanos   Time it took to find the diagonals
+         * @param partitionCount  Number of ranges the lists were diffed in
          */
         DiffResult(Callback callback, List<Diagonal> diagonals, int[] oldItemStatuses,
-                int[] newItemStatuses, boolean detectMoves) {
+                int[] newItemStatuses, boolean detectMoves, @Nullable CancellationSignal signal,
+                @Nullable long[] oldIds, @Nullable long[] newIds, long diffTimeNanos,
+                int partitionCount) {
+            mSignal = signal;
+            mOldIds = oldIds;
+            mNewIds = newIds;
+            mDiffTimeNanos = diffTimeNanos;
+            mPartitionCount = partitionCount;
             mDiagonals = diagonals;
             mOldItemStatuses = oldItemStatuses;
             mNewItemStatuses = newItemStatuses;
@@ -707,9 +1328,15 @@ public class DiffUtil {
             }
             // now all matches are marked, lets look for moves
             if (mDetectMoves) {
+                final long startNs = System.nanoTime();
                 // traverse each addition / removal from the end of the list, find matching
                 // addition removal from before
-                findMoveMatches();
+                if (mOldIds != null && mNewIds != null) {
+                    findMoveMatchesById();
+                } else {
+                    findMoveMatches();
+                }
+                mMoveDetectionTimeNanos = System.nanoTime() - startNs;
             }
         }
 
@@ -719,6 +1346,9 @@ public class DiffUtil {
             for (Diagonal diagonal : mDiagonals) {
                 while (posX < diagonal.x) {
                     if (mOldItemStatuses[posX] == 0) {
+                        if (mSignal != null) {
+                            mSignal.throwIfCanceled();
+                        }
                         // there is a removal, find matching addition from the rest
                         findMatchingAddition(posX);
                     }
@@ -729,6 +1359,77 @@ public class DiffUtil {
             }
         }
 
+        /**
+         * Like {@link #findMoveMatches()}, but looks up the additions with the id of each
+         * removal instead of scanning all of them. Additions with the same id are tried in list
+         * order, then the additions without an id, which are the only other ones that can be
+         * the same item under the contract of {@link Callback#getOldItemId(int)}.
+         */
+        private void findMoveMatchesById() {
+            final long[] oldIds = mOldIds;
+            final long[] newIds = mNewIds;
+            // Chains the additions by id: the index maps an id to its first addition, and
+            // nextWithSameId links each addition to the next one with the same id.
+            final LongIndexMap firstWithId = new LongIndexMap(mNewListSize);
+            final int[] nextWithSameId = new int[mNewListSize];
+            final int[] additionsWithoutId = new int[mNewListSize];
+            int additionsWithoutIdCount = 0;
+            for (int posY = mNewListSize - 1; posY >= 0; posY--) {
+                if (mNewItemStatuses[posY] != 0) {
+                    continue;
+                }
+                if (newIds[posY] == RecyclerView.NO_ID) {
+                    additionsWithoutId[additionsWithoutIdCount++] = posY;
+                } else {
+                    nextWithSameId[posY] = firstWithId.put(newIds[posY], posY);
+                }
+            }
+
+            int posX = 0;
+            for (Diagonal diagonal : mDiagonals) {
+                while (posX < diagonal.x) {
+                    if (mOldItemStatuses[posX] == 0) {
+                        if (mSignal != null) {
+                            mSignal.throwIfCanceled();
+                        }
+                        if (oldIds[posX] == RecyclerView.NO_ID) {
+                            findMatchingAddition(posX);
+                        } else {
+                            boolean matched = false;
+                            for (int posY = firstWithId.get(oldIds[posX]);
+                                    posY != LongIndexMap.ABSENT && !matched;
+                                    posY = nextWithSameId[posY]) {
+                                matched = tryMatch(posX, posY);
+                            }
+                            // additionsWithoutId is in reverse list order
+                            for (int i = additionsWithoutIdCount - 1; i >= 0 && !matched; i--) {
+                                matched = tryMatch(posX, additionsWithoutId[i]);
+                            }
+                        }
+                    }
+                    posX++;
+                }
+                posX = diagonal.endX();
+            }
+        }
+
+        /**
+         * Marks the removal at {@code posX} and the addition at {@code posY} as a move if the
+         * addition is not matched yet and they are the same item.
+         */
+        private boolean tryMatch(int posX, int posY) {
+            if (mNewItemStatuses[posY] != 0 || !mCallback.areItemsTheSame(posX, posY)) {
+                return false;
+            }
+            boolean contentsMatching = mCallback.areContentsTheSame(posX, posY);
+            final int changeFlag = contentsMatching ? FLAG_MOVED_NOT_CHANGED
+                    : FLAG_MOVED_CHANGED;
+            // once we process one of these, it will mark the other one as ignored.
+            mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
+            mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
+            return true;
+        }
+
         /**
          * Search the whole list to find the addition for the given removal of position posX
          *
@@ -741,18 +1442,9 @@ public class DiffUtil {
                 final Diagonal diagonal = mDiagonals.get(i);
                 while (posY < diagonal.y) {
                     // found some additions, evaluate
-                    if (mNewItemStatuses[posY] == 0) { // not evaluated yet
-                        boolean matching = mCallback.areItemsTheSame(posX, posY);
-                        if (matching) {
-                            // yay found it, set values
-                            boolean contentsMatching = mCallback.areContentsTheSame(posX, posY);
-                            final int changeFlag = contentsMatching ? FLAG_MOVED_NOT_CHANGED
-                                    : FLAG_MOVED_CHANGED;
-                            // once we process one of these, it will mark the other one as ignored.
-                            mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
-                            mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
-                            return;
-                        }
+                    if (tryMatch(posX, posY)) {
+                        // yay found it
+                        return;
                     }
                     posY++;
                 }
@@ -760,6 +1452,30 @@ public class DiffUtil {
             }
         }
 
+        /**
+         * Returns the time it took to find the items that stayed in place, in nanoseconds.
+         */
+        public long getDiffTimeNanos() {
+            return mDiffTimeNanos;
+        }
+
+        /**
+         * Returns the time it took to detect moved items, in nanoseconds, or 0 if moves were not
+         * detected.
+         */
+        public long getMoveDetectionTimeNanos() {
+            return mMoveDetectionTimeNanos;
+        }
+
+        /**
+         * Returns the number of independent ranges the lists were diffed in. This is 1 unless
+         * the lists were split around items with stable ids, and 0 if they were matched through
+         * their ids alone.
+         */
+        public int getPartitionCount() {
+            return mPartitionCount;
+        }
+
         /**
          * Given a position in the old list, returns the position in the new list, or
          * {@code NO_POSITION} if it was removed.
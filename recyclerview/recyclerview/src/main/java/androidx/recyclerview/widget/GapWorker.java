@@ -283,7 +283,10 @@ final class GapWorker implements Runnable {
         }
 
         RecyclerView.Recycler recycler = view.mRecycler;
+        final SeslFrameMetrics metrics = view.mFrameMetrics;
+        final long startNs = metrics != null ? System.nanoTime() : 0;
         RecyclerView.ViewHolder holder;
+        boolean prefetched = false;
         try {
             // FOREVER_NS is used as a deadline to force the work to occur now,
             // since it's needed next frame, even if it won't fit in gap
@@ -296,6 +299,7 @@ final class GapWorker implements Runnable {
 
             if (holder != null) {
                 if (holder.isBound() && !holder.isInvalid()) {
+                    prefetched = true;
                     // Only give the view a chance to go into the cache if binding succeeded
                     // Note that we must use public method, since item may need cleanup
                     recycler.recycleView(holder.itemView);
@@ -310,6 +314,14 @@ final class GapWorker implements Runnable {
         } finally {
             view.onExitLayoutOrScroll(false);
             Trace.endSection();
+            if (metrics != null) {
+                metrics.mPrefetchNanos += System.nanoTime() - startNs;
+                if (prefetched) {
+                    metrics.mPrefetchHitCount++;
+                } else {
+                    metrics.mPrefetchMissCount++;
+                }
+            }
         }
         return holder;
     }
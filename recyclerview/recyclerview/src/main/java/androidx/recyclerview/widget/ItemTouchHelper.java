@@ -275,18 +275,15 @@ public class ItemTouchHelper extends RecyclerView.ItemDecoration
      * is partially out of bounds.
      */
     @SuppressWarnings("WeakerAccess") /* synthetic access */
-    final Runnable mScrollRunnable = new Runnable() {
-        @Override
-        public void run() {
-            if (mSelected != null && scrollIfNecessary()) {
-                if (mSelected != null) { //it might be lost during scrolling
-                    moveIfNecessary(mSelected);
-                }
-                mRecyclerView.removeCallbacks(mScrollRunnable);
-                ViewCompat.postOnAnimation(mRecyclerView, this);
+    final SeslAutoScroller mAutoScroller = new SeslAutoScroller((scroller, frameTimeNanos) -> {
+        if (mSelected != null && scrollIfNecessary(scroller, frameTimeNanos)) {
+            if (mSelected != null) { //it might be lost during scrolling
+                moveIfNecessary(mSelected);
             }
+            return true;
         }
-    };
+        return false;
+    });
 
     /**
      * Used for detecting fling swipe
@@ -415,8 +412,7 @@ public class ItemTouchHelper extends RecyclerView.ItemDecoration
                     if (activePointerIndex >= 0) {
                         updateDxDy(event, mSelectedFlags, activePointerIndex);
                         moveIfNecessary(viewHolder);
-                        mRecyclerView.removeCallbacks(mScrollRunnable);
-                        mScrollRunnable.run();
+                        mAutoScroller.start();
                         mRecyclerView.invalidate();
                     }
                     break;
@@ -523,6 +519,7 @@ public class ItemTouchHelper extends RecyclerView.ItemDecoration
     }
 
     private void destroyCallbacks() {
+        mAutoScroller.stop();
         mRecyclerView.removeItemDecoration(this);
         mRecyclerView.removeOnItemTouchListener(mOnItemTouchListener);
         mRecyclerView.removeOnChildAttachStateChangeListener(this);
@@ -797,15 +794,16 @@ public class ItemTouchHelper extends RecyclerView.ItemDecoration
     }
 
     /**
-     * If user drags the view to the edge, trigger a scroll if necessary.
+     * If user drags the view to the edge, trigger a scroll if necessary. The scroll step is
+     * scaled to the duration of the current frame.
      */
     @SuppressWarnings("WeakerAccess") /* synthetic access */
-    boolean scrollIfNecessary() {
+    boolean scrollIfNecessary(@NonNull SeslAutoScroller scroller, long frameTimeNanos) {
         if (mSelected == null) {
             mDragScrollStartTimeInMs = Long.MIN_VALUE;
             return false;
         }
-        final long now = System.currentTimeMillis();
+        final long now = frameTimeNanos / SeslAutoScroller.NANOS_PER_MS;
         final long scrollDuration = mDragScrollStartTimeInMs
                 == Long.MIN_VALUE ? 0 : now - mDragScrollStartTimeInMs;
         RecyclerView.LayoutManager lm = mRecyclerView.getLayoutManager();
@@ -843,14 +841,14 @@ public class ItemTouchHelper extends RecyclerView.ItemDecoration
             }
         }
         if (scrollX != 0) {
-            scrollX = mCallback.interpolateOutOfBoundsScroll(mRecyclerView,
+            scrollX = scroller.scaleStep(mCallback.interpolateOutOfBoundsScroll(mRecyclerView,
                     mSelected.itemView.getWidth(), scrollX,
-                    mRecyclerView.getWidth(), scrollDuration);
+                    mRecyclerView.getWidth(), scrollDuration));
         }
         if (scrollY != 0) {
-            scrollY = mCallback.interpolateOutOfBoundsScroll(mRecyclerView,
+            scrollY = scroller.scaleStep(mCallback.interpolateOutOfBoundsScroll(mRecyclerView,
                     mSelected.itemView.getHeight(), scrollY,
-                    mRecyclerView.getHeight(), scrollDuration);
+                    mRecyclerView.getHeight(), scrollDuration));
         }
         if (scrollX != 0 || scrollY != 0) {
             if (mDragScrollStartTimeInMs == Long.MIN_VALUE) {
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from item ids to list positions, without boxing.
+ * <p>
+ * {@link RecyclerView#NO_ID} cannot be used as a key; it marks empty slots. The map has a fixed
+ * capacity chosen at construction and is not thread safe.
+ */
+final class LongIndexMap {
+    /**
+     * Returned by {@link #get(long)} for keys that are not in the map.
+     */
+    static final int ABSENT = -1;
+
+    private final long[] mKeys;
+    private final int[] mValues;
+    private final int mMask;
+    private int mSize;
+
+    /**
+     * @param expectedSize The largest number of keys that will be put in the map.
+     */
+    LongIndexMap(int expectedSize) {
+        int capacity = 4;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        mMask = capacity - 1;
+        Arrays.fill(mKeys, RecyclerView.NO_ID);
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns whether the map can hold {@code size} keys.
+     */
+    boolean canHold(int size) {
+        return size * 2 <= mKeys.length;
+    }
+
+    void clear() {
+        if (mSize != 0) {
+            Arrays.fill(mKeys, RecyclerView.NO_ID);
+            mSize = 0;
+        }
+    }
+
+    /**
+     * Returns the value of {@code key}, or {@link #ABSENT}.
+     */
+    int get(long key) {
+        int slot = slotOf(key);
+        while (true) {
+            final long slotKey = mKeys[slot];
+            if (slotKey == key) {
+                return mValues[slot];
+            }
+            if (slotKey == RecyclerView.NO_ID) {
+                return ABSENT;
+            }
+            slot = (slot + 1) & mMask;
+        }
+    }
+
+    /**
+     * Sets the value of {@code key} and returns its previous value, or {@link #ABSENT}.
+     */
+    int put(long key, int value) {
+        int slot = slotOf(key);
+        while (true) {
+            final long slotKey = mKeys[slot];
+            if (slotKey == key) {
+                final int previous = mValues[slot];
+                mValues[slot] = value;
+                return previous;
+            }
+            if (slotKey == RecyclerView.NO_ID) {
+                mKeys[slot] = key;
+                mValues[slot] = value;
+                mSize++;
+                return ABSENT;
+            }
+            slot = (slot + 1) & mMask;
+        }
+    }
+
+    private int slotOf(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mMask;
+    }
+}
@@ -25,6 +25,17 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 class MessageThreadUtil<T> implements ThreadUtil<T> {
 
+    private final Executor mBackgroundExecutor;
+
+    @SuppressWarnings("deprecation") /* AsyncTask */
+    MessageThreadUtil() {
+        this(android.os.AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    MessageThreadUtil(Executor backgroundExecutor) {
+        mBackgroundExecutor = backgroundExecutor;
+    }
+
     @Override
     public MainThreadCallback<T> getMainThreadProxy(final MainThreadCallback<T> callback) {
         return new MainThreadCallback<T>() {
@@ -82,18 +93,19 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
         };
     }
 
-    @SuppressWarnings("deprecation") /* AsyncTask */
     @Override
     public BackgroundCallback<T> getBackgroundProxy(final BackgroundCallback<T> callback) {
         return new BackgroundCallback<T>() {
             final MessageQueue mQueue = new MessageQueue();
-            private final Executor mExecutor = android.os.AsyncTask.THREAD_POOL_EXECUTOR;
+            private final Executor mExecutor = mBackgroundExecutor;
             AtomicBoolean mBackgroundRunning = new AtomicBoolean(false);
 
             static final int REFRESH = 1;
             static final int UPDATE_RANGE = 2;
             static final int LOAD_TILE = 3;
             static final int RECYCLE_TILE = 4;
+            static final int ADD_LOADED_TILE = 5;
+            static final int EVICT_TILE = 6;
 
             @Override
             public void refresh(int generation) {
@@ -117,6 +129,16 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
                 sendMessage(SyncQueueItem.obtainMessage(RECYCLE_TILE, 0, tile));
             }
 
+            @Override
+            public void addLoadedTile(int generation, TileList.Tile<T> tile) {
+                sendMessage(SyncQueueItem.obtainMessage(ADD_LOADED_TILE, generation, tile));
+            }
+
+            @Override
+            public void evictTile(int generation, TileList.Tile<T> tile) {
+                sendMessage(SyncQueueItem.obtainMessage(EVICT_TILE, generation, tile));
+            }
+
             private void sendMessage(SyncQueueItem msg) {
                 mQueue.sendMessage(msg);
                 maybeExecuteBackgroundRunnable();
@@ -160,6 +182,16 @@ class MessageThreadUtil<T> implements ThreadUtil<T> {
                                 TileList.Tile<T> tile = (TileList.Tile<T>) msg.data;
                                 callback.recycleTile(tile);
                                 break;
+                            case ADD_LOADED_TILE:
+                                @SuppressWarnings("unchecked")
+                                TileList.Tile<T> loadedTile = (TileList.Tile<T>) msg.data;
+                                callback.addLoadedTile(msg.arg1, loadedTile);
+                                break;
+                            case EVICT_TILE:
+                                @SuppressWarnings("unchecked")
+                                TileList.Tile<T> evictedTile = (TileList.Tile<T>) msg.data;
+                                callback.evictTile(msg.arg1, evictedTile);
+                                break;
                             default:
                                 Log.e("ThreadUtil", "Unsupported message, what=" + msg.what);
                         }
@@ -42,6 +42,7 @@ import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.app.KeyguardManager;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.Configuration;
 import android.content.res.Resources;
@@ -60,9 +61,6 @@ import android.graphics.drawable.StateListDrawable;
 import android.hardware.SensorManager;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import android.os.Message;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.SystemClock;
@@ -72,6 +70,7 @@ import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.Log;
 import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.util.TypedValue;
 import android.view.Display;
 import android.view.FocusFinder;
@@ -290,7 +289,11 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     private static final int MOTION_EVENT_ACTION_PEN_DOWN = 211;
     private static final int MOTION_EVENT_ACTION_PEN_MOVE = 213;
     private static final int MOTION_EVENT_ACTION_PEN_UP = 212;
-    private static final int MSG_HOVERSCROLL_MOVE = 0;
+    private static final long HOVERSCROLL_HOVER_DELAY = 300;
+    private static final long HOVERSCROLL_PEN_DRAG_DELAY = 500;
+    private static final float HOVERSCROLL_ACCELERATION_PER_SECOND = 0.1f;
+    private static final float HOVERSCROLL_ACCELERATION_START_SECONDS = 2f;
+    private static final float HOVERSCROLL_ACCELERATION_SECONDS = 3f;
     private static final int STATISTICS_MAX_COUNT = 5;
     Rect mChildBound = new Rect();
     final View mCloseChildByTop = null;
@@ -298,6 +301,13 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     final Context mContext;
     SeslRecyclerViewFastScroller mFastScroller;
     private SeslFastScrollerEventListener mFastScrollerEventListener;
+    private SeslFrameMetricsListener mFrameMetricsListener;
+    /**
+     * Metrics collected for the next {@link SeslFrameMetricsListener} report, or {@code null}
+     * while no listener is set, in which case nothing is measured.
+     */
+    @Nullable
+    SeslFrameMetrics mFrameMetrics;
     private ValueAnimator mGoToTopFadeInAnimator;
     private ValueAnimator mGoToTopFadeOutAnimator;
     private Drawable mGoToTopImage;
@@ -312,7 +322,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     private SeslOnMultiSelectedListener mOnMultiSelectedListener;
     private final Drawable mPenDragBlockImage;
     private final Rect mPenDragBlockRect = new Rect();
-    private ArrayList<Integer> mPenDragSelectedItemArray;
+    private final SeslSelectionState mPenDragSelectedItems = new SeslSelectionState();
+    private final SeslSelectionState.Delta mPenDragSelectionDelta = new SeslSelectionState.Delta();
     @Nullable
     protected View mPenTrackedChild = null;
     private final Paint mRectPaint = new Paint();
@@ -354,7 +365,6 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     private int mStatisticalCount = 0;
     private int mTouchSlop2 = 0;
     private final int[] mWindowOffsets = new int[2];
-    long mHoverRecognitionStartTime = 0;
     long mHoverScrollStartTime = 0;
     private long mPrevLatencyTime;
     private boolean mDrawLastRoundedCorner = true;
@@ -445,192 +455,192 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
     private final Runnable mAutoHide = () -> setupGoToTop(GTP_STATE_NONE);
 
-    final Handler mHoverHandler = new Handler(Looper.getMainLooper()) {
-        @Override
-        public void handleMessage(Message msg) {
-            if (msg.what == MSG_HOVERSCROLL_MOVE) {
-                if (mAdapter == null) {
-                    Log.e(TAG, "No adapter attached; skipping MSG_HOVERSCROLL_MOVE");
-                    return;
-                }
+    final SeslAutoScroller mHoverScroller = new SeslAutoScroller(this::onHoverScrollFrame);
 
-                long mHoverRecognitionCurrentTime = System.currentTimeMillis();
-                long mHoverRecognitionDurationTime =
-                        (mHoverRecognitionCurrentTime - mHoverRecognitionStartTime) / 1000;
-                long mHoverScrollTimeInterval = 300;
-                if (mIsPenHovered
-                        && mHoverRecognitionCurrentTime - mHoverScrollStartTime < mHoverScrollTimeInterval) {
-                    return;
-                }
+    /**
+     * Performs one hover or pen drag selection scroll step. Returns whether to keep scrolling.
+     */
+    boolean onHoverScrollFrame(@NonNull SeslAutoScroller scroller, long frameTimeNanos) {
+        if (mAdapter == null) {
+            Log.e(TAG, "No adapter attached; skipping hover scroll");
+            return false;
+        }
 
-                long mPenDragScrollTimeInterval = 500;
-                if (!mIsPenPressed || mHoverRecognitionCurrentTime - mHoverScrollStartTime >= mPenDragScrollTimeInterval) {
-                    if (mIsPenHovered && !mIsSendHoverScrollState) {
-                        if (mScrollListener != null) {
-                            mHoverScrollStateForListener = HOVERSCROLL_UP;
-                            mScrollListener.onScrollStateChanged(RecyclerView.this,
-                                    HOVERSCROLL_UP);
-                        }
-                        mIsSendHoverScrollState = true;
-                    }
+        // Wait on frames until the pointer stayed long enough in the hover area.
+        final long hoverAreaTime =
+                frameTimeNanos / SeslAutoScroller.NANOS_PER_MS - mHoverScrollStartTime;
+        if (mIsPenHovered && hoverAreaTime < HOVERSCROLL_HOVER_DELAY) {
+            return true;
+        }
 
-                    final boolean canScrollVertically = mLayout.canScrollVertically();
-                    final boolean canScrollHorizontally = mLayout.canScrollHorizontally();
-
-                    final boolean isRtl = mLayout.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
-
-                    final int count = getChildCount();
-
-                    boolean canScrollDown =
-                            findFirstChildPosition() + count < mAdapter.getItemCount();
-                    if (!canScrollDown && count > 0) {
-                        View child = getChildAt(count - 1);
-                        getDecoratedBoundsWithMargins(child, mChildBound);
-                        canScrollDown = !canScrollHorizontally ?
-                                mChildBound.bottom > getBottom() - mListPadding.bottom
-                                        || mChildBound.bottom > getHeight() - mListPadding.bottom
-                                : (!isRtl ?
-                                        mChildBound.right > getRight() - mListPadding.right
-                                                || mChildBound.right > getWidth() - mListPadding.right
-                                        : mChildBound.left < mListPadding.left);
-                    }
+        if (!mIsPenPressed || hoverAreaTime >= HOVERSCROLL_PEN_DRAG_DELAY) {
+            if (mIsPenHovered && !mIsSendHoverScrollState) {
+                if (mScrollListener != null) {
+                    mHoverScrollStateForListener = HOVERSCROLL_UP;
+                    mScrollListener.onScrollStateChanged(RecyclerView.this,
+                            HOVERSCROLL_UP);
+                }
+                mIsSendHoverScrollState = true;
+            }
 
-                    boolean canScrollUp = findFirstChildPosition() > 0;
-                    if (!canScrollUp && count > 0) {
-                        getDecoratedBoundsWithMargins(getChildAt(0), mChildBound);
-                        canScrollUp = !canScrollHorizontally ?
-                                mChildBound.top < mListPadding.top
-                                : (!isRtl ?
-                                        mChildBound.left < mListPadding.left
-                                        : mChildBound.right > getRight() - mListPadding.right
-                                                || mChildBound.right > getWidth() - mListPadding.right);
-                    }
+            final boolean canScrollVertically = mLayout.canScrollVertically();
+            final boolean canScrollHorizontally = mLayout.canScrollHorizontally();
 
-                    int mHoverScrollSpeed =
-                            (int) (TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
-                                    HOVERSCROLL_SPEED, mContext.getResources().getDisplayMetrics()) + 0.5f);
-                    if (mHoverRecognitionDurationTime == 3) {
-                        mHoverScrollSpeed += (int) (mHoverScrollSpeed * 0.1d);
-                    } else if (mHoverRecognitionDurationTime == 4) {
-                        mHoverScrollSpeed += (int) (mHoverScrollSpeed * 0.2d);
-                    } else if (mHoverRecognitionDurationTime >= 5) {
-                        mHoverScrollSpeed += (int) (mHoverScrollSpeed * 0.3d);
-                    }
+            final boolean isRtl = mLayout.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
 
-                    int offset;
+            final int count = getChildCount();
 
-                    if (mHoverScrollDirection == HOVERSCROLL_DOWN) {
-                        if (!canScrollHorizontally || !isRtl) {
-                            offset = mHoverScrollSpeed * -1;
-                        } else {
-                            offset = mHoverScrollSpeed;
-                        }
-                        //noinspection ConstantValue
-                        if ((mPenTrackedChild == null && mCloseChildByBottom != null)
-                                || (mOldHoverScrollDirection != mHoverScrollDirection && mIsCloseChildSetted)
-                        ) {
-                            mPenTrackedChild = null;
-                            mPenDistanceFromTrackedChildTop = 0;
-                            mPenTrackedChildPosition = NO_POSITION;
-                            mOldHoverScrollDirection = mHoverScrollDirection;
-                            //noinspection DataFlowIssue
-                            mIsCloseChildSetted = true;
-                        }
-                    } else {
-                        if (!canScrollHorizontally || !isRtl) {
-                            offset = mHoverScrollSpeed;
+            boolean canScrollDown =
+                    findFirstChildPosition() + count < mAdapter.getItemCount();
+            if (!canScrollDown && count > 0) {
+                View child = getChildAt(count - 1);
+                getDecoratedBoundsWithMargins(child, mChildBound);
+                canScrollDown = !canScrollHorizontally ?
+                        mChildBound.bottom > getBottom() - mListPadding.bottom
+                                || mChildBound.bottom > getHeight() - mListPadding.bottom
+                        : (!isRtl ?
+                                mChildBound.right > getRight() - mListPadding.right
+                                        || mChildBound.right > getWidth() - mListPadding.right
+                                : mChildBound.left < mListPadding.left);
+            }
+
+            boolean canScrollUp = findFirstChildPosition() > 0;
+            if (!canScrollUp && count > 0) {
+                getDecoratedBoundsWithMargins(getChildAt(0), mChildBound);
+                canScrollUp = !canScrollHorizontally ?
+                        mChildBound.top < mListPadding.top
+                        : (!isRtl ?
+                                mChildBound.left < mListPadding.left
+                                : mChildBound.right > getRight() - mListPadding.right
+                                        || mChildBound.right > getWidth() - mListPadding.right);
+            }
+
+            // Speed is per 60 Hz frame and ramps up by 10% per second between 2s and 5s of
+            // scrolling, then is scaled to the time this frame actually took.
+            final float scrollSeconds =
+                    scroller.getElapsedMillis(frameTimeNanos) / 1000f;
+            final float acceleration = 1f + HOVERSCROLL_ACCELERATION_PER_SECOND
+                    * Math.max(0f, Math.min(HOVERSCROLL_ACCELERATION_SECONDS,
+                            scrollSeconds - HOVERSCROLL_ACCELERATION_START_SECONDS));
+            final int mHoverScrollSpeed = scroller.scaleStep((int) (TypedValue.applyDimension(
+                    TypedValue.COMPLEX_UNIT_DIP, HOVERSCROLL_SPEED,
+                    mContext.getResources().getDisplayMetrics()) * acceleration
+                    + 0.5f));
+
+            int offset;
+
+            if (mHoverScrollDirection == HOVERSCROLL_DOWN) {
+                if (!canScrollHorizontally || !isRtl) {
+                    offset = mHoverScrollSpeed * -1;
+                } else {
+                    offset = mHoverScrollSpeed;
+                }
+                //noinspection ConstantValue
+                if ((mPenTrackedChild == null && mCloseChildByBottom != null)
+                        || (mOldHoverScrollDirection != mHoverScrollDirection && mIsCloseChildSetted)
+                ) {
+                    mPenTrackedChild = null;
+                    mPenDistanceFromTrackedChildTop = 0;
+                    mPenTrackedChildPosition = NO_POSITION;
+                    mOldHoverScrollDirection = mHoverScrollDirection;
+                    //noinspection DataFlowIssue
+                    mIsCloseChildSetted = true;
+                }
+            } else {
+                if (!canScrollHorizontally || !isRtl) {
+                    offset = mHoverScrollSpeed;
+                } else {
+                    offset = mHoverScrollSpeed * -1;
+                }
+                //noinspection ConstantValue
+                if ((mPenTrackedChild == null && mCloseChildByTop != null)
+                        || (mOldHoverScrollDirection != mHoverScrollDirection && mIsCloseChildSetted)) {
+                    mPenTrackedChild = null;
+                    mPenDistanceFromTrackedChildTop = 0;
+                    mPenTrackedChildPosition = NO_POSITION;
+                    mOldHoverScrollDirection = mHoverScrollDirection;
+                    //noinspection DataFlowIssue
+                    mIsCloseChildSetted = true;
+                }
+            }
+
+            if (getChildAt(getChildCount() - 1) != null) {
+                if ((offset >= 0 || !canScrollUp) && (offset <= 0 || !canScrollDown)) {
+                    final int overScrollMode = getOverScrollMode();
+                    final boolean canOverScroll = overScrollMode == OVER_SCROLL_ALWAYS
+                            || (overScrollMode == OVER_SCROLL_IF_CONTENT_SCROLLS
+                            && !contentFits());
+                    if (canOverScroll && !mIsHoverOverscrolled) {
+                        if (canScrollHorizontally) {
+                            ensureLeftGlow();
+                            ensureRightGlow();
                         } else {
-                            offset = mHoverScrollSpeed * -1;
+                            ensureTopGlow();
+                            ensureBottomGlow();
                         }
-                        //noinspection ConstantValue
-                        if ((mPenTrackedChild == null && mCloseChildByTop != null)
-                                || (mOldHoverScrollDirection != mHoverScrollDirection && mIsCloseChildSetted)) {
-                            mPenTrackedChild = null;
-                            mPenDistanceFromTrackedChildTop = 0;
-                            mPenTrackedChildPosition = NO_POSITION;
-                            mOldHoverScrollDirection = mHoverScrollDirection;
-                            //noinspection DataFlowIssue
-                            mIsCloseChildSetted = true;
-                        }
-                    }
-
-                    if (getChildAt(getChildCount() - 1) != null) {
-                        if ((offset >= 0 || !canScrollUp) && (offset <= 0 || !canScrollDown)) {
-                            final int overScrollMode = getOverScrollMode();
-                            final boolean canOverScroll = overScrollMode == OVER_SCROLL_ALWAYS
-                                    || (overScrollMode == OVER_SCROLL_IF_CONTENT_SCROLLS
-                                    && !contentFits());
-                            if (canOverScroll && !mIsHoverOverscrolled) {
-                                if (canScrollHorizontally) {
-                                    ensureLeftGlow();
-                                    ensureRightGlow();
-                                } else {
-                                    ensureTopGlow();
-                                    ensureBottomGlow();
+                        if (mHoverScrollDirection == HOVERSCROLL_DOWN) {
+                            if (canScrollHorizontally) {
+                                mLeftGlow.onAbsorb(ON_ABSORB_VELOCITY);
+                                if (!mRightGlow.isFinished()) {
+                                    mRightGlow.onRelease();
                                 }
-                                if (mHoverScrollDirection == HOVERSCROLL_DOWN) {
-                                    if (canScrollHorizontally) {
-                                        mLeftGlow.onAbsorb(ON_ABSORB_VELOCITY);
-                                        if (!mRightGlow.isFinished()) {
-                                            mRightGlow.onRelease();
-                                        }
-                                    } else {
-                                        mTopGlow.onAbsorb(ON_ABSORB_VELOCITY);
-                                        if (!mBottomGlow.isFinished()) {
-                                            mBottomGlow.onRelease();
-                                        }
-                                    }
-                                } else if (mHoverScrollDirection == HOVERSCROLL_UP) {
-                                    if (canScrollHorizontally) {
-                                        mRightGlow.onAbsorb(ON_ABSORB_VELOCITY);
-                                        if (!mLeftGlow.isFinished()) {
-                                            mLeftGlow.onRelease();
-                                        }
-                                    } else {
-                                        mBottomGlow.onAbsorb(ON_ABSORB_VELOCITY);
-                                        setupGoToTop(GTP_STATE_SHOWN);
-                                        autoHide(GTP_STATE_SHOWN);
-                                        if (!mTopGlow.isFinished()) {
-                                            mTopGlow.onRelease();
-                                        }
-                                    }
+                            } else {
+                                mTopGlow.onAbsorb(ON_ABSORB_VELOCITY);
+                                if (!mBottomGlow.isFinished()) {
+                                    mBottomGlow.onRelease();
                                 }
-                                invalidate();
-                                mIsHoverOverscrolled = true;
                             }
-
-                            if (mScrollState == SCROLL_STATE_DRAGGING) {
-                                setScrollState(SCROLL_STATE_IDLE);
-                            }
-
-                            if (!canOverScroll && !mIsHoverOverscrolled) {
-                                mIsHoverOverscrolled = true;
-                            }
-                        } else {
-                            startNestedScroll(canScrollHorizontally
-                                    ? ViewCompat.SCROLL_AXIS_HORIZONTAL
-                                    : ViewCompat.SCROLL_AXIS_VERTICAL, TYPE_NON_TOUCH);
-
-                            final int dx = canScrollHorizontally ? (isRtl ? -offset : offset) : 0;
-                            final int dy = canScrollVertically ? offset : 0;
-                            if (!dispatchNestedPreScroll(dx, dy, null, null,
-                                    TYPE_NON_TOUCH)) {
-                                scrollByInternal(dx, dy, null, TYPE_TOUCH);
-                                setScrollState(SCROLL_STATE_DRAGGING);
-                                if (mIsLongPressMultiSelection) {
-                                    updateLongPressMultiSelection(mPenDragEndX, mPenDragEndY,
-                                            false);
+                        } else if (mHoverScrollDirection == HOVERSCROLL_UP) {
+                            if (canScrollHorizontally) {
+                                mRightGlow.onAbsorb(ON_ABSORB_VELOCITY);
+                                if (!mLeftGlow.isFinished()) {
+                                    mLeftGlow.onRelease();
                                 }
                             } else {
-                                adjustNestedScrollRangeBy(offset);
+                                mBottomGlow.onAbsorb(ON_ABSORB_VELOCITY);
+                                setupGoToTop(GTP_STATE_SHOWN);
+                                autoHide(GTP_STATE_SHOWN);
+                                if (!mTopGlow.isFinished()) {
+                                    mTopGlow.onRelease();
+                                }
                             }
-                            mHoverHandler.sendEmptyMessageDelayed(MSG_HOVERSCROLL_MOVE, 0);
                         }
+                        invalidate();
+                        mIsHoverOverscrolled = true;
+                    }
+
+                    if (mScrollState == SCROLL_STATE_DRAGGING) {
+                        setScrollState(SCROLL_STATE_IDLE);
+                    }
+
+                    if (!canOverScroll && !mIsHoverOverscrolled) {
+                        mIsHoverOverscrolled = true;
                     }
+                } else {
+                    startNestedScroll(canScrollHorizontally
+                            ? ViewCompat.SCROLL_AXIS_HORIZONTAL
+                            : ViewCompat.SCROLL_AXIS_VERTICAL, TYPE_NON_TOUCH);
+
+                    final int dx = canScrollHorizontally ? (isRtl ? -offset : offset) : 0;
+                    final int dy = canScrollVertically ? offset : 0;
+                    if (!dispatchNestedPreScroll(dx, dy, null, null,
+                            TYPE_NON_TOUCH)) {
+                        scrollByInternal(dx, dy, null, TYPE_TOUCH);
+                        setScrollState(SCROLL_STATE_DRAGGING);
+                        if (mIsLongPressMultiSelection) {
+                            updateLongPressMultiSelection(mPenDragEndX, mPenDragEndY,
+                                    false);
+                        }
+                    } else {
+                        adjustNestedScrollRangeBy(offset);
+                    }
+                    return true;
                 }
             }
+            return false;
         }
-    };
+        return true;
+    }
 
     private final Runnable mGoToTopEdgeEffectRunnable = new Runnable() {
         @Override
@@ -1057,7 +1067,12 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Override
         public void run() {
             if (mItemAnimator != null) {
+                final SeslFrameMetrics metrics = mFrameMetrics;
+                final long startNs = metrics != null ? System.nanoTime() : 0;
                 mItemAnimator.runPendingAnimations();
+                if (metrics != null) {
+                    metrics.mItemAnimatorNanos += System.nanoTime() - startNs;
+                }
             }
             mPostedAnimatorRunner = false;
         }
@@ -1584,6 +1599,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             @Override
             public void offsetPositionsForRemovingInvisible(int start, int count) {
                 offsetPositionRecordsForRemove(start, count, true);
+                mPenDragSelectedItems.onItemRangeRemoved(start, count);
                 mItemsAddedOrRemoved = true;
                 mState.mDeletedInvisibleItemCountSincePreviousLayout += count;
             }
@@ -1592,6 +1608,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             public void offsetPositionsForRemovingLaidOutOrNewView(
                     int positionStart, int itemCount) {
                 offsetPositionRecordsForRemove(positionStart, itemCount, false);
+                mPenDragSelectedItems.onItemRangeRemoved(positionStart, itemCount);
                 mItemsAddedOrRemoved = true;
             }
 
@@ -1633,12 +1650,14 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             @Override
             public void offsetPositionsForAdd(int positionStart, int itemCount) {
                 offsetPositionRecordsForInsert(positionStart, itemCount);
+                mPenDragSelectedItems.onItemRangeInserted(positionStart, itemCount);
                 mItemsAddedOrRemoved = true;
             }
 
             @Override
             public void offsetPositionsForMove(int from, int to) {
                 offsetPositionRecordsForMove(from, to);
+                mPenDragSelectedItems.onItemMoved(from, to);
                 // should we create mItemsMoved ?
                 mItemsAddedOrRemoved = true;
             }
@@ -4084,6 +4103,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         }
 
         //Sesl
+        mHoverScroller.stop();
         if (mIndexTipEnabled && mIndexTip != null) {
             mIndexTip.forcedHide();
         }
@@ -5135,6 +5155,14 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             mLayout.setExactMeasureSpecsFrom(this);
         }
         dispatchLayoutStep3();
+        recordOnScreenCountsIfAdaptive();
+    }
+
+    private void recordOnScreenCountsIfAdaptive() {
+        final RecycledViewPool pool = mRecycler.mRecyclerPool;
+        if (pool != null && pool.mAdaptiveSizingEnabled) {
+            pool.recordOnScreenCounts(this);
+        }
     }
 
     private void saveFocusInfo() {
@@ -5287,6 +5315,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
      * - If necessary, run predictive layout and save its information
      */
     private void dispatchLayoutStep1() {
+        final SeslFrameMetrics metrics = mFrameMetrics;
+        final long startNs = metrics != null ? System.nanoTime() : 0;
         mState.assertLayoutStep(State.STEP_START);
         fillRemainingScrollValues(mState);
         mState.mIsMeasuring = false;
@@ -5372,6 +5402,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         onExitLayoutOrScroll();
         stopInterceptRequestLayout(false);
         mState.mLayoutStep = State.STEP_LAYOUT;
+        if (metrics != null) {
+            metrics.mLayoutStep1Nanos += System.nanoTime() - startNs;
+        }
     }
 
     /**
@@ -5379,6 +5412,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
      * This step might be run multiple times if necessary (e.g. measure).
      */
     private void dispatchLayoutStep2() {
+        final SeslFrameMetrics metrics = mFrameMetrics;
+        final long startNs = metrics != null ? System.nanoTime() : 0;
         startInterceptRequestLayout();
         onEnterLayoutOrScroll();
         mState.assertLayoutStep(State.STEP_LAYOUT | State.STEP_ANIMATIONS);
@@ -5402,6 +5437,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         mState.mLayoutStep = State.STEP_ANIMATIONS;
         onExitLayoutOrScroll();
         stopInterceptRequestLayout(false);
+        if (metrics != null) {
+            metrics.mLayoutStep2Nanos += System.nanoTime() - startNs;
+        }
     }
 
     /**
@@ -5409,6 +5447,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
      * trigger animations and do any necessary cleanup.
      */
     private void dispatchLayoutStep3() {
+        final SeslFrameMetrics metrics = mFrameMetrics;
+        final long startNs = metrics != null ? System.nanoTime() : 0;
         mState.assertLayoutStep(State.STEP_ANIMATIONS);
         startInterceptRequestLayout();
         onEnterLayoutOrScroll();
@@ -5517,6 +5557,10 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         }
         recoverFocusFromState();
         resetFocusInfo();
+        if (metrics != null) {
+            metrics.mLayoutStep3Nanos += System.nanoTime() - startNs;
+            metrics.mLayoutCount++;
+        }
     }
 
     /**
@@ -5763,12 +5807,18 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
     @Override
     public void draw(@NonNull Canvas c) {
+        final SeslFrameMetrics metrics = mFrameMetrics;
+        final long drawStartNs = metrics != null ? System.nanoTime() : 0;
         super.draw(c);
 
+        final long decorationStartNs = metrics != null ? System.nanoTime() : 0;
         final int count = mItemDecorations.size();
         for (int i = 0; i < count; i++) {
             mItemDecorations.get(i).onDrawOver(c, this, mState);
         }
+        if (metrics != null) {
+            metrics.mDecorationNanos += System.nanoTime() - decorationStartNs;
+        }
         // TODO If padding is not 0 and clipChildrenToPadding is false, to draw glows properly, we
         // need find children closest to edges. Not sure if it is worth the effort.
         boolean needsInvalidate = false;
@@ -5854,16 +5904,34 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             }
         }
         //sesl
+
+        if (metrics != null) {
+            metrics.mDrawNanos += System.nanoTime() - drawStartNs;
+            dispatchFrameMetrics(metrics);
+        }
+    }
+
+    private void dispatchFrameMetrics(@NonNull SeslFrameMetrics metrics) {
+        final SeslFrameMetricsListener listener = mFrameMetricsListener;
+        if (listener != null) {
+            listener.onFrameMetrics(this, metrics);
+        }
+        metrics.reset();
     }
 
     @Override
     public void onDraw(@NonNull Canvas c) {
         super.onDraw(c);
 
+        final SeslFrameMetrics metrics = mFrameMetrics;
+        final long decorationStartNs = metrics != null ? System.nanoTime() : 0;
         final int count = mItemDecorations.size();
         for (int i = 0; i < count; i++) {
             mItemDecorations.get(i).onDraw(c, this, mState);
         }
+        if (metrics != null) {
+            metrics.mDecorationNanos += System.nanoTime() - decorationStartNs;
+        }
 
         //Sesl
         if (mStatisticalCount <= STATISTICS_MAX_COUNT && mIsNeedCheckLatency) {
@@ -6552,6 +6620,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
         // Pass the real deltas to onScrolled, the RecyclerView-specific method.
         onScrolled(hresult, vresult);
+        recordOnScreenCountsIfAdaptive();
 
         //Sesl
         if (mFastScroller != null && mAdapter != null) {
@@ -7123,6 +7192,17 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     public static class RecycledViewPool {
         private static final int DEFAULT_MAX_SCRAP = 5;
 
+        /**
+         * Upper bound for the capacity adaptive sizing gives a view type.
+         */
+        private static final int MAX_ADAPTIVE_SCRAP = 32;
+
+        /**
+         * Number of pool operations on a view type after which adaptive sizing checks whether
+         * the type holds more views than it needed.
+         */
+        private static final int ADAPTIVE_SIZING_WINDOW = 64;
+
         /**
          * Tracks both pooled holders, as well as create/bind timing metadata for the given type.
          *
@@ -7142,10 +7222,40 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             int mMaxScrap = DEFAULT_MAX_SCRAP;
             long mCreateRunningAverageNs = 0;
             long mBindRunningAverageNs = 0;
+
+            long mCreateCount;
+            long mBindCount;
+            long mHitCount;
+            long mMissCount;
+            long mEvictionCount;
+            int mPeakOnScreenCount;
+
+            /**
+             * True once {@link #setMaxRecycledViews(int, int)} was called for the type, so
+             * adaptive sizing leaves its capacity alone.
+             */
+            boolean mMaxScrapPinned;
+            boolean mEvictedSinceMiss;
+            int mWindowOperationCount;
+            int mWindowMissCount;
+            int mWindowMinHeapSize;
         }
 
         SparseArray<ScrapData> mScrap = new SparseArray<>();
 
+        boolean mAdaptiveSizingEnabled;
+
+        private final SparseIntArray mOnScreenCounts = new SparseIntArray();
+
+        /**
+         * Number of attached RecyclerViews using this pool, and the application context of the
+         * first one, which {@link #mTrimMemoryCallbacks} is registered with while adaptive
+         * sizing is enabled.
+         */
+        private int mAttachedRecyclerViewCount;
+        private Context mApplicationContext;
+        private ComponentCallbacks2 mTrimMemoryCallbacks;
+
         /**
          * Attach counts for clearing (that is, emptying the pool when there are no adapters
          * attached) and for PoolingContainer release are tracked separately to maintain the
@@ -7196,9 +7306,112 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         public void setMaxRecycledViews(int viewType, int max) {
             ScrapData scrapData = getScrapDataForType(viewType);
             scrapData.mMaxScrap = max;
-            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
-            while (scrapHeap.size() > max) {
-                scrapHeap.remove(scrapHeap.size() - 1);
+            scrapData.mMaxScrapPinned = true;
+            evict(scrapData, max);
+        }
+
+        /**
+         * Enables or disables adaptive sizing of this pool.
+         * <p>
+         * When enabled, the capacity of each view type grows when a view of that type has to be
+         * created after one was discarded because the pool was full, up to the largest number
+         * of views of that type seen on screen at once, and shrinks when views of that type sit
+         * in the pool unused. The pool also releases views on
+         * {@link ComponentCallbacks2#onTrimMemory(int)} for as long as a RecyclerView using
+         * it is attached. View types whose capacity was set with
+         * {@link #setMaxRecycledViews(int, int)} keep that capacity.
+         * <p>
+         * Disabling adaptive sizing restores the default capacity of the other view types.
+         *
+         * @param enabled Whether the pool sizes itself from its usage.
+         * @see #getViewTypeStats(int)
+         */
+        public void setAdaptiveSizingEnabled(boolean enabled) {
+            if (mAdaptiveSizingEnabled == enabled) {
+                return;
+            }
+            mAdaptiveSizingEnabled = enabled;
+            for (int i = 0; i < mScrap.size(); i++) {
+                final ScrapData scrapData = mScrap.valueAt(i);
+                scrapData.mEvictedSinceMiss = false;
+                resetWindow(scrapData);
+                if (!enabled && !scrapData.mMaxScrapPinned) {
+                    scrapData.mMaxScrap = DEFAULT_MAX_SCRAP;
+                    evict(scrapData, DEFAULT_MAX_SCRAP);
+                }
+            }
+            updateTrimMemoryRegistration();
+        }
+
+        /**
+         * Returns whether adaptive sizing is enabled.
+         *
+         * @see #setAdaptiveSizingEnabled(boolean)
+         */
+        public boolean isAdaptiveSizingEnabled() {
+            return mAdaptiveSizingEnabled;
+        }
+
+        /**
+         * Releases pooled views according to the memory trim {@code level}. Views are dropped
+         * entirely once the app is in the background or memory is critically low, and each view
+         * type keeps at most half of its capacity while memory is running low.
+         * <p>
+         * Pools with adaptive sizing enabled receive trim events on their own while a
+         * RecyclerView using them is attached; this can be called directly for other pools.
+         *
+         * @param level The level passed to {@link ComponentCallbacks2#onTrimMemory(int)}.
+         */
+        public void onTrimMemory(int level) {
+            final boolean releaseAll = level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                    || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+            if (!releaseAll && level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+                return;
+            }
+            for (int i = 0; i < mScrap.size(); i++) {
+                final ScrapData scrapData = mScrap.valueAt(i);
+                evict(scrapData, releaseAll ? 0 : scrapData.mMaxScrap / 2);
+            }
+        }
+
+        /**
+         * Returns a snapshot of the counters the pool keeps for {@code viewType}.
+         *
+         * @param viewType ViewHolder type.
+         * @return The counters of the view type, all zero if the pool has not seen it yet.
+         */
+        @NonNull
+        public ViewTypeStats getViewTypeStats(int viewType) {
+            final ScrapData scrapData = mScrap.get(viewType);
+            return new ViewTypeStats(viewType, scrapData != null ? scrapData : new ScrapData());
+        }
+
+        /**
+         * Returns a snapshot of the counters of every view type the pool has seen, ordered by
+         * view type.
+         */
+        @NonNull
+        public List<ViewTypeStats> getViewTypeStats() {
+            final List<ViewTypeStats> stats = new ArrayList<>(mScrap.size());
+            for (int i = 0; i < mScrap.size(); i++) {
+                stats.add(new ViewTypeStats(mScrap.keyAt(i), mScrap.valueAt(i)));
+            }
+            return stats;
+        }
+
+        /**
+         * Resets the create, bind, hit, miss and eviction counters and the peak on screen
+         * counts of every view type. Running averages and capacities are kept.
+         */
+        public void resetViewTypeStats() {
+            for (int i = 0; i < mScrap.size(); i++) {
+                final ScrapData scrapData = mScrap.valueAt(i);
+                scrapData.mCreateCount = 0;
+                scrapData.mBindCount = 0;
+                scrapData.mHitCount = 0;
+                scrapData.mMissCount = 0;
+                scrapData.mEvictionCount = 0;
+                scrapData.mPeakOnScreenCount = 0;
             }
         }
 
@@ -7206,7 +7419,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          * Returns the current number of Views held by the RecycledViewPool of the given view type.
          */
         public int getRecycledViewCount(int viewType) {
-            return getScrapDataForType(viewType).mScrapHeap.size();
+            final ScrapData scrapData = mScrap.get(viewType);
+            return scrapData != null ? scrapData.mScrapHeap.size() : 0;
         }
 
         /**
@@ -7220,14 +7434,35 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         @Nullable
         public ViewHolder getRecycledView(int viewType) {
             final ScrapData scrapData = mScrap.get(viewType);
-            if (scrapData != null && !scrapData.mScrapHeap.isEmpty()) {
+            if (scrapData == null) {
+                // Nothing to count yet, the entry is added once a view of the type is created
+                return null;
+            }
+            if (!scrapData.mScrapHeap.isEmpty()) {
                 final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
                 for (int i = scrapHeap.size() - 1; i >= 0; i--) {
                     if (!scrapHeap.get(i).isAttachedToTransitionOverlay()) {
-                        return scrapHeap.remove(i);
+                        final ViewHolder scrap = scrapHeap.remove(i);
+                        scrapData.mHitCount++;
+                        if (scrapHeap.size() < scrapData.mWindowMinHeapSize) {
+                            scrapData.mWindowMinHeapSize = scrapHeap.size();
+                        }
+                        onOperation(scrapData);
+                        return scrap;
                     }
                 }
             }
+            scrapData.mMissCount++;
+            if (mAdaptiveSizingEnabled && !scrapData.mMaxScrapPinned) {
+                scrapData.mWindowMissCount++;
+                // A view of this type was thrown away and is now needed again.
+                if (scrapData.mEvictedSinceMiss
+                        && scrapData.mMaxScrap < getAdaptiveMaxScrap(scrapData)) {
+                    scrapData.mMaxScrap++;
+                }
+                scrapData.mEvictedSinceMiss = false;
+            }
+            onOperation(scrapData);
             return null;
         }
 
@@ -7256,9 +7491,13 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         public void putRecycledView(ViewHolder scrap) {
             final int viewType = scrap.getItemViewType();
-            final ArrayList<ViewHolder> scrapHeap = getScrapDataForType(viewType).mScrapHeap;
-            if (mScrap.get(viewType).mMaxScrap <= scrapHeap.size()) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            if (scrapData.mMaxScrap <= scrapHeap.size()) {
                 PoolingContainer.callPoolingContainerOnRelease(scrap.itemView);
+                scrapData.mEvictionCount++;
+                scrapData.mEvictedSinceMiss = true;
+                onOperation(scrapData);
                 return;
             }
             if (sDebugAssertionsEnabled && scrapHeap.contains(scrap)) {
@@ -7266,6 +7505,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             }
             scrap.resetInternal();
             scrapHeap.add(scrap);
+            onOperation(scrapData);
         }
 
         long runningAverage(long oldAverage, long newValue) {
@@ -7277,16 +7517,75 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
         void factorInCreateTime(int viewType, long createTimeNs) {
             ScrapData scrapData = getScrapDataForType(viewType);
+            scrapData.mCreateCount++;
             scrapData.mCreateRunningAverageNs = runningAverage(
                     scrapData.mCreateRunningAverageNs, createTimeNs);
         }
 
         void factorInBindTime(int viewType, long bindTimeNs) {
             ScrapData scrapData = getScrapDataForType(viewType);
+            scrapData.mBindCount++;
             scrapData.mBindRunningAverageNs = runningAverage(
                     scrapData.mBindRunningAverageNs, bindTimeNs);
         }
 
+        /**
+         * Records how many views of each type {@code recyclerView} currently shows, which bounds
+         * how far adaptive sizing grows a type.
+         */
+        void recordOnScreenCounts(@NonNull RecyclerView recyclerView) {
+            final ChildHelper childHelper = recyclerView.mChildHelper;
+            final SparseIntArray counts = mOnScreenCounts;
+            counts.clear();
+            for (int i = 0; i < childHelper.getChildCount(); i++) {
+                final ViewHolder holder = getChildViewHolderInt(childHelper.getChildAt(i));
+                if (holder != null && !holder.shouldIgnore()) {
+                    final int viewType = holder.getItemViewType();
+                    counts.put(viewType, counts.get(viewType) + 1);
+                }
+            }
+            for (int i = 0; i < counts.size(); i++) {
+                final ScrapData scrapData = getScrapDataForType(counts.keyAt(i));
+                if (counts.valueAt(i) > scrapData.mPeakOnScreenCount) {
+                    scrapData.mPeakOnScreenCount = counts.valueAt(i);
+                }
+            }
+        }
+
+        private void onOperation(@NonNull ScrapData scrapData) {
+            if (!mAdaptiveSizingEnabled || scrapData.mMaxScrapPinned
+                    || ++scrapData.mWindowOperationCount < ADAPTIVE_SIZING_WINDOW) {
+                return;
+            }
+            // Views that stayed in the pool for the whole window without a miss were not needed.
+            if (scrapData.mWindowMissCount == 0 && scrapData.mWindowMinHeapSize > 0) {
+                scrapData.mMaxScrap = Math.max(1,
+                        scrapData.mMaxScrap - scrapData.mWindowMinHeapSize);
+                evict(scrapData, scrapData.mMaxScrap);
+            }
+            resetWindow(scrapData);
+        }
+
+        private static void resetWindow(@NonNull ScrapData scrapData) {
+            scrapData.mWindowOperationCount = 0;
+            scrapData.mWindowMissCount = 0;
+            scrapData.mWindowMinHeapSize = scrapData.mScrapHeap.size();
+        }
+
+        private static int getAdaptiveMaxScrap(@NonNull ScrapData scrapData) {
+            return Math.min(MAX_ADAPTIVE_SCRAP,
+                    Math.max(DEFAULT_MAX_SCRAP, scrapData.mPeakOnScreenCount));
+        }
+
+        private static void evict(@NonNull ScrapData scrapData, int maxSize) {
+            final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
+            while (scrapHeap.size() > Math.max(0, maxSize)) {
+                final ViewHolder scrap = scrapHeap.remove(scrapHeap.size() - 1);
+                PoolingContainer.callPoolingContainerOnRelease(scrap.itemView);
+                scrapData.mEvictionCount++;
+            }
+        }
+
         boolean willCreateInTime(int viewType, long approxCurrentNs, long deadlineNs) {
             long expectedDurationNs = getScrapDataForType(viewType).mCreateRunningAverageNs;
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
@@ -7297,6 +7596,63 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
         }
 
+        /**
+         * Called when a RecyclerView using this pool is attached to a window, or starts using
+         * this pool while attached.
+         */
+        void onRecyclerViewAttached(@NonNull Context context) {
+            if (mAttachedRecyclerViewCount++ == 0) {
+                mApplicationContext = context.getApplicationContext();
+            }
+            updateTrimMemoryRegistration();
+        }
+
+        /**
+         * Called when a RecyclerView using this pool is detached from its window, or stops using
+         * this pool while attached.
+         */
+        void onRecyclerViewDetached() {
+            if (--mAttachedRecyclerViewCount == 0) {
+                updateTrimMemoryRegistration();
+                mApplicationContext = null;
+            }
+        }
+
+        /**
+         * Registers {@link #mTrimMemoryCallbacks} while adaptive sizing is enabled and a
+         * RecyclerView using this pool is attached, and unregisters it otherwise.
+         */
+        private void updateTrimMemoryRegistration() {
+            if (mApplicationContext == null) {
+                return;
+            }
+            final boolean register = mAdaptiveSizingEnabled && mAttachedRecyclerViewCount > 0;
+            if (register == (mTrimMemoryCallbacks != null)) {
+                return;
+            }
+            if (register) {
+                mTrimMemoryCallbacks = new ComponentCallbacks2() {
+                    @Override
+                    public void onTrimMemory(int level) {
+                        RecycledViewPool.this.onTrimMemory(level);
+                    }
+
+                    @Override
+                    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                    }
+
+                    @Override
+                    public void onLowMemory() {
+                        onTrimMemory(TRIM_MEMORY_COMPLETE);
+                    }
+                };
+                mApplicationContext.registerComponentCallbacks(mTrimMemoryCallbacks);
+            } else {
+                mApplicationContext.unregisterComponentCallbacks(mTrimMemoryCallbacks);
+                mTrimMemoryCallbacks = null;
+            }
+        }
+
         void attach() {
             mAttachCountForClearing++;
         }
@@ -7372,6 +7728,135 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             }
             return scrapData;
         }
+
+        /**
+         * Snapshot of the counters a {@link RecycledViewPool} keeps for one view type, shared by
+         * every RecyclerView using the pool.
+         *
+         * @see RecycledViewPool#getViewTypeStats(int)
+         */
+        public static final class ViewTypeStats {
+            private final int mViewType;
+            private final long mCreateCount;
+            private final long mBindCount;
+            private final long mHitCount;
+            private final long mMissCount;
+            private final long mEvictionCount;
+            private final long mAverageCreateTimeNs;
+            private final long mAverageBindTimeNs;
+            private final int mMaxRecycledViews;
+            private final int mRecycledViewCount;
+            private final int mPeakOnScreenCount;
+
+            ViewTypeStats(int viewType, @NonNull ScrapData scrapData) {
+                mViewType = viewType;
+                mCreateCount = scrapData.mCreateCount;
+                mBindCount = scrapData.mBindCount;
+                mHitCount = scrapData.mHitCount;
+                mMissCount = scrapData.mMissCount;
+                mEvictionCount = scrapData.mEvictionCount;
+                mAverageCreateTimeNs = scrapData.mCreateRunningAverageNs;
+                mAverageBindTimeNs = scrapData.mBindRunningAverageNs;
+                mMaxRecycledViews = scrapData.mMaxScrap;
+                mRecycledViewCount = scrapData.mScrapHeap.size();
+                mPeakOnScreenCount = scrapData.mPeakOnScreenCount;
+            }
+
+            public int getViewType() {
+                return mViewType;
+            }
+
+            /**
+             * Returns the number of ViewHolders created for this type.
+             */
+            public long getCreateCount() {
+                return mCreateCount;
+            }
+
+            /**
+             * Returns the number of times a ViewHolder of this type was bound.
+             */
+            public long getBindCount() {
+                return mBindCount;
+            }
+
+            /**
+             * Returns the number of times a ViewHolder of this type was taken from the pool.
+             */
+            public long getHitCount() {
+                return mHitCount;
+            }
+
+            /**
+             * Returns the number of times the pool had no ViewHolder of this type to give.
+             */
+            public long getMissCount() {
+                return mMissCount;
+            }
+
+            /**
+             * Returns the number of ViewHolders of this type the pool discarded, because it was
+             * full, shrunk or trimmed.
+             */
+            public long getEvictionCount() {
+                return mEvictionCount;
+            }
+
+            /**
+             * Returns the running average time to create a ViewHolder of this type, or 0 if
+             * none was created yet.
+             */
+            public long getAverageCreateTimeNs() {
+                return mAverageCreateTimeNs;
+            }
+
+            /**
+             * Returns the running average time to bind a ViewHolder of this type, or 0 if none
+             * was bound yet.
+             */
+            public long getAverageBindTimeNs() {
+                return mAverageBindTimeNs;
+            }
+
+            /**
+             * Returns the current capacity of the pool for this type.
+             */
+            public int getMaxRecycledViews() {
+                return mMaxRecycledViews;
+            }
+
+            /**
+             * Returns the number of ViewHolders of this type held by the pool.
+             */
+            public int getRecycledViewCount() {
+                return mRecycledViewCount;
+            }
+
+            /**
+             * Returns the largest number of views of this type seen on screen at once by a
+             * RecyclerView using the pool. Only tracked while adaptive sizing is enabled.
+             */
+            public int getPeakOnScreenCount() {
+                return mPeakOnScreenCount;
+            }
+
+            @NonNull
+            @Override
+            public String toString() {
+                return "ViewTypeStats{viewType=" + mViewType
+                        + ", creates=" + mCreateCount
+                        + ", binds=" + mBindCount
+                        + ", hits=" + mHitCount
+                        + ", misses=" + mMissCount
+                        + ", evictions=" + mEvictionCount
+                        + ", avgCreateNs=" + mAverageCreateTimeNs
+                        + ", avgBindNs=" + mAverageBindTimeNs
+                        + ", max=" + mMaxRecycledViews
+                        + ", pooled=" + mRecycledViewCount
+                        + ", peakOnScreen=" + mPeakOnScreenCount
+                        + "}";
+            }
+        }
     }
 
     /**
@@ -7588,6 +8073,11 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
             long endBindNs = getNanoTime();
             mRecyclerPool.factorInBindTime(holder.getItemViewType(), endBindNs - startBindNs);
+            final SeslFrameMetrics metrics = mFrameMetrics;
+            if (metrics != null) {
+                metrics.mBindNanos += endBindNs - startBindNs;
+                metrics.mBindCount++;
+            }
             attachAccessibilityDelegateOnBind(holder);
             if (mState.isPreLayout()) {
                 holder.mPreLayoutPosition = position;
@@ -7818,6 +8308,11 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
                     long end = getNanoTime();
                     mRecyclerPool.factorInCreateTime(type, end - start);
+                    final SeslFrameMetrics metrics = mFrameMetrics;
+                    if (metrics != null) {
+                        metrics.mCreateNanos += end - start;
+                        metrics.mCreateCount++;
+                    }
                     if (sVerboseLoggingEnabled) {
                         Log.d(TAG, "tryGetViewHolderForPositionByDeadline created new ViewHolder");
                     }
@@ -8451,11 +8946,17 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             poolingContainerDetach(mAdapter);
             if (mRecyclerPool != null) {
                 mRecyclerPool.detach();
+                if (mIsAttached) {
+                    mRecyclerPool.onRecyclerViewDetached();
+                }
             }
             mRecyclerPool = pool;
             if (mRecyclerPool != null && getAdapter() != null) {
                 mRecyclerPool.attach();
             }
+            if (mRecyclerPool != null && mIsAttached) {
+                mRecyclerPool.onRecyclerViewAttached(getContext());
+            }
             maybeSendPoolingContainerAttach();
         }
 
@@ -8479,6 +8980,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
         void onAttachedToWindow() {
             maybeSendPoolingContainerAttach();
+            if (mRecyclerPool != null) {
+                mRecyclerPool.onRecyclerViewAttached(getContext());
+            }
         }
 
         void onDetachedFromWindow() {
@@ -8486,12 +8990,18 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                 PoolingContainer.callPoolingContainerOnRelease(mCachedViews.get(i).itemView);
             }
             poolingContainerDetach(mAdapter);
+            if (mRecyclerPool != null) {
+                mRecyclerPool.onRecyclerViewDetached();
+            }
         }
 
         RecycledViewPool getRecycledViewPool() {
             if (mRecyclerPool == null) {
                 mRecyclerPool = new RecycledViewPool();
                 maybeSendPoolingContainerAttach();
+                if (mIsAttached) {
+                    mRecyclerPool.onRecyclerViewAttached(getContext());
+                }
             }
             return mRecyclerPool;
         }
@@ -15557,6 +16067,27 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         void onLongPressMultiSelectionEnded(int endX, int endY);
 
         void onLongPressMultiSelectionStarted(int startX, int startY);
+
+        /**
+         * Called once per drag event with every position whose selection changed, after the
+         * per item {@link #onItemSelected} calls.
+         */
+        default void onMultiSelectionChanged(@NonNull RecyclerView view,
+                @NonNull SeslSelectionState.Delta delta) {
+        }
+    }
+
+    /**
+     * Receives the {@link SeslFrameMetrics} of each frame a RecyclerView draws.
+     *
+     * @see #seslSetFrameMetricsListener(SeslFrameMetricsListener)
+     */
+    public interface SeslFrameMetricsListener {
+        /**
+         * Called at the end of {@link RecyclerView#draw} with the work done since the previous
+         * call. {@code metrics} is reused and must not be kept after this returns.
+         */
+        void onFrameMetrics(@NonNull RecyclerView view, @NonNull SeslFrameMetrics metrics);
     }
 
     public interface SeslOnGoToTopClickListener {
@@ -15570,6 +16101,13 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
         void onMultiSelected(@NonNull RecyclerView view, @NonNull View child, int position,
                 long id);
+
+        /**
+         * Called once per pen drag event with every position whose selection changed.
+         */
+        default void onMultiSelectionChanged(@NonNull RecyclerView view,
+                @NonNull SeslSelectionState.Delta delta) {
+        }
     }
 
     private boolean isSupportGotoTop() {
@@ -15628,6 +16166,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
 
     void setupGoToTop(int where) {
         if (isGoToTopAvailableEnvironment() && mEnableGoToTop) {
+            final SeslFrameMetrics metrics = mFrameMetrics;
+            final long startNs = metrics != null ? System.nanoTime() : 0;
             removeCallbacks(mAutoHide);
             if (where == GTP_STATE_SHOWN && !canScrollUp()) {
                 where = GTP_STATE_NONE;
@@ -15688,6 +16228,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             mSizeChnage = false;
 
             mGoToTopLastState = mGoToTopState;
+            if (metrics != null) {
+                metrics.mGoToTopNanos += System.nanoTime() - startNs;
+            }
         }
     }
 
@@ -15872,10 +16415,6 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         final int touchX = (int) (ev.getX() + 0.5f);
         final int touchY = (int) (ev.getY() + 0.5f);
 
-        if (mPenDragSelectedItemArray == null) {
-            mPenDragSelectedItemArray = new ArrayList<>();
-        }
-
         final int contentTop;
         final int contentBottom;
         if (mIsEnabledPaddingInHoverScroll) {
@@ -15936,12 +16475,12 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     mPenDragBlockTop = 0;
                     mPenDragBlockRight = 0;
                     mPenDragBlockBottom = 0;
-                    mPenDragSelectedItemArray.clear();
+                    mPenDragSelectedItems.clear();
                     mPenTrackedChild = null;
                     mPenDistanceFromTrackedChildTop = 0;
 
-                    if (mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-                        mHoverHandler.removeMessages(MSG_HOVERSCROLL_MOVE);
+                    if (mHoverScroller.isRunning()) {
+                        mHoverScroller.stop();
                         if (mScrollState == SCROLL_STATE_DRAGGING) {
                             setScrollState(SCROLL_STATE_IDLE);
                         }
@@ -15994,9 +16533,6 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             break;
 
             case MOTION_EVENT_ACTION_PEN_DOWN: {
-                if (mPenDragSelectedItemArray == null) {
-                    mPenDragSelectedItemArray = new ArrayList<>();
-                }
                 return super.dispatchTouchEvent(ev);
             }
 
@@ -16038,6 +16574,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     protected void dispatchDraw(@NonNull Canvas canvas) {
         super.dispatchDraw(canvas);
 
+        final SeslFrameMetrics metrics = mFrameMetrics;
+        final long startNs = metrics != null ? System.nanoTime() : 0;
         final int count = mItemDecorations.size();
         for (int i = 0; i < count; i++) {
             mItemDecorations.get(i).seslOnDispatchDraw(canvas, this, mState);
@@ -16088,6 +16626,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         }
 
         mLastItemAnimTop = mBlackTop;
+        if (metrics != null) {
+            metrics.mSeslDispatchDrawNanos += System.nanoTime() - startNs;
+        }
     }
 
 
@@ -16287,6 +16828,22 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         mOnGoToTopClickListener = listener;
     }
 
+    /**
+     * Sets a listener that receives the time this RecyclerView spent on layout, creating and
+     * binding ViewHolders, prefetching, item animations and decorations for every frame it
+     * draws. Nothing is measured while no listener is set.
+     *
+     * @param listener The listener, or {@code null} to stop collecting frame metrics.
+     */
+    public void seslSetFrameMetricsListener(@Nullable SeslFrameMetricsListener listener) {
+        mFrameMetricsListener = listener;
+        if (listener == null) {
+            mFrameMetrics = null;
+        } else if (mFrameMetrics == null) {
+            mFrameMetrics = new SeslFrameMetrics();
+        }
+    }
+
     public void seslShowGoToTopEdge(float deltaDistance, float displacement, int delayTime) {
         removeCallbacks(mGoToTopEdgeEffectRunnable);
         postDelayed(mGoToTopEdgeEffectRunnable, (long) delayTime);
@@ -16475,6 +17032,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         mPenDragBlockRight = Math.max(mPenDragEndX, mPenDragStartX);
         mPenDragBlockBottom = Math.max(mPenDragEndY, mPenDragStartY);
 
+        final SeslSelectionState.Delta delta = mPenDragSelectionDelta;
+        delta.clear();
         final int childCount = mChildHelper.getChildCount();
         for (int i = 0; i < childCount; i++) {
             final View child = getChildAt(i);
@@ -16488,29 +17047,21 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                             && mPenDragSelectedViewPosition <= endPosition
                             && mPenDragSelectedViewPosition != mPenTrackedChildPosition;
 
-                    if (needSelected) {
-                        if (mPenDragSelectedViewPosition != NO_POSITION
-                                && !mPenDragSelectedItemArray.contains(mPenDragSelectedViewPosition)) {
-                            mPenDragSelectedItemArray.add(mPenDragSelectedViewPosition);
-                            if (mLongPressMultiSelectionListener != null) {
-                                mLongPressMultiSelectionListener.onItemSelected(this, child,
-                                        mPenDragSelectedViewPosition, getChildItemId(child));
-                            }
-                        }
-                    } else {
-                        if (mPenDragSelectedViewPosition != NO_POSITION
-                                && mPenDragSelectedItemArray.contains(mPenDragSelectedViewPosition)) {
-                            mPenDragSelectedItemArray.remove((Object)mPenDragSelectedViewPosition);
-                            if (mLongPressMultiSelectionListener != null) {
-                                mLongPressMultiSelectionListener.onItemSelected(this, child,
-                                        mPenDragSelectedViewPosition, getChildItemId(child));
-                            }
+                    if (mPenDragSelectedItems.setSelected(mPenDragSelectedViewPosition,
+                            needSelected, delta)) {
+                        if (mLongPressMultiSelectionListener != null) {
+                            mLongPressMultiSelectionListener.onItemSelected(this, child,
+                                    mPenDragSelectedViewPosition, getChildItemId(child));
                         }
                     }
                 }
             }
         }
 
+        if (!delta.isEmpty() && mLongPressMultiSelectionListener != null) {
+            mLongPressMultiSelectionListener.onMultiSelectionChanged(this, delta);
+        }
+
         if (fromUserTouch) {
             final int touchYDiff = mLastTouchY - y;
             if (Math.abs(touchYDiff) >= mTouchSlop) {
@@ -16519,17 +17070,16 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                             && touchYDiff < 0) {
                         if (!mHoverAreaEnter) {
                             mHoverAreaEnter = true;
-                            mHoverScrollStartTime = System.currentTimeMillis();
+                            mHoverScrollStartTime = SystemClock.uptimeMillis();
                             if (mScrollListener != null) {
                                 mScrollListener.onScrollStateChanged(this,
                                         SCROLL_STATE_DRAGGING);
                             }
                         }
 
-                        if (!mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-                            mHoverRecognitionStartTime = System.currentTimeMillis();
+                        if (!mHoverScroller.isRunning()) {
                             mHoverScrollDirection = HOVERSCROLL_UP;
-                            mHoverHandler.sendEmptyMessage(MSG_HOVERSCROLL_MOVE);
+                            mHoverScroller.start();
                         }
                     } else {
                         if (mHoverAreaEnter) {
@@ -16540,10 +17090,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                         }
 
                         mHoverScrollStartTime = 0;
-                        mHoverRecognitionStartTime = 0;
                         mHoverAreaEnter = false;
-                        if (mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-                            mHoverHandler.removeMessages(MSG_HOVERSCROLL_MOVE);
+                        if (mHoverScroller.isRunning()) {
+                            mHoverScroller.stop();
                             if (mScrollState == SCROLL_STATE_DRAGGING) {
                                 setScrollState(SCROLL_STATE_IDLE);
                             }
@@ -16554,17 +17103,16 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                 } else {
                     if (!mHoverAreaEnter) {
                         mHoverAreaEnter = true;
-                        mHoverScrollStartTime = System.currentTimeMillis();
+                        mHoverScrollStartTime = SystemClock.uptimeMillis();
                         if (mScrollListener != null) {
                             mScrollListener.onScrollStateChanged(this,
                                     SCROLL_STATE_DRAGGING);
                         }
                     }
 
-                    if (!mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-                        mHoverRecognitionStartTime = System.currentTimeMillis();
+                    if (!mHoverScroller.isRunning()) {
                         mHoverScrollDirection = HOVERSCROLL_DOWN;
-                        mHoverHandler.sendEmptyMessage(MSG_HOVERSCROLL_MOVE);
+                        mHoverScroller.start();
                     }
                 }
             }
@@ -16627,6 +17175,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             mPenDragBlockRight = Math.max(mPenDragEndX, mPenDragStartX);
             mPenDragBlockBottom = Math.max(mPenDragEndY, mPenDragStartY);
 
+            updatePenDragSelection(mPenDragEndX, mPenDragEndY);
+
             needToScroll = true;
         }
 
@@ -16641,10 +17191,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     }
 
                     mHoverScrollStartTime = 0;
-                    mHoverRecognitionStartTime = 0;
                     mHoverAreaEnter = false;
-                    if (mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-                        mHoverHandler.removeMessages(MSG_HOVERSCROLL_MOVE);
+                    if (mHoverScroller.isRunning()) {
+                        mHoverScroller.stop();
                         if (mScrollState == SCROLL_STATE_DRAGGING) {
                             setScrollState(SCROLL_STATE_IDLE);
                         }
@@ -16654,33 +17203,31 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                 } else {
                     if (!mHoverAreaEnter) {
                         mHoverAreaEnter = true;
-                        mHoverScrollStartTime = System.currentTimeMillis();
+                        mHoverScrollStartTime = SystemClock.uptimeMillis();
                         if (mScrollListener != null) {
                             mScrollListener.onScrollStateChanged(this,
                                     SCROLL_STATE_DRAGGING);
                         }
                     }
 
-                    if (!mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-                        mHoverRecognitionStartTime = System.currentTimeMillis();
+                    if (!mHoverScroller.isRunning()) {
                         mHoverScrollDirection = HOVERSCROLL_UP;
-                        mHoverHandler.sendEmptyMessage(MSG_HOVERSCROLL_MOVE);
+                        mHoverScroller.start();
                     }
                 }
             } else {
                 if (!mHoverAreaEnter) {
                     mHoverAreaEnter = true;
-                    mHoverScrollStartTime = System.currentTimeMillis();
+                    mHoverScrollStartTime = SystemClock.uptimeMillis();
                     if (mScrollListener != null) {
                         mScrollListener.onScrollStateChanged(this,
                                 SCROLL_STATE_DRAGGING);
                     }
                 }
 
-                if (!mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-                    mHoverRecognitionStartTime = System.currentTimeMillis();
+                if (!mHoverScroller.isRunning()) {
                     mHoverScrollDirection = HOVERSCROLL_DOWN;
-                    mHoverHandler.sendEmptyMessage(MSG_HOVERSCROLL_MOVE);
+                    mHoverScroller.start();
                 }
             }
 
@@ -16690,6 +17237,49 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         }
     }
 
+    /**
+     * Makes the pen drag selection the range from the tracked child to the child under
+     * ({@code x}, {@code y}), and reports the positions that changed in one batch.
+     */
+    private void updatePenDragSelection(int x, int y) {
+        if (mOnMultiSelectedListener == null || mPenTrackedChildPosition == NO_POSITION) {
+            return;
+        }
+
+        View touchedView = findChildViewUnder(x, y);
+        if (touchedView == null) {
+            touchedView = seslFindNearChildViewUnder(x, y);
+            if (touchedView == null) {
+                return;
+            }
+        }
+        final int touchedPosition = getChildLayoutPosition(touchedView);
+        if (touchedPosition == NO_POSITION) {
+            return;
+        }
+
+        final int start = Math.min(mPenTrackedChildPosition, touchedPosition);
+        final int end = Math.max(mPenTrackedChildPosition, touchedPosition);
+        final SeslSelectionState.Delta delta = mPenDragSelectionDelta;
+        delta.clear();
+        mPenDragSelectedItems.setRangeSelected(0, start - 1, false, delta);
+        mPenDragSelectedItems.setRangeSelected(end + 1, Integer.MAX_VALUE, false, delta);
+        mPenDragSelectedItems.setRangeSelected(start, end, true, delta);
+
+        if (!delta.isEmpty()) {
+            mOnMultiSelectedListener.onMultiSelectionChanged(this, delta);
+        }
+    }
+
+    /**
+     * Returns the positions selected by the current pen or long press drag. The positions are
+     * kept in sync with adapter updates and cleared when the drag ends.
+     */
+    @NonNull
+    public SeslSelectionState seslGetDragSelectionState() {
+        return mPenDragSelectedItems;
+    }
+
     private void multiSelectionEnd(int x, int y) {
         if (mIsPenPressed && mOnMultiSelectedListener != null) {
             mOnMultiSelectedListener.onMultiSelectStop(x, y);
@@ -16698,7 +17288,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
         mIsPenPressed = false;
         mIsFirstPenMoveEvent = true;
         mPenDragSelectedViewPosition = NO_POSITION;
-        mPenDragSelectedItemArray.clear();
+        mPenDragSelectedItems.clear();
         mPenDragStartX = 0;
         mPenDragStartY = 0;
         mPenDragEndX = 0;
@@ -16714,8 +17304,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             invalidate();
         }
 
-        if (mHoverHandler.hasMessages(MSG_HOVERSCROLL_MOVE)) {
-            mHoverHandler.removeMessages(MSG_HOVERSCROLL_MOVE);
+        if (mHoverScroller.isRunning()) {
+            mHoverScroller.stop();
         }
     }
 
@@ -17131,7 +17721,7 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     }
 
                     if (!mHoverAreaEnter) {
-                        mHoverScrollStartTime = System.currentTimeMillis();
+                        mHoverScrollStartTime = SystemClock.uptimeMillis();
                     }
 
                     switch (action){
@@ -17145,29 +17735,27 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                             if (hoverPointTop >= mExtraPaddingInBottomHoverArea
                                     && hoverPointTop <= mExtraPaddingInBottomHoverArea + mHoverTopAreaHeight) {
 
-                                if (!mHoverHandler.hasMessages(0)) {
-                                    mHoverRecognitionStartTime = System.currentTimeMillis();
+                                if (!mHoverScroller.isRunning()) {
                                     if (!mIsHoverOverscrolled || mHoverScrollDirection == HOVERSCROLL_UP) {
                                         showPointerIcon(event,  getRotatedArrowPointerIcon(false, canScrollHorizontally));
                                     }
                                     mHoverScrollDirection = HOVERSCROLL_DOWN;
-                                    mHoverHandler.sendEmptyMessage(0);
+                                    mHoverScroller.start();
                                 }
                             } else {
                                 if (hoverPointTop >= maxHoverScrollRange - mHoverBottomAreaHeight - mRemainNestedScrollRange
                                         && hoverPointTop <= maxHoverScrollRange - mRemainNestedScrollRange
                                 ) {
-                                    if (!mHoverHandler.hasMessages(0)) {
-                                        mHoverRecognitionStartTime = System.currentTimeMillis();
+                                    if (!mHoverScroller.isRunning()) {
                                         if (!mIsHoverOverscrolled || mHoverScrollDirection == HOVERSCROLL_DOWN) {
                                             showPointerIcon(event, getRotatedArrowPointerIcon(true, canScrollHorizontally));
                                         }
                                         mHoverScrollDirection = HOVERSCROLL_UP;
-                                        mHoverHandler.sendEmptyMessage(0);
+                                        mHoverScroller.start();
                                     }
                                 } else {
-                                    if (mHoverHandler.hasMessages(0)) {
-                                        mHoverHandler.removeMessages(0);
+                                    if (mHoverScroller.isRunning()) {
+                                        mHoverScroller.stop();
                                         if (mScrollState == SCROLL_STATE_DRAGGING) {
                                             setScrollState(SCROLL_STATE_IDLE);
                                         }
@@ -17176,7 +17764,6 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                                     final int pointerIcon =
                                             SeslPointerIconReflector.getField_SEM_TYPE_STYLUS_DEFAULT();
                                     showPointerIcon(event, pointerIcon);
-                                    mHoverRecognitionStartTime = 0L;
                                     mHoverScrollStartTime = 0L;
                                     mIsHoverOverscrolled = false;
                                     mHoverAreaEnter = false;
@@ -17189,28 +17776,26 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                             if (hoverPointTop >= mExtraPaddingInBottomHoverArea
                                     && hoverPointTop <= mExtraPaddingInBottomHoverArea + mHoverTopAreaHeight
                             ) {
-                                if (!mHoverHandler.hasMessages(0)) {
-                                    mHoverRecognitionStartTime = System.currentTimeMillis();
+                                if (!mHoverScroller.isRunning()) {
                                     showPointerIcon(event, getRotatedArrowPointerIcon(false, canScrollHorizontally));
                                     mHoverScrollDirection =  HOVERSCROLL_DOWN;
-                                    mHoverHandler.sendEmptyMessage(0);
+                                    mHoverScroller.start();
                                 }
                             } else {
 
                                 if (hoverPointTop >= maxHoverScrollRange - mHoverBottomAreaHeight - mRemainNestedScrollRange
                                         && hoverPointTop <= maxHoverScrollRange - mRemainNestedScrollRange
-                                        && !mHoverHandler.hasMessages(0)
+                                        && !mHoverScroller.isRunning()
                                 ) {
-                                    mHoverRecognitionStartTime = System.currentTimeMillis();
                                     showPointerIcon(event, getRotatedArrowPointerIcon(true, canScrollHorizontally));
                                     mHoverScrollDirection = HOVERSCROLL_UP;
-                                    mHoverHandler.sendEmptyMessage(0);
+                                    mHoverScroller.start();
                                 }
                             }
                             break;
                         case ACTION_HOVER_EXIT://10
-                            if (mHoverHandler.hasMessages(0)) {
-                                mHoverHandler.removeMessages(0);
+                            if (mHoverScroller.isRunning()) {
+                                mHoverScroller.stop();
                             }
 
                             if (mScrollState == SCROLL_STATE_DRAGGING) {
@@ -17221,7 +17806,6 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                                     SeslPointerIconReflector.getField_SEM_TYPE_STYLUS_DEFAULT();
                             showPointerIcon(event, pointerIcon);
 
-                            mHoverRecognitionStartTime = 0L;
                             mHoverScrollStartTime = 0L;
                             mIsHoverOverscrolled = false;
                             mHoverAreaEnter = false;
@@ -17249,8 +17833,8 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             }
         }
 
-        if (mHoverHandler.hasMessages(0)) {
-            mHoverHandler.removeMessages(0);
+        if (mHoverScroller.isRunning()) {
+            mHoverScroller.stop();
             showPointerIcon(event, SeslPointerIconReflector.getField_SEM_TYPE_STYLUS_DEFAULT());
             if (mScrollState == SCROLL_STATE_DRAGGING) {
                 setScrollState(SCROLL_STATE_IDLE);
@@ -17277,7 +17861,6 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             showPointerIcon(event, pointerIcon);
         }
 
-        mHoverRecognitionStartTime = 0L;
         mHoverScrollStartTime = 0L;
         mHoverAreaEnter = false;
         mIsSendHoverScrollState = false;
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Drives an edge auto-scroll from {@link Choreographer} frame callbacks.
+ *
+ * <p>Used by {@link RecyclerView} for hover and pen drag selection scrolling, and by
+ * {@link ItemTouchHelper} for drag scrolling. Every step runs on vsync, and speeds are expressed
+ * in pixels per 60 Hz frame and scaled with {@link #getFrameScale()} by the time that actually
+ * elapsed since the previous frame, so the scroll covers the same distance per second on 60, 90
+ * and 120 Hz panels. The frame callback is re-posted instead of sending a message, so a running
+ * scroll does not allocate.
+ *
+ * <p>Must be used from the thread that owns the view.
+ */
+final class SeslAutoScroller implements Choreographer.FrameCallback {
+    static final long NANOS_PER_MS = 1000000L;
+
+    /**
+     * Frame time the speeds passed to {@link #getFrameScale()} are tuned for.
+     */
+    private static final long REFERENCE_FRAME_NANOS = 1000000000L / 60;
+
+    /**
+     * Longest frame a single step catches up on, so a scroll does not jump after a stall.
+     */
+    private static final long MAX_FRAME_NANOS = REFERENCE_FRAME_NANOS * 4;
+
+    interface Callback {
+        /**
+         * Performs one scroll step. Returns whether the scroller should run again on the next
+         * frame.
+         */
+        boolean onAutoScrollFrame(@NonNull SeslAutoScroller scroller, long frameTimeNanos);
+    }
+
+    private final Callback mCallback;
+    private boolean mRunning;
+    private boolean mInFrame;
+    private long mStartTimeNanos;
+    private long mLastFrameTimeNanos;
+    private long mFrameIntervalNanos = REFERENCE_FRAME_NANOS;
+
+    SeslAutoScroller(@NonNull Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Starts scrolling from the next frame. Does nothing if the scroller is already running.
+     */
+    void start() {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mStartTimeNanos = System.nanoTime();
+        mLastFrameTimeNanos = 0;
+        mFrameIntervalNanos = REFERENCE_FRAME_NANOS;
+        if (!mInFrame) {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    void stop() {
+        if (!mRunning) {
+            return;
+        }
+        mRunning = false;
+        if (!mInFrame) {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * Returns the time since {@link #start()} at the given frame.
+     */
+    long getElapsedMillis(long frameTimeNanos) {
+        return Math.max(0, frameTimeNanos - mStartTimeNanos) / NANOS_PER_MS;
+    }
+
+    /**
+     * Returns the ratio between the time elapsed since the previous frame and a 60 Hz frame.
+     * Multiply a per-frame speed by it to get the step of the current frame.
+     */
+    float getFrameScale() {
+        return (float) mFrameIntervalNanos / REFERENCE_FRAME_NANOS;
+    }
+
+    /**
+     * Scales a per-frame step by {@link #getFrameScale()}, keeping at least one pixel in its
+     * direction so that slow scrolls still move.
+     */
+    int scaleStep(int step) {
+        if (step == 0) {
+            return 0;
+        }
+        final int scaled = (int) (step * getFrameScale());
+        return scaled != 0 ? scaled : Integer.signum(step);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+
+        mFrameIntervalNanos = mLastFrameTimeNanos == 0 ? REFERENCE_FRAME_NANOS
+                : Math.max(0, Math.min(MAX_FRAME_NANOS, frameTimeNanos - mLastFrameTimeNanos));
+        mLastFrameTimeNanos = frameTimeNanos;
+
+        boolean keepRunning = false;
+        mInFrame = true;
+        try {
+            keepRunning = mCallback.onAutoScrollFrame(this, frameTimeNanos);
+        } finally {
+            mInFrame = false;
+            if (!keepRunning) {
+                mRunning = false;
+            }
+            if (mRunning) {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Time a {@link RecyclerView} spent on layout, binding, prefetching, item animations and
+ * decorations since the previous frame it drew, reported to a
+ * {@link RecyclerView.SeslFrameMetricsListener}.
+ *
+ * <p>RecyclerView only collects these while a listener is set. The metrics are reported at the
+ * end of {@link RecyclerView#draw}, so work that runs after a frame is drawn, such as prefetching
+ * in the gap before the next frame or item animations started from the animation callback, is
+ * included in the next report. The instance passed to the listener is reused and is only valid
+ * during the callback.
+ *
+ * <p>All times are in nanoseconds, measured with {@link System#nanoTime()}.
+ */
+public final class SeslFrameMetrics {
+    long mLayoutStep1Nanos;
+    long mLayoutStep2Nanos;
+    long mLayoutStep3Nanos;
+    int mLayoutCount;
+    long mCreateNanos;
+    int mCreateCount;
+    long mBindNanos;
+    int mBindCount;
+    long mPrefetchNanos;
+    int mPrefetchHitCount;
+    int mPrefetchMissCount;
+    long mItemAnimatorNanos;
+    long mDecorationNanos;
+    long mSeslDispatchDrawNanos;
+    long mGoToTopNanos;
+    long mDrawNanos;
+
+    SeslFrameMetrics() {
+    }
+
+    /**
+     * Returns the time spent in the first layout step, which processes adapter updates and
+     * records the state of views before layout.
+     */
+    public long getLayoutStep1Nanos() {
+        return mLayoutStep1Nanos;
+    }
+
+    /**
+     * Returns the time spent in the second layout step, in which the LayoutManager lays out the
+     * children. It includes the creates and binds done during layout.
+     */
+    public long getLayoutStep2Nanos() {
+        return mLayoutStep2Nanos;
+    }
+
+    /**
+     * Returns the time spent in the last layout step, which records the state of views after
+     * layout and hands animations to the ItemAnimator.
+     */
+    public long getLayoutStep3Nanos() {
+        return mLayoutStep3Nanos;
+    }
+
+    /**
+     * Returns the number of layout passes.
+     */
+    public int getLayoutCount() {
+        return mLayoutCount;
+    }
+
+    /**
+     * Returns the time spent in {@link RecyclerView.Adapter#onCreateViewHolder}, during layout,
+     * scroll and prefetch.
+     */
+    public long getCreateNanos() {
+        return mCreateNanos;
+    }
+
+    /**
+     * Returns the number of ViewHolders created.
+     */
+    public int getCreateCount() {
+        return mCreateCount;
+    }
+
+    /**
+     * Returns the time spent in {@link RecyclerView.Adapter#onBindViewHolder}, during layout,
+     * scroll and prefetch.
+     */
+    public long getBindNanos() {
+        return mBindNanos;
+    }
+
+    /**
+     * Returns the number of ViewHolders bound.
+     */
+    public int getBindCount() {
+        return mBindCount;
+    }
+
+    /**
+     * Returns the time spent prefetching in the gap between frames, including the creates and
+     * binds it did.
+     */
+    public long getPrefetchNanos() {
+        return mPrefetchNanos;
+    }
+
+    /**
+     * Returns the number of positions prefetched, that is created if needed and bound, before
+     * their deadline.
+     */
+    public int getPrefetchHitCount() {
+        return mPrefetchHitCount;
+    }
+
+    /**
+     * Returns the number of positions whose prefetch was given up because their create or bind
+     * would not have fit before the deadline.
+     */
+    public int getPrefetchMissCount() {
+        return mPrefetchMissCount;
+    }
+
+    /**
+     * Returns the time spent in {@link RecyclerView.ItemAnimator#runPendingAnimations()}.
+     */
+    public long getItemAnimatorNanos() {
+        return mItemAnimatorNanos;
+    }
+
+    /**
+     * Returns the time spent in {@link RecyclerView.ItemDecoration#onDraw} and
+     * {@link RecyclerView.ItemDecoration#onDrawOver}.
+     */
+    public long getDecorationNanos() {
+        return mDecorationNanos;
+    }
+
+    /**
+     * Returns the time spent in {@link RecyclerView.ItemDecoration#seslOnDispatchDraw} and
+     * drawing the area and rounded corners below the last item.
+     */
+    public long getSeslDispatchDrawNanos() {
+        return mSeslDispatchDrawNanos;
+    }
+
+    /**
+     * Returns the time spent updating the go to top button.
+     */
+    public long getGoToTopNanos() {
+        return mGoToTopNanos;
+    }
+
+    /**
+     * Returns the time spent in {@link RecyclerView#draw}, including the children and the
+     * decorations.
+     */
+    public long getDrawNanos() {
+        return mDrawNanos;
+    }
+
+    void reset() {
+        mLayoutStep1Nanos = 0;
+        mLayoutStep2Nanos = 0;
+        mLayoutStep3Nanos = 0;
+        mLayoutCount = 0;
+        mCreateNanos = 0;
+        mCreateCount = 0;
+        mBindNanos = 0;
+        mBindCount = 0;
+        mPrefetchNanos = 0;
+        mPrefetchHitCount = 0;
+        mPrefetchMissCount = 0;
+        mItemAnimatorNanos = 0;
+        mDecorationNanos = 0;
+        mSeslDispatchDrawNanos = 0;
+        mGoToTopNanos = 0;
+        mDrawNanos = 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SeslFrameMetrics{"
+                + "layout=" + mLayoutCount
+                + ", step1=" + mLayoutStep1Nanos
+                + ", step2=" + mLayoutStep2Nanos
+                + ", step3=" + mLayoutStep3Nanos
+                + ", create=" + mCreateCount + "/" + mCreateNanos
+                + ", bind=" + mBindCount + "/" + mBindNanos
+                + ", prefetch=" + mPrefetchHitCount + "/" + mPrefetchMissCount
+                + "/" + mPrefetchNanos
+                + ", itemAnimator=" + mItemAnimatorNanos
+                + ", decorations=" + mDecorationNanos
+                + ", seslDispatchDraw=" + mSeslDispatchDrawNanos
+                + ", goToTop=" + mGoToTopNanos
+                + ", draw=" + mDrawNanos
+                + '}';
+    }
+}
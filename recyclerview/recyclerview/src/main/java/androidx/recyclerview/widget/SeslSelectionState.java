@@ -0,0 +1,369 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Set of selected adapter positions backed by a bitset.
+ *
+ * <p>Single position changes are O(1), range changes and {@link #selectAll(int)} work a word of
+ * 64 positions at a time, and nothing is boxed. {@link RecyclerView} keeps the positions
+ * selected by a pen or long press drag in one of these and shifts them along with the adapter
+ * updates it applies, so a selection survives items being inserted, removed or moved while
+ * dragging.
+ *
+ * <p>Mutators can record the positions they actually changed into a {@link Delta}, which is
+ * how {@link RecyclerView} reports one batch of changes per drag event.
+ */
+public final class SeslSelectionState {
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+    private static final long WORD_MASK = 0xffffffffffffffffL;
+
+    private long[] mWords = new long[1];
+    private int mSelectedCount;
+
+    /**
+     * Returns whether {@code position} is selected.
+     */
+    public boolean isSelected(int position) {
+        if (position < 0) {
+            return false;
+        }
+        final int wordIndex = position >> ADDRESS_BITS_PER_WORD;
+        return wordIndex < mWords.length && (mWords[wordIndex] & (1L << position)) != 0;
+    }
+
+    /**
+     * Returns the number of selected positions.
+     */
+    public int getSelectedCount() {
+        return mSelectedCount;
+    }
+
+    /**
+     * Returns the first selected position at or after {@code fromPosition}, or
+     * {@link RecyclerView#NO_POSITION} if there is none.
+     */
+    public int nextSelectedPosition(int fromPosition) {
+        if (fromPosition < 0) {
+            fromPosition = 0;
+        }
+        int wordIndex = fromPosition >> ADDRESS_BITS_PER_WORD;
+        if (wordIndex >= mWords.length) {
+            return RecyclerView.NO_POSITION;
+        }
+
+        long word = mWords[wordIndex] & (WORD_MASK << fromPosition);
+        while (true) {
+            if (word != 0) {
+                return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == mWords.length) {
+                return RecyclerView.NO_POSITION;
+            }
+            word = mWords[wordIndex];
+        }
+    }
+
+    /**
+     * Returns the selected positions in ascending order.
+     */
+    @NonNull
+    public int[] getSelectedPositions() {
+        final int[] positions = new int[mSelectedCount];
+        int count = 0;
+        for (int position = nextSelectedPosition(0); position != RecyclerView.NO_POSITION;
+                position = nextSelectedPosition(position + 1)) {
+            positions[count++] = position;
+        }
+        return positions;
+    }
+
+    /**
+     * Selects or unselects {@code position}. Returns {@code true} if its state changed.
+     */
+    public boolean setSelected(int position, boolean selected) {
+        return setSelected(position, selected, null);
+    }
+
+    boolean setSelected(int position, boolean selected, @Nullable Delta delta) {
+        if (position < 0 || isSelected(position) == selected) {
+            return false;
+        }
+
+        final int wordIndex = position >> ADDRESS_BITS_PER_WORD;
+        if (selected) {
+            ensureCapacity(wordIndex + 1);
+            mWords[wordIndex] |= 1L << position;
+            mSelectedCount++;
+        } else {
+            mWords[wordIndex] &= ~(1L << position);
+            mSelectedCount--;
+        }
+        if (delta != null) {
+            delta.add(position, selected);
+        }
+        return true;
+    }
+
+    /**
+     * Toggles {@code position} and returns its new state.
+     */
+    public boolean toggle(int position) {
+        final boolean selected = !isSelected(position);
+        setSelected(position, selected, null);
+        return selected;
+    }
+
+    /**
+     * Selects or unselects every position from {@code start} to {@code end}, both inclusive.
+     * Returns the number of positions whose state changed.
+     */
+    public int setRangeSelected(int start, int end, boolean selected) {
+        return setRangeSelected(start, end, selected, null);
+    }
+
+    int setRangeSelected(int start, int end, boolean selected, @Nullable Delta delta) {
+        start = Math.max(start, 0);
+        if (end < start) {
+            return 0;
+        }
+
+        final int startWord = start >> ADDRESS_BITS_PER_WORD;
+        int endWord = end >> ADDRESS_BITS_PER_WORD;
+        if (selected) {
+            ensureCapacity(endWord + 1);
+        } else if (startWord >= mWords.length) {
+            return 0;
+        } else {
+            endWord = Math.min(endWord, mWords.length - 1);
+            end = Math.min(end, mWords.length * BITS_PER_WORD - 1);
+        }
+
+        int changedCount = 0;
+        for (int i = startWord; i <= endWord; i++) {
+            long mask = WORD_MASK;
+            if (i == startWord) {
+                mask &= WORD_MASK << start;
+            }
+            if (i == endWord) {
+                mask &= WORD_MASK >>> -(end + 1);
+            }
+
+            final long changed = (selected ? ~mWords[i] : mWords[i]) & mask;
+            if (changed == 0) {
+                continue;
+            }
+            mWords[i] ^= changed;
+            changedCount += Long.bitCount(changed);
+
+            if (delta != null) {
+                long bits = changed;
+                while (bits != 0) {
+                    delta.add(i * BITS_PER_WORD + Long.numberOfTrailingZeros(bits), selected);
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        mSelectedCount += selected ? changedCount : -changedCount;
+        return changedCount;
+    }
+
+    /**
+     * Selects every position of an adapter with {@code itemCount} items.
+     */
+    public void selectAll(int itemCount) {
+        clear();
+        setRangeSelected(0, itemCount - 1, true, null);
+    }
+
+    /**
+     * Unselects every position.
+     */
+    public void clear() {
+        if (mSelectedCount != 0) {
+            Arrays.fill(mWords, 0);
+            mSelectedCount = 0;
+        }
+    }
+
+    /**
+     * Shifts the selection for {@code itemCount} items inserted at {@code positionStart}.
+     */
+    void onItemRangeInserted(int positionStart, int itemCount) {
+        if (itemCount <= 0 || mSelectedCount == 0) {
+            return;
+        }
+        orAt(extractFrom(positionStart), positionStart + itemCount);
+    }
+
+    /**
+     * Drops the selection of {@code itemCount} items removed at {@code positionStart} and shifts
+     * the positions after them.
+     */
+    void onItemRangeRemoved(int positionStart, int itemCount) {
+        if (itemCount <= 0 || mSelectedCount == 0) {
+            return;
+        }
+        final long[] high = extractFrom(positionStart + itemCount);
+        setRangeSelected(positionStart, positionStart + itemCount - 1, false, null);
+        orAt(high, positionStart);
+        recount();
+    }
+
+    /**
+     * Moves the selection state of the item at {@code from} to {@code to}.
+     */
+    void onItemMoved(int from, int to) {
+        if (from == to || mSelectedCount == 0) {
+            return;
+        }
+        final boolean selected = isSelected(from);
+        onItemRangeRemoved(from, 1);
+        onItemRangeInserted(to, 1);
+        setSelected(to, selected, null);
+    }
+
+    private void ensureCapacity(int wordCount) {
+        if (mWords.length < wordCount) {
+            final long[] words = new long[Math.max(mWords.length * 2, wordCount)];
+            System.arraycopy(mWords, 0, words, 0, mWords.length);
+            mWords = words;
+        }
+    }
+
+    private void recount() {
+        int count = 0;
+        for (long word : mWords) {
+            count += Long.bitCount(word);
+        }
+        mSelectedCount = count;
+    }
+
+    /**
+     * Removes the positions at or after {@code position} and returns them re-based so that
+     * {@code position} is bit 0. The selected count is not updated.
+     */
+    @NonNull
+    private long[] extractFrom(int position) {
+        final int wordIndex = position >> ADDRESS_BITS_PER_WORD;
+        if (wordIndex >= mWords.length) {
+            return new long[0];
+        }
+
+        final int bitOffset = position & (BITS_PER_WORD - 1);
+        final long[] high = new long[mWords.length - wordIndex];
+        for (int i = 0; i < high.length; i++) {
+            long word = mWords[wordIndex + i] >>> bitOffset;
+            if (bitOffset != 0 && wordIndex + i + 1 < mWords.length) {
+                word |= mWords[wordIndex + i + 1] << (BITS_PER_WORD - bitOffset);
+            }
+            high[i] = word;
+        }
+
+        mWords[wordIndex] &= ~(WORD_MASK << position);
+        for (int i = wordIndex + 1; i < mWords.length; i++) {
+            mWords[i] = 0;
+        }
+        return high;
+    }
+
+    /**
+     * Merges the re-based positions of {@code high} back in, with bit 0 at {@code base}.
+     */
+    private void orAt(@NonNull long[] high, int base) {
+        int last = high.length - 1;
+        while (last >= 0 && high[last] == 0) {
+            last--;
+        }
+        if (last < 0) {
+            return;
+        }
+
+        final int baseWord = base >> ADDRESS_BITS_PER_WORD;
+        final int bitOffset = base & (BITS_PER_WORD - 1);
+        ensureCapacity(baseWord + last + 2);
+        for (int i = 0; i <= last; i++) {
+            mWords[baseWord + i] |= high[i] << bitOffset;
+            if (bitOffset != 0) {
+                mWords[baseWord + i + 1] |= high[i] >>> (BITS_PER_WORD - bitOffset);
+            }
+        }
+    }
+
+    /**
+     * Positions whose selection changed during one update, in the order they changed. The
+     * instance passed to a listener is reused and is only valid during the callback.
+     */
+    public static final class Delta {
+        private int[] mSelected = new int[8];
+        private int mSelectedCount;
+        private int[] mUnselected = new int[8];
+        private int mUnselectedCount;
+
+        public int getSelectedCount() {
+            return mSelectedCount;
+        }
+
+        public int getSelectedPositionAt(int index) {
+            return mSelected[index];
+        }
+
+        public int getUnselectedCount() {
+            return mUnselectedCount;
+        }
+
+        public int getUnselectedPositionAt(int index) {
+            return mUnselected[index];
+        }
+
+        public boolean isEmpty() {
+            return mSelectedCount == 0 && mUnselectedCount == 0;
+        }
+
+        void add(int position, boolean selected) {
+            if (selected) {
+                if (mSelectedCount == mSelected.length) {
+                    mSelected = grow(mSelected);
+                }
+                mSelected[mSelectedCount++] = position;
+            } else {
+                if (mUnselectedCount == mUnselected.length) {
+                    mUnselected = grow(mUnselected);
+                }
+                mUnselected[mUnselectedCount++] = position;
+            }
+        }
+
+        void clear() {
+            mSelectedCount = 0;
+            mUnselectedCount = 0;
+        }
+
+        private static int[] grow(int[] array) {
+            final int[] grown = new int[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            return grown;
+        }
+    }
+}
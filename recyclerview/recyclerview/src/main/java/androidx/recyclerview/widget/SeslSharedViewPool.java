@@ -0,0 +1,242 @@
+/*
+ * Copyright 2024 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.widget;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.customview.poolingcontainer.PoolingContainer;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link RecyclerView.RecycledViewPool} meant to be shared by several RecyclerViews, such as
+ * the horizontal carousels nested in a vertical list or the lists of {@code ViewPager2} pages,
+ * that can also be filled ahead of the first layout.
+ * <p>
+ * {@link #attach(RecyclerView)} sets the pool on a RecyclerView and makes its
+ * {@link LinearLayoutManager} return its children to the pool when it is detached, so views
+ * move between RecyclerViews as pages and carousels come and go. The pool remembers the
+ * ViewHolder class it saw first for each view type and drops ViewHolders of another class,
+ * so two adapters that happen to use the same view type for different ViewHolders cannot
+ * receive each other's views.
+ * <p>
+ * {@link #warmUp(RecyclerView, int, int)} creates ViewHolders while the main thread is idle,
+ * one per idle pass, until the pool holds the requested number for a view type.
+ * {@link #warmUp(RecyclerView, int, int, Executor)} creates them on the given executor instead,
+ * for adapters whose {@code onCreateViewHolder} can run off the main thread, and adds them to
+ * the pool on the main thread.
+ * <p>
+ * Like any RecycledViewPool, this class must be used from the main thread.
+ */
+public class SeslSharedViewPool extends RecyclerView.RecycledViewPool {
+    private static final String TAG = "SeslSharedViewPool";
+
+    private final SparseArray<Class<?>> mViewHolderClasses = new SparseArray<>();
+    private final ArrayList<WarmUp> mIdleWarmUps = new ArrayList<>();
+    private final MessageQueue.IdleHandler mIdleHandler = this::warmUpOnIdle;
+    private boolean mIdleHandlerAdded;
+    private Handler mMainHandler;
+
+    /**
+     * Incremented by {@link #cancelWarmUp()} so background creations started before can be
+     * told apart.
+     */
+    private volatile int mWarmUpGeneration;
+
+    /**
+     * Makes {@code recyclerView} use this pool. If it uses a {@link LinearLayoutManager}, its
+     * children are recycled into the pool when it is detached from the window.
+     *
+     * @param recyclerView The RecyclerView to share this pool with.
+     */
+    public void attach(@NonNull RecyclerView recyclerView) {
+        recyclerView.setRecycledViewPool(this);
+        final RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (layoutManager instanceof LinearLayoutManager) {
+            ((LinearLayoutManager) layoutManager).setRecycleChildrenOnDetach(true);
+        }
+    }
+
+    /**
+     * Gives {@code recyclerView} back a pool of its own if it uses this one.
+     *
+     * @param recyclerView The RecyclerView to stop sharing this pool with.
+     */
+    public void detach(@NonNull RecyclerView recyclerView) {
+        if (recyclerView.getRecycledViewPool() == this) {
+            recyclerView.setRecycledViewPool(null);
+        }
+    }
+
+    /**
+     * Creates ViewHolders of {@code viewType} with the adapter of {@code parent} while the main
+     * thread is idle, until the pool holds {@code count} of them. The capacity of the view type
+     * is raised to {@code count} if it is lower.
+     *
+     * @param parent   The RecyclerView the ViewHolders are created for. Its adapter must be set.
+     * @param viewType ViewHolder type.
+     * @param count    Number of ViewHolders of the type the pool should hold.
+     */
+    public void warmUp(@NonNull RecyclerView parent, int viewType, int count) {
+        final WarmUp warmUp = prepareWarmUp(parent, viewType, count);
+        if (warmUp == null) {
+            return;
+        }
+        mIdleWarmUps.add(warmUp);
+        if (!mIdleHandlerAdded) {
+            mIdleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+    }
+
+    /**
+     * Creates the ViewHolders of {@code viewType} the pool is missing to hold {@code count} of
+     * them on {@code executor}, and adds them to the pool on the main thread. The capacity of the
+     * view type is raised to {@code count} if it is lower.
+     * <p>
+     * The adapter's {@code onCreateViewHolder} must be safe to call from the executor's
+     * threads for this view type.
+     *
+     * @param parent   The RecyclerView the ViewHolders are created for. Its adapter must be set.
+     * @param viewType ViewHolder type.
+     * @param count    Number of ViewHolders of the type the pool should hold.
+     * @param executor The executor that creates the ViewHolders.
+     */
+    public void warmUp(@NonNull RecyclerView parent, int viewType, int count,
+            @NonNull Executor executor) {
+        final WarmUp warmUp = prepareWarmUp(parent, viewType, count);
+        if (warmUp == null) {
+            return;
+        }
+        if (mMainHandler == null) {
+            mMainHandler = new Handler(Looper.getMainLooper());
+        }
+
+        final int generation = mWarmUpGeneration;
+        final RecyclerView.Adapter<?> adapter = warmUp.mAdapter;
+        final int missing = count - getRecycledViewCount(viewType);
+        for (int i = 0; i < missing; i++) {
+            executor.execute(() -> {
+                if (generation != mWarmUpGeneration) {
+                    return;
+                }
+                final long start = System.nanoTime();
+                final RecyclerView.ViewHolder holder = adapter.createViewHolder(parent, viewType);
+                final long createTimeNs = System.nanoTime() - start;
+                mMainHandler.post(() -> {
+                    if (generation == mWarmUpGeneration && parent.getAdapter() == adapter
+                            && getRecycledViewCount(viewType) < count) {
+                        addWarmedUpViewHolder(holder, createTimeNs);
+                    }
+                });
+            });
+        }
+    }
+
+    /**
+     * Stops every pending warm-up. ViewHolders already created stay in the pool.
+     */
+    public void cancelWarmUp() {
+        mWarmUpGeneration++;
+        mIdleWarmUps.clear();
+        if (mIdleHandlerAdded) {
+            mIdleHandlerAdded = false;
+            Looper.myQueue().removeIdleHandler(mIdleHandler);
+        }
+    }
+
+    @Override
+    public void putRecycledView(RecyclerView.ViewHolder scrap) {
+        final int viewType = scrap.getItemViewType();
+        final Class<?> viewHolderClass = mViewHolderClasses.get(viewType);
+        if (viewHolderClass == null) {
+            mViewHolderClasses.put(viewType, scrap.getClass());
+        } else if (viewHolderClass != scrap.getClass()) {
+            Log.w(TAG, "Dropping " + scrap.getClass().getName() + " of view type " + viewType
+                    + ", which the pool holds " + viewHolderClass.getName() + " for");
+            PoolingContainer.callPoolingContainerOnRelease(scrap.itemView);
+            return;
+        }
+        super.putRecycledView(scrap);
+    }
+
+    private WarmUp prepareWarmUp(@NonNull RecyclerView parent, int viewType, int count) {
+        final RecyclerView.Adapter<?> adapter = parent.getAdapter();
+        if (adapter == null) {
+            throw new IllegalStateException("The RecyclerView to warm up the pool for must have"
+                    + " an adapter");
+        }
+        if (count <= 0) {
+            return null;
+        }
+        if (getViewTypeStats(viewType).getMaxRecycledViews() < count) {
+            setMaxRecycledViews(viewType, count);
+        }
+        return new WarmUp(parent, adapter, viewType, count);
+    }
+
+    private boolean warmUpOnIdle() {
+        while (!mIdleWarmUps.isEmpty()) {
+            final WarmUp warmUp = mIdleWarmUps.get(0);
+            final RecyclerView parent = warmUp.mParent.get();
+            if (parent == null || parent.getAdapter() != warmUp.mAdapter
+                    || getRecycledViewCount(warmUp.mViewType) >= warmUp.mCount) {
+                mIdleWarmUps.remove(0);
+                continue;
+            }
+
+            final long start = System.nanoTime();
+            final RecyclerView.ViewHolder holder =
+                    warmUp.mAdapter.createViewHolder(parent, warmUp.mViewType);
+            addWarmedUpViewHolder(holder, System.nanoTime() - start);
+            return true;
+        }
+        mIdleHandlerAdded = false;
+        return false;
+    }
+
+    private void addWarmedUpViewHolder(@NonNull RecyclerView.ViewHolder holder,
+            long createTimeNs) {
+        factorInCreateTime(holder.getItemViewType(), createTimeNs);
+        final RecyclerView innerView = RecyclerView.findNestedRecyclerView(holder.itemView);
+        if (innerView != null) {
+            holder.mNestedRecyclerView = new WeakReference<>(innerView);
+        }
+        putRecycledView(holder);
+    }
+
+    private static final class WarmUp {
+        final WeakReference<RecyclerView> mParent;
+        final RecyclerView.Adapter<?> mAdapter;
+        final int mViewType;
+        final int mCount;
+
+        WarmUp(RecyclerView parent, RecyclerView.Adapter<?> adapter, int viewType, int count) {
+            mParent = new WeakReference<>(parent);
+            mAdapter = adapter;
+            mViewType = viewType;
+            mCount = count;
+        }
+    }
+}
@@ -19,14 +19,11 @@ package androidx.recyclerview.widget;
 import static androidx.recyclerview.widget.ItemTouchHelper.ANIMATION_TYPE_SWIPE_CANCEL;
 
 import android.content.Context;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.Typeface;
-import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.util.Log;
@@ -48,6 +45,7 @@ public class SeslSwipeListAnimator {
     private static final int DEFAULT_ANIMATION_CANCEL_DURATION = 250;
     private static final int DEFAULT_ANIMATION_DURATION = 100;
     private static final int DIRECTION_LTR = 0;
+    private static final int DIRECTION_RTL = 1;
     private static final int DEFAULT_DRAWABLE_PADDING = 10;
     private static final int DEFAULT_TEXT_SIZE = 17;
 
@@ -58,12 +56,20 @@ public class SeslSwipeListAnimator {
     private Paint mBgLeftToRight = null;
     private Paint mBgRightToLeft = null;
     private final Context mContext;
-    private BitmapDrawable mDrawSwipeBitmapDrawable = null;
     private final RecyclerView mRecyclerView;
-    private Bitmap mSwipeBitmap = null;
     private SwipeConfiguration mSwipeConfiguration;
-    private Rect mSwipeRect = null;
+    private final Rect mSwipeRect = new Rect();
+    private final Rect mClipRect = new Rect();
+    private final Rect mDrawableBounds = new Rect();
+    private final Rect mTextBounds = new Rect();
+    private final int[] mRecyclerViewLocation = new int[2];
+    private final int[] mViewLocation = new int[2];
+    private final Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
+    private final int mHapticFullSwipe;
+    private final int mHapticFullSwipeCancel;
     private Paint mTextPaint = null;
+    private float mTextBaselineOffset;
+    private String mMeasuredText;
     public float mLastRectAlpha = 0.0f;
 
     public static class SwipeConfiguration {
@@ -91,6 +97,8 @@ public class SeslSwipeListAnimator {
     public SeslSwipeListAnimator(@NonNull RecyclerView recyclerView, @NonNull Context context) {
         mContext = context;
         mRecyclerView = recyclerView;
+        mHapticFullSwipe = SeslHapticFeedbackConstantsReflector.semGetVibrationIndex(108);
+        mHapticFullSwipeCancel = SeslHapticFeedbackConstantsReflector.semGetVibrationIndex(109);
     }
 
     public void setSwipeConfiguration(@NonNull SwipeConfiguration swipeConfiguration) {
@@ -133,7 +141,12 @@ public class SeslSwipeListAnimator {
             mTextPaint.setTypeface(
                     Typeface.create(mContext.getString(androidx.appcompat.R.string.sesl_font_family_regular), Typeface.NORMAL));
         }
+        mTextPaint.setTextAlign(Paint.Align.LEFT);
 
+        mTextPaint.getFontMetrics(mFontMetrics);
+        float textHeight = Math.abs(mFontMetrics.top - mFontMetrics.bottom);
+        mTextBaselineOffset = textHeight / 2.0F - mFontMetrics.bottom;
+        mMeasuredText = null;
     }
 
     private Paint initPaintWithAlphaAntiAliasing(int color) {
@@ -149,27 +162,16 @@ public class SeslSwipeListAnimator {
     }
 
     public void doMoveAction(@NonNull Canvas c, @NonNull View viewForeground, float deltaX, boolean isCurrentlyActive) {
-        Log.i(TAG, "doMoveAction: viewForeground = " + viewForeground +
-                " deltaX = " + deltaX + ", isCurrentlyActive = " + isCurrentlyActive);
-
         if (deltaX != 0f || isCurrentlyActive) {
-            Log.i(TAG, "doMoveAction: #1 drawRectToBitmapCanvas");
-
-            drawRectToBitmapCanvas(viewForeground, deltaX, deltaX / viewForeground.getWidth());
+            drawSwipeBackground(c, viewForeground, deltaX, deltaX / viewForeground.getWidth());
             viewForeground.setTranslationX(deltaX);
             float centerX = viewForeground.getWidth() / 2.0f;
             float absDeltaX = Math.abs(deltaX);
             float opacity = (Math.min(absDeltaX, centerX) / centerX);
             viewForeground.setAlpha(Math.min(1.0f - opacity, 1.0f));
 
-            mDrawSwipeBitmapDrawable = getBitmapDrawableToSwipeBitmap();
-            if (mDrawSwipeBitmapDrawable != null) {
-                mRecyclerView.invalidate(mDrawSwipeBitmapDrawable.getBounds());
-                Log.i(TAG, "doMoveAction: draw");
-                mDrawSwipeBitmapDrawable.draw(c);
-            }
+            mRecyclerView.invalidate(mSwipeRect);
         } else {
-            Log.i(TAG, "doMoveAction: #2 return");
             clearSwipeAnimation(viewForeground);
         }
     }
@@ -181,105 +183,103 @@ public class SeslSwipeListAnimator {
                 top + calculateTopOfList(parent) : top;
     }
 
-    private Canvas drawRectToBitmapCanvas(View view, float deltaX, float swipeProgress) {
+    /**
+     * Draws the swipe background of {@code view} straight onto the RecyclerView canvas, in the
+     * bounds the row has when it is not translated. Reuses the animator's rects, so it does not
+     * allocate.
+     */
+    private void drawSwipeBackground(Canvas canvas, View view, float deltaX, float swipeProgress) {
+        mRecyclerView.getLocationInWindow(mRecyclerViewLocation);
 
-        int[] recyclerViewLocation = new int[2];
-        mRecyclerView.getLocationInWindow(recyclerViewLocation);
-
-        int[] viewLocation = new int[2];
         view.setTranslationX(0.0F);
-        view.getLocationInWindow(viewLocation);
-        viewLocation[0] -= recyclerViewLocation[0];
+        view.getLocationInWindow(mViewLocation);
+        final int viewLeft = mViewLocation[0] - mRecyclerViewLocation[0];
 
         int topOfList = this.calculateTopOfList(view);
         int viewWidth = view.getWidth();
         int viewHeight = view.getHeight();
 
-        mSwipeRect = new Rect(viewLocation[0] + view.getPaddingLeft(), topOfList,
-                viewLocation[0] + viewWidth - view.getPaddingRight(), topOfList + viewHeight);
-
-        if (mSwipeBitmap == null) {
-            mSwipeBitmap = Bitmap.createBitmap(viewWidth, viewHeight, Bitmap.Config.ARGB_8888);
-        }
-
-        Canvas canvas = new Canvas(this.mSwipeBitmap);
-        canvas.drawColor(0, PorterDuff.Mode.CLEAR);
+        mSwipeRect.set(viewLeft + view.getPaddingLeft(), topOfList,
+                viewLeft + viewWidth - view.getPaddingRight(), topOfList + viewHeight);
 
         float centerX = viewWidth / 2.0f;
         float absDeltaX = Math.abs(deltaX);
         float alpha = (Math.min(absDeltaX, centerX) / centerX) * 255.0f;
 
         if (mLastRectAlpha != 255.0f && alpha == 255.0f) {
-            view.performHapticFeedback(SeslHapticFeedbackConstantsReflector.semGetVibrationIndex((108)));
+            view.performHapticFeedback(mHapticFullSwipe);
         } else if (mLastRectAlpha == 255.0f && alpha != 255.0f) {
-            view.performHapticFeedback(SeslHapticFeedbackConstantsReflector.semGetVibrationIndex(109));
+            view.performHapticFeedback(mHapticFullSwipeCancel);
         }
         mLastRectAlpha = alpha;
 
-        int startX;
+        if (swipeProgress == 0.0F) {
+            return;
+        }
+
+        canvas.save();
+        canvas.clipRect(mSwipeRect);
+        // The row is drawn in its own coordinates and fitted into the swipe bounds, which leave
+        // out its horizontal padding.
+        canvas.translate(mSwipeRect.left, mSwipeRect.top);
+        if (viewWidth > 0 && mSwipeRect.width() != viewWidth) {
+            canvas.scale((float) mSwipeRect.width() / viewWidth, 1.0F);
+        }
+
         if (swipeProgress > 0.0F) {
             Drawable dltr = mSwipeConfiguration.drawableLeftToRight;
 
-            Rect drawableBounds;
             if (dltr != null) {
-                drawableBounds = dltr.getBounds();
+                Rect drawableBounds = dltr.getBounds();
                 int drawableWidth = drawableBounds.width();
                 int drawableHeight = drawableBounds.height();
 
-                Log.i(TAG, "#1 draw LtoR, d = " + dltr + ", d.getBounds()=" + drawableBounds);
                 int drawablePadding = mSwipeConfiguration.drawablePadding;
-                drawableBounds = new Rect(drawablePadding, 0, drawableWidth + drawablePadding, drawableHeight);
-                drawableBounds.offset(0, (viewHeight - drawableHeight) / 2);
+                mDrawableBounds.set(drawablePadding, 0, drawableWidth + drawablePadding, drawableHeight);
+                mDrawableBounds.offset(0, (viewHeight - drawableHeight) / 2);
             } else {
-                Log.i(TAG, "#2 draw LtoR, d = null");
-                drawableBounds = new Rect(0, 0, 0, 0);
+                mDrawableBounds.set(0, 0, 0, 0);
             }
 
-            startX = (int) deltaX;
+            int startX = (int) deltaX;
 
-            Rect leftRect = new Rect(0, 0, startX, viewHeight);
-            Paint leftPaint = mBgLeftToRight;
-            drawRectInto(canvas, leftRect, drawableBounds, dltr, leftPaint, 255,
-                    mSwipeConfiguration.textLeftToRight,  mSwipeConfiguration.textSize, 0);
+            mClipRect.set(0, 0, startX, viewHeight);
+            drawRectInto(canvas, mClipRect, mDrawableBounds, dltr, mBgLeftToRight, 255,
+                    mSwipeConfiguration.textLeftToRight, viewHeight, DIRECTION_LTR);
 
-            Rect rightRect = new Rect(startX, 0, viewWidth, viewHeight);
-            drawRectInto(canvas, rightRect, drawableBounds, dltr, mBgLeftToRight, (int) alpha,
-                    mSwipeConfiguration.textLeftToRight, mSwipeConfiguration.textSize, 0);
+            mClipRect.set(startX, 0, viewWidth, viewHeight);
+            drawRectInto(canvas, mClipRect, mDrawableBounds, dltr, mBgLeftToRight, (int) alpha,
+                    mSwipeConfiguration.textLeftToRight, viewHeight, DIRECTION_LTR);
 
-        } else if (swipeProgress < 0.0F) {
+        } else {
             Drawable drtl = mSwipeConfiguration.drawableRightToLeft;
 
-            Rect drawableBounds;
             if (drtl != null) {
-                drawableBounds = drtl.getBounds();
+                Rect drawableBounds = drtl.getBounds();
                 int drawableWidth = drawableBounds.width();
                 int drawableHeight = drawableBounds.height();
                 int right = viewWidth - mSwipeConfiguration.drawablePadding;
-                Log.i(TAG, "#3 draw RtoL, d = " + drtl + ", d.getBounds()=" + drawableBounds);
 
-                drawableBounds = new Rect(right - drawableWidth, 0, right, drawableHeight);
-                drawableBounds.offset(0, (viewHeight - drawableHeight) / 2);
+                mDrawableBounds.set(right - drawableWidth, 0, right, drawableHeight);
+                mDrawableBounds.offset(0, (viewHeight - drawableHeight) / 2);
             } else {
-                Log.i(TAG, "#4 draw RtoL, d = null");
-                drawableBounds = new Rect(viewWidth, 0, viewWidth, 0);
+                mDrawableBounds.set(viewWidth, 0, viewWidth, 0);
             }
 
             int left = viewWidth - (int) absDeltaX;
-            Rect leftRect = new Rect(left, 0, viewWidth, viewHeight);
-            Paint leftPaint = this.mBgRightToLeft;
-
-            drawRectInto(canvas, leftRect, drawableBounds, drtl, leftPaint, 255,
-                    mSwipeConfiguration.textRightToLeft, mSwipeConfiguration.textSize, 1);
+            mClipRect.set(left, 0, viewWidth, viewHeight);
+            drawRectInto(canvas, mClipRect, mDrawableBounds, drtl, mBgRightToLeft, 255,
+                    mSwipeConfiguration.textRightToLeft, viewHeight, DIRECTION_RTL);
 
-            Rect rightRect = new Rect(0, 0, left, viewHeight);
-            drawRectInto(canvas, rightRect, drawableBounds, drtl, mBgRightToLeft, (int) alpha,
-                    mSwipeConfiguration.textRightToLeft, mSwipeConfiguration.textSize, 1);
+            mClipRect.set(0, 0, left, viewHeight);
+            drawRectInto(canvas, mClipRect, mDrawableBounds, drtl, mBgRightToLeft, (int) alpha,
+                    mSwipeConfiguration.textRightToLeft, viewHeight, DIRECTION_RTL);
         }
-        return canvas;
+        canvas.restore();
     }
 
     private void drawRectInto(Canvas canvas, Rect destinationRect, Rect sourceRect, Drawable drawable,
-            Paint paint, int alpha, String text, float textStartX, int textAlignment) {
+            Paint paint, int alpha, String text, int height, int textAlignment) {
 
         canvas.save();
         paint.setAlpha(alpha);
@@ -293,60 +293,39 @@ public class SeslSwipeListAnimator {
             drawable.draw(canvas);
         }
 
-        drawSwipeText(canvas, mTextPaint, text, textAlignment, sourceRect);
+        drawSwipeText(canvas, mTextPaint, text, textAlignment, sourceRect, height);
         canvas.restore();
     }
 
 
-    private void drawSwipeText(Canvas canvas, Paint textPaint, String text, int direction, Rect bounds) {
-        Rect textBounds = new Rect();
-
-        textPaint.setTextAlign(Paint.Align.LEFT);
-        textPaint.getTextBounds(text, 0, text.length(), textBounds);
-
-        Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
-
-        float textHeight = Math.abs(fontMetrics.top - fontMetrics.bottom);
-        float centerY = (float) canvas.getHeight() / 2.0F;
-        float textCenter = textHeight / 2.0F;
-        float descent = fontMetrics.bottom;
-        float y = (centerY + textCenter) - descent;
+    private void drawSwipeText(Canvas canvas, Paint textPaint, String text, int direction, Rect bounds,
+            int height) {
+        float y = height / 2.0F + mTextBaselineOffset;
         float x;
         if (direction == DIRECTION_LTR) {
             x = bounds.right + mSwipeConfiguration.drawablePadding;
         } else {
-            x = (bounds.left - mSwipeConfiguration.drawablePadding) - textBounds.right;
-
+            x = (bounds.left - mSwipeConfiguration.drawablePadding) - getTextRight(text);
         }
         canvas.drawText(text, x, y, textPaint);
     }
 
-
-    private BitmapDrawable getBitmapDrawableToSwipeBitmap() {
-        if (mSwipeBitmap == null) {
-            return null;
+    /**
+     * Returns the right edge of the bounds of {@code text}, measuring it only when it differs
+     * from the text measured last.
+     */
+    private int getTextRight(String text) {
+        if (!text.equals(mMeasuredText)) {
+            mTextPaint.getTextBounds(text, 0, text.length(), mTextBounds);
+            mMeasuredText = text;
         }
-
-        BitmapDrawable d = new BitmapDrawable(mRecyclerView.getResources(), mSwipeBitmap);
-        d.setBounds(mSwipeRect);
-        return d;
+        return mTextBounds.right;
     }
 
     public void clearSwipeAnimation(@NonNull View view) {
-        Log.i(TAG, "clearSwipeAnimation: view = " + view +
-                " mDrawSwipeBitmapDrawable = " + mDrawSwipeBitmapDrawable);
         this.mLastRectAlpha = 0.0f;
 
-        if (mDrawSwipeBitmapDrawable != null) {
-            mDrawSwipeBitmapDrawable.getBitmap().recycle();
-            mDrawSwipeBitmapDrawable = null;
-            mSwipeBitmap = null;
-        }
-
-        Log.i(TAG, "clearSwipeAnimation: view.getTranslationX() = " + view.getTranslationX());
-
         if (view.getTranslationX() != 0f) {
-            Log.i(TAG, "clearSwipeAnimation: **** set view.setTranslationX(0f) ****");
             view.setTranslationX(0f);
         }
     }
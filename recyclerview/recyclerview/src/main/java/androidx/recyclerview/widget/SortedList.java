@@ -37,6 +37,14 @@ import java.util.Comparator;
  * call appropriate methods while editing them to avoid data inconsistencies.
  * <p>
  * You can control the order of items and change notifications via the {@link Callback} parameter.
+ * <p>
+ * Several additions, updates and removals can be applied at once with
+ * {@link #applyBatch(Collection, Collection)}, which merges them into the list in a single pass
+ * and dispatches the resulting changes as batched events. If the items have stable ids, as
+ * reported by {@link Callback#getItemId(Object)}, {@link #setIdentityIndexEnabled(boolean)}
+ * lets {@link #indexOf(Object)}, {@link #remove(Object)} and
+ * {@link #applyBatch(Collection, Collection)} find an item through a hash index of ids
+ * instead of a binary search followed by a linear scan over the items that compare equal.
  */
 @SuppressWarnings("unchecked")
 public class SortedList<T> {
@@ -51,6 +59,13 @@ public class SortedList<T> {
     private static final int INSERTION = 1;
     private static final int DELETION = 1 << 1;
     private static final int LOOKUP = 1 << 2;
+
+    /**
+     * Returned by {@link #findIndexById(Object)} when the identity index cannot tell where the
+     * item is, because it has no id or shares its id with another item.
+     */
+    private static final int UNKNOWN_POSITION = -2;
+    private static final int DUPLICATE_ID = -2;
     T[] mData;
 
     /**
@@ -83,6 +98,20 @@ public class SortedList<T> {
     private int mSize;
     private final Class<T> mTClass;
 
+    private boolean mIdentityIndexEnabled;
+
+    /**
+     * Maps item ids to positions in mData. Rebuilt on the first lookup after the data changes.
+     */
+    private LongIndexMap mIdIndex;
+    private boolean mIdIndexValid;
+
+    /**
+     * Whether every item had an id when the index was built, so that an id missing from the
+     * index means the item is not in the list.
+     */
+    private boolean mIdIndexComplete;
+
     /**
      * Creates a new SortedList of type T.
      *
@@ -116,6 +145,35 @@ public class SortedList<T> {
         return mSize;
     }
 
+    /**
+     * Sets whether item lookups go through a hash index of the ids returned by
+     * {@link Callback#getItemId(Object)}.
+     * <p>
+     * The index is rebuilt in linear time on the first lookup after the list changes, so it pays
+     * off when several items are looked up between changes, as
+     * {@link #applyBatch(Collection, Collection)} does. Lookups of items without an id, or with an
+     * id shared by several items, fall back to a binary search.
+     *
+     * @param enabled True to look items up by id.
+     * @see #isIdentityIndexEnabled()
+     */
+    public void setIdentityIndexEnabled(boolean enabled) {
+        mIdentityIndexEnabled = enabled;
+        if (!enabled) {
+            mIdIndex = null;
+            mIdIndexValid = false;
+        }
+    }
+
+    /**
+     * Returns whether item lookups go through a hash index of item ids.
+     *
+     * @see #setIdentityIndexEnabled(boolean)
+     */
+    public boolean isIdentityIndexEnabled() {
+        return mIdentityIndexEnabled;
+    }
+
     /**
      * Adds the given item to the list. If this is a new item, SortedList calls
      * {@link Callback#onInserted(int, int)}.
@@ -256,6 +314,7 @@ public class SortedList<T> {
         }
 
         final int newSize = sortAndDedup(newItems);
+        mIdIndexValid = false;
 
         if (mSize == 0) {
             mData = newItems;
@@ -271,6 +330,7 @@ public class SortedList<T> {
         if (forceBatchedUpdates) {
             beginBatchedUpdates();
         }
+        mIdIndexValid = false;
 
         mOldDataStart = 0;
         mOldDataSize = mSize;
@@ -411,6 +471,7 @@ public class SortedList<T> {
         if (forceBatchedUpdates) {
             beginBatchedUpdates();
         }
+        mIdIndexValid = false;
 
         mOldData = mData;
         mOldDataStart = 0;
@@ -473,6 +534,132 @@ public class SortedList<T> {
         }
     }
 
+    /**
+     * Removes {@code itemsToRemove} from the list and adds or updates {@code itemsToAddOrUpdate}
+     * in a single merge pass, dispatching the changes as batched events.
+     * <p>
+     * Removals are applied first, so an item in both collections ends up in the list. An item to
+     * add replaces the item that is the same as it, as {@link #add(Object)} would, and
+     * {@link Callback#onChanged(int, int)} is called if their contents differ. Items to add that
+     * are the same as each other are deduplicated like in {@link #addAll(Collection)}.
+     * <p>
+     * If the {@link #setIdentityIndexEnabled(boolean) identity index} is enabled, an item to add
+     * also replaces an item with the same id that does not sort the same. Such an item is
+     * reported as removed from its old position and inserted at its new one; use
+     * {@link #updateItemAt(int, Object)} to report a single item as moved instead.
+     *
+     * @param itemsToAddOrUpdate Items to add to the list or to replace their existing version with.
+     * @param itemsToRemove      Items to remove from the list. Items not in the list are ignored.
+     */
+    public void applyBatch(@NonNull Collection<T> itemsToAddOrUpdate,
+            @NonNull Collection<T> itemsToRemove) {
+        throwIfInMutationOperation();
+        if (itemsToAddOrUpdate.isEmpty() && itemsToRemove.isEmpty()) {
+            return;
+        }
+
+        final T[] newData = itemsToAddOrUpdate.toArray(
+                (T[]) Array.newInstance(mTClass, itemsToAddOrUpdate.size()));
+        final int newDataSize = sortAndDedup(newData);
+
+        // What happens to each old item: it is dropped, replaced by the new item that is the same
+        // as it, or kept. Items replaced by an item that sorts somewhere else are dropped and the
+        // new item is inserted.
+        final boolean[] dropped = new boolean[mSize];
+        final T[] replacements = (T[]) Array.newInstance(mTClass, mSize);
+        int lastChanged = -1;
+        for (T item : itemsToRemove) {
+            final int index = findExistingIndex(item);
+            if (index != INVALID_POSITION) {
+                dropped[index] = true;
+                lastChanged = Math.max(lastChanged, index);
+            }
+        }
+        // Moves the items that do not replace an old item in place to the front of newData.
+        int insertCount = 0;
+        for (int i = 0; i < newDataSize; i++) {
+            final T item = newData[i];
+            final int index = findExistingIndex(item);
+            if (index != INVALID_POSITION && !dropped[index]) {
+                if (mCallback.compare(mData[index], item) == 0) {
+                    replacements[index] = item;
+                    lastChanged = Math.max(lastChanged, index);
+                    continue;
+                }
+                dropped[index] = true;
+                lastChanged = Math.max(lastChanged, index);
+            }
+            newData[insertCount++] = item;
+        }
+        if (lastChanged < 0 && insertCount == 0) {
+            return;
+        }
+
+        final boolean forceBatchedUpdates = !(mCallback instanceof BatchedCallback);
+        if (forceBatchedUpdates) {
+            beginBatchedUpdates();
+        }
+        mIdIndexValid = false;
+
+        mOldData = mData;
+        mOldDataStart = 0;
+        mOldDataSize = mSize;
+
+        mData = (T[]) Array.newInstance(mTClass, mSize + insertCount + CAPACITY_GROWTH);
+        mNewDataStart = 0;
+
+        int newDataStart = 0;
+        while (mOldDataStart < mOldDataSize || newDataStart < insertCount) {
+            if (mOldDataStart == mOldDataSize) {
+                // No more old items, copy the remaining new items.
+                int itemCount = insertCount - newDataStart;
+                System.arraycopy(newData, newDataStart, mData, mNewDataStart, itemCount);
+                mNewDataStart += itemCount;
+                mSize += itemCount;
+                mCallback.onInserted(mNewDataStart - itemCount, itemCount);
+                break;
+            }
+
+            T oldItem = mOldData[mOldDataStart];
+            if (dropped[mOldDataStart]) {
+                mOldDataStart++;
+                mSize--;
+                mCallback.onRemoved(mNewDataStart, 1);
+            } else if (newDataStart < insertCount
+                    && mCallback.compare(oldItem, newData[newDataStart]) > 0) {
+                // New item is lower, output it.
+                mData[mNewDataStart++] = newData[newDataStart++];
+                mSize++;
+                mCallback.onInserted(mNewDataStart - 1, 1);
+            } else if (newDataStart == insertCount && mOldDataStart > lastChanged) {
+                // Nothing left to add or change, copy the remaining old items.
+                int itemCount = mOldDataSize - mOldDataStart;
+                System.arraycopy(mOldData, mOldDataStart, mData, mNewDataStart, itemCount);
+                mNewDataStart += itemCount;
+                break;
+            } else if (replacements[mOldDataStart] != null) {
+                // Output the new version of the item in its place.
+                T newItem = replacements[mOldDataStart];
+                mData[mNewDataStart++] = newItem;
+                mOldDataStart++;
+                if (!mCallback.areContentsTheSame(oldItem, newItem)) {
+                    mCallback.onChanged(mNewDataStart - 1, 1,
+                            mCallback.getChangePayload(oldItem, newItem));
+                }
+            } else {
+                // Old item is lower than or equal to the new. Output it.
+                mData[mNewDataStart++] = oldItem;
+                mOldDataStart++;
+            }
+        }
+
+        mOldData = null;
+
+        if (forceBatchedUpdates) {
+            endBatchedUpdates();
+        }
+    }
+
     /**
      * Throws an exception if called while we are in the middle of a mutation operation (addAll or
      * replaceAll).
@@ -549,10 +736,10 @@ public class SortedList<T> {
             if (mCallback.areItemsTheSame(existing, item)) {
                 if (mCallback.areContentsTheSame(existing, item)) {
                     //no change but still replace the item
-                    mData[index] = item;
+                    replaceItemAt(index, existing, item);
                     return index;
                 } else {
-                    mData[index] = item;
+                    replaceItemAt(index, existing, item);
                     mCallback.onChanged(index, 1, mCallback.getChangePayload(existing, item));
                     return index;
                 }
@@ -592,7 +779,7 @@ public class SortedList<T> {
     }
 
     private boolean remove(T item, boolean notify) {
-        int index = findIndexOf(item, mData, 0, mSize, DELETION);
+        int index = findExistingIndex(item);
         if (index == INVALID_POSITION) {
             return false;
         }
@@ -601,6 +788,7 @@ public class SortedList<T> {
     }
 
     private void removeItemAtIndex(int index, boolean notify) {
+        mIdIndexValid = false;
         System.arraycopy(mData, index + 1, mData, index, mSize - index - 1);
         mSize--;
         mData[mSize] = null;
@@ -638,7 +826,7 @@ public class SortedList<T> {
             // different items, we can use comparison and may avoid lookup
             final int cmp = mCallback.compare(existing, item);
             if (cmp == 0) {
-                mData[index] = item;
+                replaceItemAt(index, existing, item);
                 if (contentsChanged) {
                     mCallback.onChanged(index, 1, mCallback.getChangePayload(existing, item));
                 }
@@ -738,9 +926,75 @@ public class SortedList<T> {
             }
             return INVALID_POSITION;
         }
+        return findExistingIndex(item);
+    }
+
+    /**
+     * Returns the position of the item in mData, looking it up by id first if the identity index
+     * is enabled.
+     */
+    private int findExistingIndex(T item) {
+        if (mIdentityIndexEnabled) {
+            final int index = findIndexById(item);
+            if (index != UNKNOWN_POSITION) {
+                return index;
+            }
+        }
         return findIndexOf(item, mData, 0, mSize, LOOKUP);
     }
 
+    /**
+     * Looks the item up in the identity index. Returns its position, {@link #INVALID_POSITION}
+     * if it is not in the list, or {@link #UNKNOWN_POSITION} if the index cannot tell.
+     */
+    private int findIndexById(T item) {
+        final long id = mCallback.getItemId(item);
+        if (id == RecyclerView.NO_ID) {
+            return UNKNOWN_POSITION;
+        }
+        if (!mIdIndexValid) {
+            rebuildIdIndex();
+        }
+        final int index = mIdIndex.get(id);
+        if (index == LongIndexMap.ABSENT) {
+            return mIdIndexComplete ? INVALID_POSITION : UNKNOWN_POSITION;
+        }
+        if (index == DUPLICATE_ID || !mCallback.areItemsTheSame(mData[index], item)) {
+            return UNKNOWN_POSITION;
+        }
+        return index;
+    }
+
+    /**
+     * Replaces {@code existing} at {@code index} with {@code item} in place. The identity index
+     * is invalidated if the id changes.
+     */
+    private void replaceItemAt(int index, T existing, T item) {
+        mData[index] = item;
+        if (mIdIndexValid && mCallback.getItemId(existing) != mCallback.getItemId(item)) {
+            mIdIndexValid = false;
+        }
+    }
+
+    private void rebuildIdIndex() {
+        if (mIdIndex == null || !mIdIndex.canHold(mSize)) {
+            mIdIndex = new LongIndexMap(Math.max(mSize, mData.length));
+        } else {
+            mIdIndex.clear();
+        }
+        boolean complete = true;
+        for (int i = 0; i < mSize; i++) {
+            final long id = mCallback.getItemId(mData[i]);
+            if (id == RecyclerView.NO_ID) {
+                complete = false;
+            } else if (mIdIndex.put(id, i) != LongIndexMap.ABSENT) {
+                mIdIndex.put(id, DUPLICATE_ID);
+            }
+        }
+        mIdIndexComplete = complete;
+        mIdIndexValid = true;
+    }
+
     private int findIndexOf(T item, T[] mData, int left, int right, int reason) {
         while (left < right) {
             final int middle = (left + right) / 2;
@@ -796,6 +1050,7 @@ public class SortedList<T> {
             throw new IndexOutOfBoundsException(
                     "cannot add item to " + index + " because size is " + mSize);
         }
+        mIdIndexValid = false;
         if (mSize == mData.length) {
             // we are at the limit enlarge
             T[] newData = (T[]) Array.newInstance(mTClass, mData.length + CAPACITY_GROWTH);
@@ -828,6 +1083,7 @@ public class SortedList<T> {
         final int prevSize = mSize;
         Arrays.fill(mData, 0, prevSize, null);
         mSize = 0;
+        mIdIndexValid = false;
         mCallback.onRemoved(0, prevSize);
     }
 
@@ -923,6 +1179,23 @@ public class SortedList<T> {
         public Object getChangePayload(T2 item1, T2 item2) {
             return null;
         }
+
+        /**
+         * Returns a stable id of the item, or {@link RecyclerView#NO_ID} if it has none.
+         * <p>
+         * Used by the SortedList when its {@link SortedList#setIdentityIndexEnabled(boolean)
+         * identity index} is enabled. If two items both have an id,
+         * {@link #areItemsTheSame(T2, T2)} must only return {@code true} for them if their ids
+         * are equal.
+         * <p>
+         * Default implementation returns {@link RecyclerView#NO_ID}.
+         *
+         * @param item The item.
+         * @return The id of the item, or {@link RecyclerView#NO_ID}.
+         */
+        public long getItemId(T2 item) {
+            return RecyclerView.NO_ID;
+        }
     }
 
     /**
@@ -1014,6 +1287,12 @@ public class SortedList<T> {
             return mWrappedCallback.getChangePayload(item1, item2);
         }
 
+        /** {@inheritDoc} */
+        @Override
+        public long getItemId(T2 item) {
+            return mWrappedCallback.getItemId(item);
+        }
+
         /**
          * This method dispatches any pending event notifications to the wrapped Callback.
          * You <b>must</b> always call this method after you are done with editing the SortedList.
@@ -24,6 +24,10 @@ import java.lang.reflect.Array;
 
 /**
  * A sparse collection of tiles sorted for efficient access.
+ * <p>
+ * Tiles are also kept in least recently used order, so that a cache with a memory budget can
+ * evict the tiles that were read the longest time ago. Only switching to another tile in
+ * {@link #getItemAt(int)} counts as a use, which keeps sequential reads free.
  */
 class TileList<T> {
 
@@ -34,6 +38,12 @@ class TileList<T> {
 
     Tile<T> mLastAccessedTile;
 
+    // Most and least recently used tiles of the list linked through Tile.mLruPrev/mLruNext.
+    private Tile<T> mMostRecentlyUsed;
+    private Tile<T> mLeastRecentlyUsed;
+
+    private long mMemorySize;
+
     public TileList(int tileSize) {
         mTileSize = tileSize;
     }
@@ -46,6 +56,7 @@ class TileList<T> {
                 return null;
             }
             mLastAccessedTile = mTiles.valueAt(index);
+            moveToFront(mLastAccessedTile);
         }
         return mLastAccessedTile.getByPosition(pos);
     }
@@ -56,6 +67,17 @@ class TileList<T> {
 
     public void clear() {
         mTiles.clear();
+        mLastAccessedTile = null;
+        mMostRecentlyUsed = null;
+        mLeastRecentlyUsed = null;
+        mMemorySize = 0;
+    }
+
+    /**
+     * Returns the sum of the {@link Tile#mMemorySize} of the tiles in the list.
+     */
+    public long getMemorySize() {
+        return mMemorySize;
     }
 
     /**
@@ -71,12 +93,14 @@ class TileList<T> {
 
     public Tile<T> addOrReplace(Tile<T> newTile) {
         final int index = mTiles.indexOfKey(newTile.mStartPosition);
+        link(newTile);
         if (index < 0) {
             mTiles.put(newTile.mStartPosition, newTile);
             return null;
         }
         Tile<T> oldTile = mTiles.valueAt(index);
         mTiles.setValueAt(index, newTile);
+        unlink(oldTile);
         if (mLastAccessedTile == oldTile) {
             mLastAccessedTile = newTile;
         }
@@ -85,18 +109,77 @@ class TileList<T> {
 
     public Tile<T> removeAtPos(int startPosition) {
         Tile<T> tile = mTiles.get(startPosition);
+        if (tile == null) {
+            return null;
+        }
         if (mLastAccessedTile == tile) {
             mLastAccessedTile = null;
         }
         mTiles.delete(startPosition);
+        unlink(tile);
         return tile;
     }
 
+    /**
+     * Removes and returns the least recently used tile that does not overlap the positions from
+     * {@code protectedStart} to {@code protectedEnd}, both inclusive, or returns {@code null} if
+     * every tile overlaps them.
+     */
+    public Tile<T> removeLeastRecentlyUsed(int protectedStart, int protectedEnd) {
+        for (Tile<T> tile = mLeastRecentlyUsed; tile != null; tile = tile.mLruPrev) {
+            if (tile.mStartPosition + tile.mItemCount <= protectedStart
+                    || tile.mStartPosition > protectedEnd) {
+                return removeAtPos(tile.mStartPosition);
+            }
+        }
+        return null;
+    }
+
+    private void link(Tile<T> tile) {
+        tile.mLruPrev = null;
+        tile.mLruNext = mMostRecentlyUsed;
+        if (mMostRecentlyUsed != null) {
+            mMostRecentlyUsed.mLruPrev = tile;
+        }
+        mMostRecentlyUsed = tile;
+        if (mLeastRecentlyUsed == null) {
+            mLeastRecentlyUsed = tile;
+        }
+        mMemorySize += tile.mMemorySize;
+    }
+
+    private void unlink(Tile<T> tile) {
+        if (tile.mLruPrev != null) {
+            tile.mLruPrev.mLruNext = tile.mLruNext;
+        } else {
+            mMostRecentlyUsed = tile.mLruNext;
+        }
+        if (tile.mLruNext != null) {
+            tile.mLruNext.mLruPrev = tile.mLruPrev;
+        } else {
+            mLeastRecentlyUsed = tile.mLruPrev;
+        }
+        tile.mLruPrev = null;
+        tile.mLruNext = null;
+        mMemorySize -= tile.mMemorySize;
+    }
+
+    private void moveToFront(Tile<T> tile) {
+        if (mMostRecentlyUsed != tile) {
+            unlink(tile);
+            link(tile);
+        }
+    }
+
     public static class Tile<T> {
         public final T[] mItems;
         public int mStartPosition;
         public int mItemCount;
+        // Size reported by AsyncListUtil.DataCallback#getDataSize, if the cache has a budget.
+        public int mMemorySize;
         Tile<T> mNext;  // Used only for pooling recycled tiles.
+        Tile<T> mLruPrev;  // Used only while the tile is in a TileList.
+        Tile<T> mLruNext;
 
         Tile(@NonNull Class<T> klass, int size) {
             @SuppressWarnings("unchecked")
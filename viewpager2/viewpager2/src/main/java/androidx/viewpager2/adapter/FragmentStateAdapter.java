@@ -22,9 +22,13 @@ import static androidx.lifecycle.Lifecycle.State.STARTED;
 import static androidx.recyclerview.widget.RecyclerView.NO_ID;
 import static androidx.viewpager2.adapter.FragmentStateAdapter.FragmentTransactionCallback.OnPostEventListener;
 
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Parcel;
 import android.os.Parcelable;
 import android.view.View;
 import android.view.ViewGroup;
@@ -50,7 +54,10 @@ import androidx.viewpager2.widget.ViewPager2;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -69,6 +76,13 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * <li>{@link RecyclerView.Adapter#onViewRecycled} we remove, save state, destroy the
  * {@link Fragment}.
  * </ul>
+ * <p>
+ * For pagers with many pages, {@link #setFragmentRetentionLimit(int)} releases the Fragments of
+ * detached pages far from the current item ahead of recycling, and
+ * {@link #setSavedStateBudget(int)} caps the memory the saved states of released Fragments use.
+ * While a retention limit is set, detached Fragments are also released when memory runs low while
+ * the app is running, and while a budget is set, the saved states are trimmed further when the
+ * system is about to kill the app in the background. Hiding the UI alone releases nothing.
  */
 public abstract class FragmentStateAdapter extends
         RecyclerView.Adapter<FragmentViewHolder> implements StatefulAdapter {
@@ -79,6 +93,12 @@ public abstract class FragmentStateAdapter extends
     // Fragment GC config
     private static final long GRACE_WINDOW_TIME_MS = 10_000; // 10 seconds
 
+    /**
+     * Used with {@link #setFragmentRetentionLimit(int)} and {@link #setSavedStateBudget(int)} to
+     * not limit retention.
+     */
+    public static final int NO_LIMIT = -1;
+
     @SuppressWarnings("WeakerAccess") // to avoid creation of a synthetic accessor
     final Lifecycle mLifecycle;
     @SuppressWarnings("WeakerAccess") // to avoid creation of a synthetic accessor
@@ -89,6 +109,19 @@ public abstract class FragmentStateAdapter extends
     final LongSparseArray<Fragment> mFragments = new LongSparseArray<>();
     private final LongSparseArray<Fragment.SavedState> mSavedStates = new LongSparseArray<>();
     private final LongSparseArray<Integer> mItemIdToViewHolder = new LongSparseArray<>();
+    // Adapter position of each item at its last bind, to find Fragments far from the current item
+    private final LongSparseArray<Integer> mItemPositions = new LongSparseArray<>();
+
+    // Retention policy
+    private int mFragmentRetentionLimit = NO_LIMIT;
+    private int mSavedStateBudget = NO_LIMIT;
+    private long mSavedStateBytes;
+    // Parceled size of each saved state while a budget is set, least recently used first
+    private final LinkedHashMap<Long, Integer> mSavedStateSizes =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private ComponentCallbacks2 mTrimMemoryCallbacks;
+    private Context mApplicationContext;
+    private RecyclerView.AdapterDataObserver mItemPositionsObserver;
 
     private FragmentMaxLifecycleEnforcer mFragmentMaxLifecycleEnforcer;
 
@@ -141,6 +174,28 @@ public abstract class FragmentStateAdapter extends
         checkArgument(mFragmentMaxLifecycleEnforcer == null);
         mFragmentMaxLifecycleEnforcer = new FragmentMaxLifecycleEnforcer();
         mFragmentMaxLifecycleEnforcer.register(recyclerView);
+
+        mApplicationContext = recyclerView.getContext().getApplicationContext();
+        mTrimMemoryCallbacks = new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                trimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+            }
+
+            @SuppressWarnings("deprecation")
+            @Override
+            public void onLowMemory() {
+                trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+            }
+        };
+        mApplicationContext.registerComponentCallbacks(mTrimMemoryCallbacks);
+
+        mItemPositionsObserver = new ItemPositionsObserver();
+        registerAdapterDataObserver(mItemPositionsObserver);
     }
 
     @CallSuper
@@ -148,6 +203,68 @@ public abstract class FragmentStateAdapter extends
     public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
         mFragmentMaxLifecycleEnforcer.unregister(recyclerView);
         mFragmentMaxLifecycleEnforcer = null;
+        mApplicationContext.unregisterComponentCallbacks(mTrimMemoryCallbacks);
+        mApplicationContext = null;
+        mTrimMemoryCallbacks = null;
+        unregisterAdapterDataObserver(mItemPositionsObserver);
+        mItemPositionsObserver = null;
+    }
+
+    /**
+     * Sets how far from the current item Fragments are kept. The Fragments of items further than
+     * {@code limit} positions from the current item are removed, with their state saved, once
+     * their view is detached, e.g. when RecyclerView keeps the page in its view cache. Pages kept
+     * by {@link ViewPager2#setOffscreenPageLimit(int)} stay attached, so their Fragments are
+     * always kept.
+     *
+     * @param limit Number of positions on each side of the current item, or {@link #NO_LIMIT}
+     *              (the default) to keep the Fragments until their page is recycled.
+     */
+    public void setFragmentRetentionLimit(int limit) {
+        checkArgument(limit >= 0 || limit == NO_LIMIT);
+        mFragmentRetentionLimit = limit;
+        applyFragmentRetentionLimit();
+    }
+
+    /**
+     * Returns how far from the current item Fragments are kept.
+     *
+     * @see #setFragmentRetentionLimit(int)
+     */
+    public int getFragmentRetentionLimit() {
+        return mFragmentRetentionLimit;
+    }
+
+    /**
+     * Sets the number of bytes the saved states of removed Fragments may take once parceled. When
+     * the saved states take more, the least recently used ones are dropped, and their items start
+     * from a fresh Fragment the next time they are shown.
+     *
+     * @param bytes The budget, or {@link #NO_LIMIT} (the default) to keep every saved state.
+     */
+    public void setSavedStateBudget(int bytes) {
+        checkArgument(bytes >= 0 || bytes == NO_LIMIT);
+        if (mSavedStateBudget == NO_LIMIT && bytes != NO_LIMIT) {
+            for (int ix = 0; ix < mSavedStates.size(); ix++) {
+                final int size = measureSavedState(mSavedStates.valueAt(ix));
+                mSavedStateSizes.put(mSavedStates.keyAt(ix), size);
+                mSavedStateBytes += size;
+            }
+        } else if (bytes == NO_LIMIT) {
+            mSavedStateSizes.clear();
+            mSavedStateBytes = 0;
+        }
+        mSavedStateBudget = bytes;
+        trimSavedStates(bytes);
+    }
+
+    /**
+     * Returns the number of bytes the saved states of removed Fragments may take once parceled.
+     *
+     * @see #setSavedStateBudget(int)
+     */
+    public int getSavedStateBudget() {
+        return mSavedStateBudget;
     }
 
     /**
@@ -181,6 +298,7 @@ public abstract class FragmentStateAdapter extends
         }
 
         mItemIdToViewHolder.put(itemId, viewHolderId); // this might overwrite an existing entry
+        mItemPositions.put(itemId, position);
         ensureFragment(position);
 
         /* Special case when {@link RecyclerView} decides to keep the {@link container}
@@ -191,6 +309,7 @@ public abstract class FragmentStateAdapter extends
         }
 
         gcFragments();
+        applyFragmentRetentionLimit();
     }
 
     @SuppressWarnings("WeakerAccess") // to avoid creation of a synthetic accessor
@@ -264,16 +383,143 @@ public abstract class FragmentStateAdapter extends
             // TODO(133419201): check if a Fragment provided here is a new Fragment
             Fragment newFragment = createFragment(position);
             newFragment.setInitialSavedState(mSavedStates.get(itemId));
+            mSavedStateSizes.get(itemId); // marks the saved state as recently used
             mFragments.put(itemId, newFragment);
         }
     }
 
     @Override
     public final void onViewAttachedToWindow(@NonNull final FragmentViewHolder holder) {
+        final long itemId = holder.getItemId();
+        if (!mFragments.containsKey(itemId)) {
+            // The retention policy removed the Fragment while the ViewHolder was detached
+            int position = holder.getAbsoluteAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                position = mItemPositions.get(itemId, RecyclerView.NO_POSITION);
+            }
+            if (position != RecyclerView.NO_POSITION) {
+                ensureFragment(position);
+            }
+        }
         placeFragmentInViewHolder(holder);
         gcFragments();
     }
 
+    @SuppressWarnings("WeakerAccess") // to avoid creation of a synthetic accessor
+    void applyFragmentRetentionLimit() {
+        if (mFragmentRetentionLimit != NO_LIMIT) {
+            releaseDetachedFragments(mFragmentRetentionLimit);
+        }
+    }
+
+    @SuppressWarnings({"WeakerAccess", "deprecation"}) // to avoid creation of a synthetic accessor
+    void trimMemory(int level) {
+        switch (level) {
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW:
+            case ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL:
+                if (mFragmentRetentionLimit != NO_LIMIT) {
+                    releaseDetachedFragments(0);
+                }
+                break;
+            case ComponentCallbacks2.TRIM_MEMORY_MODERATE:
+            case ComponentCallbacks2.TRIM_MEMORY_COMPLETE:
+                // The process is about to be killed, keep only the most recently used states
+                if (mSavedStateBudget != NO_LIMIT) {
+                    trimSavedStates(mSavedStateBudget / 2);
+                }
+                break;
+            default:
+                // Includes TRIM_MEMORY_UI_HIDDEN and TRIM_MEMORY_BACKGROUND: the pages are
+                // kept, so saveState() writes them as they are
+                break;
+        }
+    }
+
+    /**
+     * Removes, saving their state, the Fragments whose view is detached and whose item is more
+     * than {@code maxDistance} positions away from the current item.
+     */
+    private void releaseDetachedFragments(int maxDistance) {
+        if (mFragmentMaxLifecycleEnforcer == null || shouldDelayFragmentTransactions()) {
+            return;
+        }
+        final int currentItem = mFragmentMaxLifecycleEnforcer.getIdleCurrentItem();
+        if (currentItem == RecyclerView.NO_POSITION) {
+            return;
+        }
+
+        List<Long> toRemove = null;
+        for (int ix = 0; ix < mFragments.size(); ix++) {
+            final long itemId = mFragments.keyAt(ix);
+            final Integer position = mItemPositions.get(itemId);
+            if (position == null || Math.abs(position - currentItem) <= maxDistance) {
+                continue;
+            }
+            // Fragments that are not added yet, or whose view is not created yet, are about to
+            // be placed in a container
+            final Fragment fragment = mFragments.valueAt(ix);
+            final View view = fragment.getView();
+            if (!fragment.isAdded() || view == null || view.isAttachedToWindow()) {
+                continue;
+            }
+            if (toRemove == null) {
+                toRemove = new ArrayList<>();
+            }
+            toRemove.add(itemId);
+        }
+
+        if (toRemove != null) {
+            for (Long itemId : toRemove) {
+                removeFragment(itemId);
+            }
+        }
+    }
+
+    private void putSavedState(long itemId, @Nullable Fragment.SavedState savedState) {
+        mSavedStates.put(itemId, savedState);
+        if (mSavedStateBudget != NO_LIMIT) {
+            final int size = measureSavedState(savedState);
+            final Integer previousSize = mSavedStateSizes.put(itemId, size);
+            mSavedStateBytes += size - (previousSize != null ? previousSize : 0);
+            trimSavedStates(mSavedStateBudget);
+        }
+    }
+
+    private void removeSavedState(long itemId) {
+        mSavedStates.remove(itemId);
+        final Integer size = mSavedStateSizes.remove(itemId);
+        if (size != null) {
+            mSavedStateBytes -= size;
+        }
+    }
+
+    /**
+     * Drops the least recently used saved states until they take at most {@code bytes}.
+     */
+    private void trimSavedStates(int bytes) {
+        final Iterator<Map.Entry<Long, Integer>> iterator =
+                mSavedStateSizes.entrySet().iterator();
+        while (mSavedStateBytes > bytes && iterator.hasNext()) {
+            final Map.Entry<Long, Integer> entry = iterator.next();
+            mSavedStates.remove(entry.getKey());
+            mSavedStateBytes -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    private static int measureSavedState(@Nullable Fragment.SavedState savedState) {
+        if (savedState == null) {
+            return 0;
+        }
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeParcelable(savedState, 0);
+            return parcel.dataSize();
+        } finally {
+            parcel.recycle();
+        }
+    }
+
     /**
      * @param holder that has been bound to a Fragment in the {@link #onBindViewHolder} stage.
      */
@@ -449,7 +695,8 @@ public abstract class FragmentStateAdapter extends
         }
 
         if (!containsItem(itemId)) {
-            mSavedStates.remove(itemId);
+            removeSavedState(itemId);
+            mItemPositions.remove(itemId);
         }
 
         if (!fragment.isAdded()) {
@@ -468,7 +715,7 @@ public abstract class FragmentStateAdapter extends
             Fragment.SavedState savedState = mFragmentManager.saveFragmentInstanceState(fragment);
             mFragmentEventDispatcher.dispatchPostEvents(onPost);
 
-            mSavedStates.put(itemId, savedState);
+            putSavedState(itemId, savedState);
         }
         List<OnPostEventListener> onPost =
                 mFragmentEventDispatcher.dispatchPreRemoved(fragment);
@@ -571,7 +818,7 @@ public abstract class FragmentStateAdapter extends
                 long itemId = parseIdFromKey(key, KEY_PREFIX_STATE);
                 Fragment.SavedState state = bundle.getParcelable(key);
                 if (containsItem(itemId)) {
-                    mSavedStates.put(itemId, state);
+                    putSavedState(itemId, state);
                 }
                 continue;
             }
@@ -646,11 +893,13 @@ public abstract class FragmentStateAdapter extends
                 @Override
                 public void onPageScrollStateChanged(int state) {
                     updateFragmentMaxLifecycle(false);
+                    applyFragmentRetentionLimit();
                 }
 
                 @Override
                 public void onPageSelected(int position) {
                     updateFragmentMaxLifecycle(false);
+                    applyFragmentRetentionLimit();
                 }
             };
             mViewPager.registerOnPageChangeCallback(mPageChangeCallback);
@@ -684,6 +933,16 @@ public abstract class FragmentStateAdapter extends
             mViewPager = null;
         }
 
+        /**
+         * Returns the current item, or {@link RecyclerView#NO_POSITION} while scrolling.
+         */
+        int getIdleCurrentItem() {
+            if (mViewPager.getScrollState() != ViewPager2.SCROLL_STATE_IDLE) {
+                return RecyclerView.NO_POSITION;
+            }
+            return mViewPager.getCurrentItem();
+        }
+
         void updateFragmentMaxLifecycle(boolean dataSetChanged) {
             if (shouldDelayFragmentTransactions()) {
                 return; /* recovery step via {@link #mLifecycleObserver} */
@@ -761,6 +1020,60 @@ public abstract class FragmentStateAdapter extends
         }
     }
 
+    /**
+     * Keeps {@link #mItemPositions} in step with structural changes of the data set, so the
+     * retention policy does not measure distances from positions items no longer have.
+     */
+    private class ItemPositionsObserver extends RecyclerView.AdapterDataObserver {
+        @Override
+        public void onChanged() {
+            // Positions are unknown until the items are bound again
+            mItemPositions.clear();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            for (int ix = 0; ix < mItemPositions.size(); ix++) {
+                final int position = mItemPositions.valueAt(ix);
+                if (position >= positionStart) {
+                    mItemPositions.setValueAt(ix, position + itemCount);
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            for (int ix = mItemPositions.size() - 1; ix >= 0; ix--) {
+                final int position = mItemPositions.valueAt(ix);
+                if (position >= positionStart + itemCount) {
+                    mItemPositions.setValueAt(ix, position - itemCount);
+                } else if (position >= positionStart) {
+                    mItemPositions.removeAt(ix);
+                }
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            for (int ix = 0; ix < mItemPositions.size(); ix++) {
+                final int position = mItemPositions.valueAt(ix);
+                final int newPosition;
+                if (position >= fromPosition && position < fromPosition + itemCount) {
+                    newPosition = position + toPosition - fromPosition;
+                } else if (fromPosition < toPosition && position >= fromPosition + itemCount
+                        && position < toPosition + itemCount) {
+                    newPosition = position - itemCount;
+                } else if (toPosition < fromPosition && position >= toPosition
+                        && position < fromPosition) {
+                    newPosition = position + itemCount;
+                } else {
+                    continue;
+                }
+                mItemPositions.setValueAt(ix, newPosition);
+            }
+        }
+    }
+
     /**
      * Simplified {@link RecyclerView.AdapterDataObserver} for clients interested in any data-set
      * changes regardless of their nature.